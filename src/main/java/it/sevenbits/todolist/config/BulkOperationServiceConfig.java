@@ -0,0 +1,29 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.bulk.BulkOperationService;
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration file for BulkOperationService.
+ */
+@Configuration
+public class BulkOperationServiceConfig {
+    /**
+     * This method returns service that runs bulk operations on tasks.
+     *
+     * @param dataBaseTasksRepository ITaskRepository instance.
+     * @param chunkSize Maximal count of tasks processed by one statement.
+     * @param chunkPause Pause between chunks in milliseconds.
+     * @return BulkOperationService instance.
+     */
+    @Bean
+    public BulkOperationService bulkOperationService(
+            final ITasksRepository dataBaseTasksRepository,
+            @Value("${tasks.bulk.chunk-size:1000}") final int chunkSize,
+            @Value("${tasks.bulk.chunk-pause:50}") final long chunkPause) {
+        return new BulkOperationService(dataBaseTasksRepository, chunkSize, chunkPause);
+    }
+}
@@ -1,26 +1,182 @@
 package it.sevenbits.todolist.config;
 
+import it.sevenbits.todolist.core.cache.SegmentedLruCache;
+import it.sevenbits.todolist.core.cache.TaskListVersions;
+import it.sevenbits.todolist.core.cache.TaskPageCache;
+import it.sevenbits.todolist.core.counter.TaskCounters;
+import it.sevenbits.todolist.core.groupcommit.GroupCommitWriter;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.CachingTasksRepository;
 import it.sevenbits.todolist.core.repository.DatabaseTasksRepository;
+import it.sevenbits.todolist.core.repository.GroupCommitTasksRepository;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
 import it.sevenbits.todolist.core.repository.ITasksRepository;
+import it.sevenbits.todolist.core.repository.VersioningTasksRepository;
+import it.sevenbits.todolist.core.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * Spring configuration file for ITaskRepository interface.
  */
 @Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
 public class DataBaseTasksRepositoryConfig {
     /**
-     * This method presents a Bean of repository based on PostgreSQL.
+     * This method presents a Bean of repository based on PostgreSQL, without decorators.
      *
      * @param jdbcOperations JdbcTemplate instance.
+     * @param taskCounters TaskCounters instance.
+     * @param taskIdGenerator ITaskIdGenerator instance.
+     * @return DatabaseTasksRepository instance that represents tasks repository.
+     */
+    @Bean
+    public DatabaseTasksRepository postgresTasksRepository(
+            @Qualifier("tasksJdbcOperations") final JdbcTemplate jdbcOperations,
+            final TaskCounters taskCounters,
+            final ITaskIdGenerator taskIdGenerator) {
+        return new DatabaseTasksRepository(jdbcOperations, taskCounters, taskIdGenerator);
+    }
+
+    /**
+     * This method returns writer that groups concurrent task inserts into one transaction.
+     * It is created only if "tasks.group-commit.enabled" property is true.
+     *
+     * @param postgresTasksRepository Repository groups are written to.
+     * @param maxBatchSize Maximal number of inserts in a group.
+     * @param maxWait Maximal time the first insert of a group waits for others, in microseconds.
+     * @return GroupCommitWriter instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.group-commit", name = "enabled", havingValue = "true")
+    public GroupCommitWriter groupCommitWriter(
+            @Qualifier("postgresTasksRepository") final ITasksRepository postgresTasksRepository,
+            @Value("${tasks.group-commit.max-batch-size:100}") final int maxBatchSize,
+            @Value("${tasks.group-commit.max-wait:500}") final long maxWait) {
+        return new GroupCommitWriter(postgresTasksRepository, maxBatchSize, maxWait);
+    }
+
+    /**
+     * This method returns queue that writes changes of in-memory tasks to the data base in batches.
+     * It is created only if "tasks.write-behind.enabled" property is true.
+     *
+     * @param postgresTasksRepository Repository changes are written to.
+     * @param maxBatchSize Maximal number of tasks written by one batch.
+     * @param maxQueueSize Number of queued tasks at which changes start to wait.
+     * @param maxLag Age of the oldest queued change at which changes start to wait, in milliseconds.
+     * @param maxBlock Maximal time a change waits for the queue in milliseconds.
+     * @param retryDelay Pause after a failed batch in milliseconds.
+     * @return WriteBehindQueue instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindQueue writeBehindQueue(
+            @Qualifier("postgresTasksRepository") final DatabaseTasksRepository postgresTasksRepository,
+            @Value("${tasks.write-behind.max-batch-size:1000}") final int maxBatchSize,
+            @Value("${tasks.write-behind.max-queue-size:100000}") final int maxQueueSize,
+            @Value("${tasks.write-behind.max-lag:5000}") final long maxLag,
+            @Value("${tasks.write-behind.max-block:10000}") final long maxBlock,
+            @Value("${tasks.write-behind.retry-delay:1000}") final long retryDelay) {
+        return new WriteBehindQueue(postgresTasksRepository, maxBatchSize, maxQueueSize, maxLag, maxBlock, retryDelay);
+    }
+
+    /**
+     * This method returns cache of tasks read by ids.
+     * It is created only if "tasks.cache.enabled" property is true.
+     *
+     * @param maxSize Maximal number of cached tasks.
+     * @param ttl Time tasks are cached in milliseconds, 0 to keep them until eviction.
+     * @param negativeTtl Time ids of missing tasks are cached in milliseconds, 0 not to cache them.
+     * @return SegmentedLruCache instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.cache", name = "enabled", havingValue = "true")
+    public SegmentedLruCache<TaskId, Task> taskCache(
+            @Value("${tasks.cache.max-size:10000}") final int maxSize,
+            @Value("${tasks.cache.ttl:60000}") final long ttl,
+            @Value("${tasks.cache.negative-ttl:1000}") final long negativeTtl) {
+        return new SegmentedLruCache<>("taskCache", maxSize, ttl, negativeTtl);
+    }
+
+    /**
+     * This method returns versions of task lists that are bumped by changes of tasks.
+     * It is created only if "tasks.page-cache.enabled" property is true.
+     *
+     * @return TaskListVersions instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.page-cache", name = "enabled", havingValue = "true")
+    public TaskListVersions taskListVersions() {
+        return new TaskListVersions();
+    }
+
+    /**
+     * This method returns cache of serialized pages of task lists.
+     * It is created only if "tasks.page-cache.enabled" property is true.
+     *
+     * @param taskListVersions Versions of task lists.
+     * @param maxSize Maximal number of cached pages.
+     * @param ttl Time pages are cached in milliseconds.
+     * @return TaskPageCache instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.page-cache", name = "enabled", havingValue = "true")
+    public TaskPageCache taskPageCache(
+            final TaskListVersions taskListVersions,
+            @Value("${tasks.page-cache.max-size:1000}") final int maxSize,
+            @Value("${tasks.page-cache.ttl:5000}") final long ttl) {
+        return new TaskPageCache(taskListVersions, maxSize, ttl);
+    }
+
+    /**
+     * This method presents a Bean of repository based on PostgreSQL used by the application:
+     * the plain repository wrapped into decorators that are enabled. With write-behind, tasks are served
+     * from memory, loaded from the data base at start, and written to it by the queue.
+     * It is primary, so it is injected wherever ITasksRepository is needed, and not the plain repository.
+     *
+     * @param postgresTasksRepository Plain repository.
+     * @param taskIdGenerator ITaskIdGenerator instance.
+     * @param writeBehindQueue Queue of changes written to the data base, if write-behind is enabled.
+     * @param groupCommitWriter Writer of insert groups, if group commit is enabled.
+     * @param taskCache Cache of tasks read by ids, if cache is enabled.
+     * @param taskListVersions Versions of task lists, if page cache is enabled.
      * @return ITaskRepository instance that represents tasks repository.
      */
     @Bean
+    @Primary
     public ITasksRepository dataBaseTasksRepository(
-            @Qualifier("tasksJdbcOperations") final JdbcTemplate jdbcOperations) {
-        return new DatabaseTasksRepository(jdbcOperations);
+            @Qualifier("postgresTasksRepository") final ITasksRepository postgresTasksRepository,
+            final ITaskIdGenerator taskIdGenerator,
+            final ObjectProvider<WriteBehindQueue> writeBehindQueue,
+            final ObjectProvider<GroupCommitWriter> groupCommitWriter,
+            final ObjectProvider<SegmentedLruCache<TaskId, Task>> taskCache,
+            final ObjectProvider<TaskListVersions> taskListVersions) {
+        ITasksRepository repository = postgresTasksRepository;
+        WriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (queue != null) {
+            repository = new HashMapTasksRepository(taskIdGenerator, queue);
+        } else {
+            GroupCommitWriter writer = groupCommitWriter.getIfAvailable();
+            if (writer != null) {
+                repository = new GroupCommitTasksRepository(repository, writer);
+            }
+            SegmentedLruCache<TaskId, Task> cache = taskCache.getIfAvailable();
+            if (cache != null) {
+                repository = new CachingTasksRepository(repository, cache);
+            }
+        }
+        TaskListVersions versions = taskListVersions.getIfAvailable();
+        if (versions != null) {
+            repository = new VersioningTasksRepository(repository, versions);
+        }
+        return repository;
     }
-}
\ No newline at end of file
+}
@@ -1,28 +1,78 @@
 package it.sevenbits.todolist.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import it.sevenbits.todolist.core.pool.PoolMetricsRegistry;
+import it.sevenbits.todolist.core.routing.ReplicaRoutingDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Configuration file for the Data source.
  */
 @Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
 public class DataSourceConfig {
     /**
      * This method returns Data source instance.
+     * Pool settings are bound from "spring.datasource.tasks" properties, pool metrics are
+     * recorded into the registry under "tasks" name.
+     * @param poolMetricsRegistry Registry of connection pool metrics.
      * @return Data source instance
      */
     @Bean
+    @Primary
     @FlywayDataSource
     @Qualifier("tasksDataSource")
     @ConfigurationProperties(prefix = "spring.datasource.tasks")
-    public DataSource tasksDataSource() {
-        return DataSourceBuilder.create().build();
+    public HikariDataSource tasksDataSource(final PoolMetricsRegistry poolMetricsRegistry) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        poolMetricsRegistry.instrument("tasks", dataSource);
+        return dataSource;
+    }
+
+    /**
+     * This method returns Data source that routes reads to replicas listed in
+     * "spring.datasource.tasks-replicas" and everything else to primary Data source.
+     * Without replicas all connections are taken from primary.
+     *
+     * @param tasksDataSource Data source of primary data base.
+     * @param environment Environment the replicas are read from.
+     * @param poolMetricsRegistry Registry of connection pool metrics.
+     * @return Routing Data source instance
+     */
+    @Bean
+    @Qualifier("routingTasksDataSource")
+    public ReplicaRoutingDataSource routingTasksDataSource(
+            @Qualifier("tasksDataSource") final DataSource tasksDataSource,
+            final Environment environment,
+            final PoolMetricsRegistry poolMetricsRegistry) {
+        List<HikariConfig> replicaConfigs = Binder.get(environment)
+                .bind("spring.datasource.tasks-replicas", Bindable.listOf(HikariConfig.class))
+                .orElse(Collections.emptyList());
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaConfigs.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replicaConfigs.get(i).copyStateTo(replica);
+            replica.setReadOnly(true);
+            poolMetricsRegistry.instrument("tasks-replica-" + i, replica);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(tasksDataSource, replicas);
     }
 }
@@ -1,9 +1,12 @@
 package it.sevenbits.todolist.config;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
 
@@ -11,18 +14,34 @@ import javax.sql.DataSource;
  * This class presents wraps Data source into the JdbcTemplate interface.
  */
 @Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
 public class DatabaseConfig {
     /**
      * This method returns JdbcTemplate instance we use to interaction with data base.
+     * Reads made while serving GET requests may be answered by replicas.
      * @param tasksDataSource DataSource instance we wrap.
      * @return JdbcTemplate instance.
      */
     @Bean
     @Qualifier("tasksJdbcOperations")
     public JdbcTemplate tasksJdbcOperations(
-            @Qualifier("tasksDataSource")
+            @Qualifier("routingTasksDataSource")
                     final DataSource tasksDataSource
     ) {
         return new JdbcTemplate(tasksDataSource);
     }
-}
\ No newline at end of file
+
+    /**
+     * This method returns transaction manager bound to the same Data source as JdbcTemplate,
+     * so transactional repository methods run on one connection of primary data base.
+     * @param tasksDataSource DataSource instance transactions are taken from.
+     * @return PlatformTransactionManager instance.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            @Qualifier("routingTasksDataSource")
+                    final DataSource tasksDataSource
+    ) {
+        return new DataSourceTransactionManager(tasksDataSource);
+    }
+}
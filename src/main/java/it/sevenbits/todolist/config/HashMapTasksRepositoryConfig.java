@@ -1,23 +1,56 @@
 package it.sevenbits.todolist.config;
 
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.persistence.TaskJournal;
 import it.sevenbits.todolist.core.repository.ITasksRepository;
 import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
+
 
 /**
  * Spring configuration file for ITaskRepository interface.
  */
 @Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "memory")
 public class HashMapTasksRepositoryConfig {
+    private static final int BYTES_IN_MEGABYTE = 1 << 20;
+
+    /**
+     * This method returns journal that makes in-memory tasks durable.
+     * It is created only if "tasks.persistence.enabled" property is true.
+     *
+     * @param directory Directory of log segments and snapshots.
+     * @param segmentSize Size of log segment in megabytes.
+     * @param fsyncInterval Time between fsyncs of the log in milliseconds if writes are not synchronous.
+     * @param syncWrites Whether changes wait until they are forced to disk.
+     * @return TaskJournal instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.persistence", name = "enabled", havingValue = "true")
+    public TaskJournal taskJournal(
+            @Value("${tasks.persistence.directory:data/tasks}") final String directory,
+            @Value("${tasks.persistence.segment-size:64}") final int segmentSize,
+            @Value("${tasks.persistence.fsync-interval:2}") final long fsyncInterval,
+            @Value("${tasks.persistence.sync-writes:true}") final boolean syncWrites) {
+        return new TaskJournal(Paths.get(directory), segmentSize * BYTES_IN_MEGABYTE, fsyncInterval, syncWrites);
+    }
+
     /**
      * This method returns ITaskRepository instance.
      *
+     * @param taskIdGenerator ITaskIdGenerator instance.
+     * @param taskJournal Journal tasks are persisted to, if persistence is enabled.
      * @return ITaskRepository instance that represents tasks repository.
      */
     @Bean
-    public ITasksRepository tasksRepository() {
-        return new HashMapTasksRepository();
+    public ITasksRepository tasksRepository(final ITaskIdGenerator taskIdGenerator,
+                                            final ObjectProvider<TaskJournal> taskJournal) {
+        return new HashMapTasksRepository(taskIdGenerator, taskJournal.getIfAvailable());
     }
-}
\ No newline at end of file
+}
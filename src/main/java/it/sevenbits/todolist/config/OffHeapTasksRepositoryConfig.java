@@ -0,0 +1,25 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.repository.OffHeapTasksRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration file for ITaskRepository interface that keeps tasks off heap.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "offheap")
+public class OffHeapTasksRepositoryConfig {
+    /**
+     * This method returns ITaskRepository instance that keeps tasks in primitive columns and direct memory.
+     *
+     * @param taskIdGenerator ITaskIdGenerator instance.
+     * @return OffHeapTasksRepository instance that represents tasks repository.
+     */
+    @Bean
+    public OffHeapTasksRepository offHeapTasksRepository(final ITaskIdGenerator taskIdGenerator) {
+        return new OffHeapTasksRepository(taskIdGenerator);
+    }
+}
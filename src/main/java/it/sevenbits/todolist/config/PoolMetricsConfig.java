@@ -0,0 +1,48 @@
+package it.sevenbits.todolist.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.sevenbits.todolist.core.pool.AdaptivePoolSizer;
+import it.sevenbits.todolist.core.pool.PoolMetricsRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration file for connection pool metrics and sizing.
+ */
+@Configuration
+public class PoolMetricsConfig {
+    /**
+     * This method returns registry of connection pool metrics.
+     *
+     * @return PoolMetricsRegistry instance.
+     */
+    @Bean
+    public PoolMetricsRegistry poolMetricsRegistry() {
+        return new PoolMetricsRegistry();
+    }
+
+    /**
+     * This method returns sizer of tasks connection pool.
+     * It is created only if "tasks.pool.adaptive.enabled" property is true.
+     *
+     * @param tasksDataSource Data source of primary data base.
+     * @param poolMetricsRegistry PoolMetricsRegistry instance.
+     * @param minSize Lower bound of pool size.
+     * @param maxSize Upper bound of pool size.
+     * @param targetWait Wait for a connection in milliseconds the pool is sized for.
+     * @return AdaptivePoolSizer instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.pool.adaptive", name = "enabled", havingValue = "true")
+    public AdaptivePoolSizer adaptivePoolSizer(
+            @Qualifier("tasksDataSource") final HikariDataSource tasksDataSource,
+            final PoolMetricsRegistry poolMetricsRegistry,
+            @Value("${tasks.pool.adaptive.min-size:4}") final int minSize,
+            @Value("${tasks.pool.adaptive.max-size:32}") final int maxSize,
+            @Value("${tasks.pool.adaptive.target-wait:10}") final long targetWait) {
+        return new AdaptivePoolSizer(tasksDataSource, poolMetricsRegistry, minSize, maxSize, targetWait);
+    }
+}
@@ -0,0 +1,25 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.routing.ReplicaRoutingDataSource;
+import it.sevenbits.todolist.web.filters.ReadRoutingFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration file for routing of reads to replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
+public class ReadRoutingFilterConfig {
+    /**
+     * This method returns filter that routes GET requests to replicas.
+     *
+     * @param routingTasksDataSource ReplicaRoutingDataSource instance.
+     * @return ReadRoutingFilter instance.
+     */
+    @Bean
+    public ReadRoutingFilter readRoutingFilter(final ReplicaRoutingDataSource routingTasksDataSource) {
+        return new ReadRoutingFilter(routingTasksDataSource);
+    }
+}
@@ -0,0 +1,39 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.repository.SegmentTasksRepository;
+import it.sevenbits.todolist.core.segment.SegmentTaskStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Spring configuration file for ITaskRepository interface that keeps tasks in memory-mapped segment files.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "segment")
+public class SegmentTasksRepositoryConfig {
+    private static final int BYTES_IN_MEGABYTE = 1 << 20;
+
+    /**
+     * This method returns ITaskRepository instance that keeps tasks in segment files and indexes on heap.
+     *
+     * @param taskIdGenerator ITaskIdGenerator instance.
+     * @param directory Directory of segment files.
+     * @param segmentSize Size of segment file in megabytes.
+     * @param compactionGarbageRatio Minimal share of segment space not taken by live records to compact it.
+     * @return SegmentTasksRepository instance that represents tasks repository.
+     */
+    @Bean
+    public SegmentTasksRepository segmentTasksRepository(
+            final ITaskIdGenerator taskIdGenerator,
+            @Value("${tasks.segment.directory:data/segments}") final String directory,
+            @Value("${tasks.segment.segment-size:64}") final int segmentSize,
+            @Value("${tasks.segment.compaction-garbage-ratio:0.5}") final double compactionGarbageRatio) {
+        return new SegmentTasksRepository(taskIdGenerator,
+                new SegmentTaskStore(Paths.get(directory), segmentSize * BYTES_IN_MEGABYTE), compactionGarbageRatio);
+    }
+}
@@ -0,0 +1,38 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.archive.TaskArchiver;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Spring configuration file for archival of done tasks.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
+public class TaskArchiveConfig {
+    /**
+     * This method returns a job that moves old done tasks into archive table.
+     * It is created unless "tasks.archive.enabled" property is false.
+     *
+     * @param jdbcOperations JdbcTemplate instance.
+     * @param minAgeDays Days since the last change after which done task is archived.
+     * @param batchSize Maximal count of tasks moved by one statement.
+     * @param batchPause Pause between batches in milliseconds.
+     * @return TaskArchiver instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TaskArchiver taskArchiver(
+            @Qualifier("tasksJdbcOperations") final JdbcTemplate jdbcOperations,
+            @Value("${tasks.archive.min-age-days:30}") final long minAgeDays,
+            @Value("${tasks.archive.batch-size:500}") final int batchSize,
+            @Value("${tasks.archive.batch-pause:50}") final long batchPause) {
+        return new TaskArchiver(jdbcOperations, Duration.ofDays(minAgeDays), batchSize, batchPause);
+    }
+}
@@ -0,0 +1,48 @@
+package it.sevenbits.todolist.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.sevenbits.todolist.core.cache.SegmentedLruCache;
+import it.sevenbits.todolist.core.cache.TaskListVersions;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.notify.TaskChangeListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Spring configuration file for invalidation of local caches by changes made by other instances.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
+public class TaskChangeListenerConfig {
+    /**
+     * This method returns listener of task changes that evicts them from local caches.
+     * It is created only if "tasks.change-listener.enabled" property is true.
+     * It opens its own connection with settings of primary data base, so it does not hold a pooled one.
+     *
+     * @param tasksDataSource Data source of primary data base.
+     * @param taskCache Cache of tasks read by ids, if cache is enabled.
+     * @param taskListVersions Versions of task lists, if page cache is enabled.
+     * @param pollTimeout Time the listener waits for notifications before it checks the connection, in milliseconds.
+     * @param reconnectDelay Pause before reconnection after a failure in milliseconds.
+     * @return TaskChangeListener instance.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tasks.change-listener", name = "enabled", havingValue = "true")
+    public TaskChangeListener taskChangeListener(
+            @Qualifier("tasksDataSource") final HikariDataSource tasksDataSource,
+            final ObjectProvider<SegmentedLruCache<TaskId, Task>> taskCache,
+            final ObjectProvider<TaskListVersions> taskListVersions,
+            @Value("${tasks.change-listener.poll-timeout:10000}") final int pollTimeout,
+            @Value("${tasks.change-listener.reconnect-delay:1000}") final long reconnectDelay) {
+        DriverManagerDataSource listenerDataSource = new DriverManagerDataSource(
+                tasksDataSource.getJdbcUrl(), tasksDataSource.getUsername(), tasksDataSource.getPassword());
+        return new TaskChangeListener(listenerDataSource, taskCache.getIfAvailable(), taskListVersions.getIfAvailable(),
+                pollTimeout, reconnectDelay);
+    }
+}
@@ -0,0 +1,43 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.counter.TaskCounters;
+import it.sevenbits.todolist.core.counter.TaskCountsReconciler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Spring configuration file for task counters.
+ */
+@Configuration
+@EnableScheduling
+public class TaskCountersConfig {
+    /**
+     * This method returns in-process task counters.
+     *
+     * @return TaskCounters instance.
+     */
+    @Bean
+    public TaskCounters taskCounters() {
+        return new TaskCounters();
+    }
+
+    /**
+     * This method returns a job that keeps task counters in sync with data base.
+     * It is not created if tasks are kept in memory.
+     *
+     * @param jdbcOperations JdbcTemplate instance.
+     * @param taskCounters TaskCounters instance.
+     * @return TaskCountsReconciler instance.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tasks.engine", havingValue = "postgres", matchIfMissing = true)
+    public TaskCountsReconciler taskCountsReconciler(
+            @Qualifier("tasksJdbcOperations") final JdbcTemplate jdbcOperations,
+            final TaskCounters taskCounters) {
+        return new TaskCountsReconciler(jdbcOperations, taskCounters);
+    }
+}
@@ -0,0 +1,30 @@
+package it.sevenbits.todolist.config;
+
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.id.RandomTaskIdGenerator;
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration file for task id generator service.
+ */
+@Configuration
+public class TaskIdGeneratorConfig {
+    /**
+     * This method returns task id generator chosen by "tasks.id-generator" property:
+     * "time-ordered" (default) or "random".
+     *
+     * @param generatorType Type of generator.
+     * @return ITaskIdGenerator instance.
+     */
+    @Bean
+    public ITaskIdGenerator taskIdGenerator(
+            @Value("${tasks.id-generator:time-ordered}") final String generatorType) {
+        if ("random".equals(generatorType)) {
+            return new RandomTaskIdGenerator();
+        }
+        return new TimeOrderedTaskIdGenerator();
+    }
+}
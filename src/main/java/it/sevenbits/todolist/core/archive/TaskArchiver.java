@@ -0,0 +1,107 @@
+package it.sevenbits.todolist.core.archive;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class moves done tasks that were not changed for minAge from task table into task_archive table.
+ * Tasks are moved in batches, every batch is one statement, so it holds locks on at most batchSize rows
+ * and rows locked by concurrent changes are skipped until the next run.
+ * Task counts are not changed by archival: task_counts is kept over both tables by triggers.
+ */
+public class TaskArchiver implements IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private final JdbcOperations jdbcOperations;
+    private final Duration minAge;
+    private final int batchSize;
+    private final long batchPauseMillis;
+
+    private final AtomicLong archivedCount = new AtomicLong();
+    private volatile long lastRunArchivedCount;
+    private volatile long lastRunMillis;
+
+    /**
+     * Constructor of TaskArchiver class.
+     *
+     * @param jdbcOperations JdbcOperations instance.
+     * @param minAge Time since the last change after which done task is archived.
+     * @param batchSize Maximal count of tasks moved by one statement.
+     * @param batchPauseMillis Pause between batches in milliseconds.
+     */
+    public TaskArchiver(final JdbcOperations jdbcOperations,
+                        final Duration minAge,
+                        final int batchSize,
+                        final long batchPauseMillis) {
+        this.jdbcOperations = jdbcOperations;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    /**
+     * This method moves all tasks that are old enough, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${tasks.archive.interval:600000}",
+            fixedDelayString = "${tasks.archive.interval:600000}")
+    public void archive() {
+        long startedAt = System.nanoTime();
+        Instant updatedBefore = Instant.now().minus(minAge);
+        long archived = 0;
+        try {
+            int batchCount;
+            do {
+                batchCount = archiveBatch(updatedBefore);
+                archived += batchCount;
+                archivedCount.addAndGet(batchCount);
+                if (batchCount == batchSize && batchPauseMillis > 0) {
+                    Thread.sleep(batchPauseMillis);
+                }
+            } while (batchCount == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunArchivedCount = archived;
+            lastRunMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        }
+        if (archived > 0) {
+            LOGGER.info("{} tasks archived in {} ms", archived, lastRunMillis);
+        }
+    }
+
+    private int archiveBatch(final Instant updatedBefore) {
+        return jdbcOperations.update(
+                "WITH archived AS (DELETE FROM task WHERE id IN (" +
+                        "SELECT id FROM task WHERE status = 'done' AND updatedAt < ? " +
+                        "ORDER BY updatedAt LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id, text, status, createdAt, updatedAt, textSearch) " +
+                        "INSERT INTO task_archive (id, text, status, createdAt, updatedAt, textSearch) " +
+                        "SELECT id, text, status, createdAt, updatedAt, textSearch FROM archived",
+                Timestamp.from(updatedBefore),
+                batchSize);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "archive";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("archived", archivedCount.get());
+        metrics.put("lastRunArchived", lastRunArchivedCount);
+        metrics.put("lastRunMillis", lastRunMillis);
+        return metrics;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains the job that moves old done tasks into archive table.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.archive;
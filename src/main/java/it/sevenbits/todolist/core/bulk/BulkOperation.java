@@ -0,0 +1,133 @@
+package it.sevenbits.todolist.core.bulk;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import it.sevenbits.todolist.core.model.Task;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class presents progress of a bulk operation.
+ */
+public class BulkOperation {
+    /**
+     * State of an operation that is being processed.
+     */
+    public static final String RUNNING = "running";
+    /**
+     * State of an operation that has processed all selected tasks.
+     */
+    public static final String COMPLETED = "completed";
+    /**
+     * State of an operation that was stopped by an error.
+     */
+    public static final String FAILED = "failed";
+
+    private final String id;
+    private final String action;
+    private final Instant startedAt;
+    private final AtomicLong affected;
+    private final AtomicLong chunks;
+    private volatile String state;
+    private volatile Instant finishedAt;
+
+    /**
+     * Constructor of BulkOperation class.
+     *
+     * @param id Operation id.
+     * @param action Operation action.
+     */
+    public BulkOperation(final String id, final String action) {
+        this.id = id;
+        this.action = action;
+        this.startedAt = Instant.now();
+        this.affected = new AtomicLong();
+        this.chunks = new AtomicLong();
+        this.state = RUNNING;
+    }
+
+    /**
+     * This method registers a processed chunk.
+     *
+     * @param affectedCount Count of tasks affected by chunk.
+     */
+    void addChunk(final int affectedCount) {
+        affected.addAndGet(affectedCount);
+        chunks.incrementAndGet();
+    }
+
+    /**
+     * This method marks operation as finished.
+     *
+     * @param finalState Final operation state.
+     */
+    void finish(final String finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    /**
+     * Id getter.
+     *
+     * @return Operation id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Action getter.
+     *
+     * @return Operation action.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * State getter.
+     *
+     * @return Operation state.
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * Affected tasks count getter.
+     *
+     * @return Count of tasks affected so far.
+     */
+    public long getAffected() {
+        return affected.get();
+    }
+
+    /**
+     * Chunks count getter.
+     *
+     * @return Count of chunks processed so far.
+     */
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * startedAt getter.
+     *
+     * @return Operation starting time.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = Task.DATE_TIME_PATTERN, timezone = "UTC")
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * finishedAt getter.
+     *
+     * @return Operation finishing time or null if operation is running.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = Task.DATE_TIME_PATTERN, timezone = "UTC")
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,136 @@
+package it.sevenbits.todolist.core.bulk;
+
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+
+/**
+ * This class runs bulk operations on tasks in background.
+ * Every operation is split into chunks, so no statement holds locks on many rows for long.
+ */
+public class BulkOperationService {
+    /**
+     * Action that changes status of selected tasks.
+     */
+    public static final String UPDATE = "update";
+    /**
+     * Action that removes selected tasks.
+     */
+    public static final String DELETE = "delete";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkOperationService.class);
+    private static final Duration FINISHED_OPERATION_RETENTION = Duration.ofHours(1);
+
+    private final ITasksRepository tasksRepository;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final Map<String, BulkOperation> operations;
+    private final ExecutorService executorService;
+
+    /**
+     * Constructor of BulkOperationService class.
+     *
+     * @param tasksRepository Repository to run operations on.
+     * @param chunkSize Maximal count of tasks processed by one statement.
+     * @param chunkPauseMillis Pause between chunks in milliseconds.
+     */
+    public BulkOperationService(final ITasksRepository tasksRepository,
+                                final int chunkSize,
+                                final long chunkPauseMillis) {
+        this.tasksRepository = tasksRepository;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        this.operations = new ConcurrentHashMap<>();
+        this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-operations");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method starts changing status of all tasks selected by filter.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @return Started operation.
+     */
+    public BulkOperation startUpdate(final TaskFilter filter, final String status) {
+        return start(UPDATE, () -> tasksRepository.updateTasksByFilter(filter, status, chunkSize));
+    }
+
+    /**
+     * This method starts removing all tasks selected by filter.
+     *
+     * @param filter Filter of tasks to remove.
+     * @return Started operation.
+     */
+    public BulkOperation startDelete(final TaskFilter filter) {
+        return start(DELETE, () -> tasksRepository.deleteTasksByFilter(filter, chunkSize));
+    }
+
+    /**
+     * This method returns operation by its id.
+     *
+     * @param id Operation id.
+     * @return Operation or null if there is no such operation.
+     */
+    public BulkOperation getOperation(final String id) {
+        return operations.get(id);
+    }
+
+    /**
+     * This method stops background processing.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    private BulkOperation start(final String action, final IntSupplier chunk) {
+        removeFinishedOperations();
+
+        BulkOperation operation = new BulkOperation(UUID.randomUUID().toString(), action);
+        operations.put(operation.getId(), operation);
+        executorService.execute(() -> run(operation, chunk));
+        return operation;
+    }
+
+    private void run(final BulkOperation operation, final IntSupplier chunk) {
+        try {
+            int affectedCount;
+            do {
+                affectedCount = chunk.getAsInt();
+                operation.addChunk(affectedCount);
+                LOGGER.debug("Bulk {} {}: {} tasks affected in {} chunks",
+                        operation.getAction(), operation.getId(), operation.getAffected(), operation.getChunks());
+                if (affectedCount == chunkSize && chunkPauseMillis > 0) {
+                    Thread.sleep(chunkPauseMillis);
+                }
+            } while (affectedCount == chunkSize);
+            operation.finish(BulkOperation.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            operation.finish(BulkOperation.FAILED);
+        } catch (RuntimeException e) {
+            LOGGER.error("Bulk {} {} failed", operation.getAction(), operation.getId(), e);
+            operation.finish(BulkOperation.FAILED);
+        }
+    }
+
+    private void removeFinishedOperations() {
+        Instant threshold = Instant.now().minus(FINISHED_OPERATION_RETENTION);
+        operations.values().removeIf(operation -> operation.getFinishedAt() != null
+                && operation.getFinishedAt().isBefore(threshold));
+    }
+}
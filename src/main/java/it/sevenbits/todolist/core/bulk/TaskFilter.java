@@ -0,0 +1,97 @@
+package it.sevenbits.todolist.core.bulk;
+
+import it.sevenbits.todolist.core.model.Task;
+
+import java.time.Instant;
+
+/**
+ * This class presents a filter that selects tasks for bulk operations.
+ * Null fields do not restrict selection, bounds are exclusive.
+ */
+public class TaskFilter {
+    private final String status;
+    private final Instant createdAfter;
+    private final Instant createdBefore;
+    private final Instant updatedAfter;
+    private final Instant updatedBefore;
+
+    /**
+     * Filter constructor.
+     *
+     * @param status Status of tasks to select.
+     * @param createdAfter Lower bound of task creating time.
+     * @param createdBefore Upper bound of task creating time.
+     * @param updatedAfter Lower bound of task updating time.
+     * @param updatedBefore Upper bound of task updating time.
+     */
+    public TaskFilter(final String status,
+                      final Instant createdAfter,
+                      final Instant createdBefore,
+                      final Instant updatedAfter,
+                      final Instant updatedBefore) {
+        this.status = status;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+        this.updatedAfter = updatedAfter;
+        this.updatedBefore = updatedBefore;
+    }
+
+    /**
+     * This method checks whether passed task is selected by filter.
+     *
+     * @param task "Task" model.
+     * @return true if task matches all filter conditions.
+     */
+    public boolean matches(final Task task) {
+        return (status == null || status.equals(task.getStatus()))
+                && (createdAfter == null || task.getCreatedAt().isAfter(createdAfter))
+                && (createdBefore == null || task.getCreatedAt().isBefore(createdBefore))
+                && (updatedAfter == null || task.getUpdatedAt().isAfter(updatedAfter))
+                && (updatedBefore == null || task.getUpdatedAt().isBefore(updatedBefore));
+    }
+
+    /**
+     * Status getter.
+     *
+     * @return Status of tasks to select.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * createdAfter getter.
+     *
+     * @return Lower bound of task creating time.
+     */
+    public Instant getCreatedAfter() {
+        return createdAfter;
+    }
+
+    /**
+     * createdBefore getter.
+     *
+     * @return Upper bound of task creating time.
+     */
+    public Instant getCreatedBefore() {
+        return createdBefore;
+    }
+
+    /**
+     * updatedAfter getter.
+     *
+     * @return Lower bound of task updating time.
+     */
+    public Instant getUpdatedAfter() {
+        return updatedAfter;
+    }
+
+    /**
+     * updatedBefore getter.
+     *
+     * @return Upper bound of task updating time.
+     */
+    public Instant getUpdatedBefore() {
+        return updatedBefore;
+    }
+}
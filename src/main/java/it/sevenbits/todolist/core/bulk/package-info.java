@@ -0,0 +1,6 @@
+/**
+ * This package contains services and models for bulk operations on tasks selected by a filter.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.bulk;
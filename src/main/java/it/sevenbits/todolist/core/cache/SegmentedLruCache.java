@@ -0,0 +1,371 @@
+package it.sevenbits.todolist.core.cache;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * This class is a bounded read-through cache with segmented LRU eviction.
+ *
+ * New entries go to the probation segment, an entry that is read again is moved to the protected segment,
+ * and the least recently used protected entry is moved back to probation when protected segment is full.
+ * Entries are evicted from probation first, so a scan of keys read once does not push out hot keys.
+ * Keys are split between shards by hash, every shard has its own lock.
+ *
+ * Missing values are cached too, for a shorter time. Loads run without lock; if a key of the shard
+ * is invalidated while a value is loaded, the loaded value is not cached, as it may be stale.
+ *
+ * @param <K> Type of keys.
+ * @param <V> Type of values.
+ */
+public class SegmentedLruCache<K, V> implements IMetricsSource {
+    private static final int SHARD_COUNT = 16;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final String metricsName;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final List<Shard> shards;
+
+    private final LongAdder hits;
+    private final LongAdder negativeHits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+    private final LongAdder invalidations;
+    private final LatencyHistogram loadTime;
+
+    /**
+     * Constructor of SegmentedLruCache class.
+     *
+     * @param metricsName Name of the cache metrics.
+     * @param maxSize Maximal number of cached entries.
+     * @param ttlMillis Time entries are kept after they are loaded in milliseconds, 0 to keep them until eviction.
+     * @param negativeTtlMillis Time missing values are kept in milliseconds, 0 not to cache them.
+     */
+    public SegmentedLruCache(final String metricsName, final int maxSize,
+                             final long ttlMillis, final long negativeTtlMillis) {
+        this.metricsName = metricsName;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : Long.MAX_VALUE;
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        int shardCapacity = Math.max(1, (maxSize + SHARD_COUNT - 1) / SHARD_COUNT);
+        shards = new ArrayList<>(SHARD_COUNT);
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards.add(new Shard(shardCapacity));
+        }
+        hits = new LongAdder();
+        negativeHits = new LongAdder();
+        misses = new LongAdder();
+        evictions = new LongAdder();
+        expirations = new LongAdder();
+        invalidations = new LongAdder();
+        loadTime = new LatencyHistogram();
+    }
+
+    /**
+     * This method returns cached value of the key or loads and caches it.
+     *
+     * @param key Key.
+     * @param loader Loader of the value, it returns null if there is no value.
+     * @return Value or null if there is no value.
+     */
+    public V get(final K key, final Function<K, V> loader) {
+        Shard shard = getShard(key);
+        long generation;
+        shard.lock.lock();
+        try {
+            Entry<V> entry = shard.find(key, System.nanoTime());
+            if (entry != null) {
+                (entry.value == null ? negativeHits : hits).increment();
+                return entry.value;
+            }
+            generation = shard.generation;
+        } finally {
+            shard.lock.unlock();
+        }
+
+        misses.increment();
+        long startedAt = System.nanoTime();
+        V value = loader.apply(key);
+        loadTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+        shard.lock.lock();
+        try {
+            if (shard.generation == generation) {
+                shard.add(key, value, System.nanoTime());
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        return value;
+    }
+
+    /**
+     * This method returns cached values of the keys and loads missing ones with one call of the loader.
+     *
+     * @param keys Keys.
+     * @param loader Loader of values by keys, it returns no entry for keys that have no value.
+     * @return Values by keys that have them.
+     */
+    public Map<K, V> getAll(final Collection<K> keys, final Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        List<K> missingKeys = new ArrayList<>();
+        long[] generations = new long[SHARD_COUNT];
+        for (K key : keys) {
+            int shardIndex = getShardIndex(key);
+            Shard shard = shards.get(shardIndex);
+            shard.lock.lock();
+            try {
+                Entry<V> entry = shard.find(key, System.nanoTime());
+                if (entry == null) {
+                    missingKeys.add(key);
+                    generations[shardIndex] = shard.generation;
+                } else {
+                    (entry.value == null ? negativeHits : hits).increment();
+                    if (entry.value != null) {
+                        values.put(key, entry.value);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return values;
+        }
+
+        misses.add(missingKeys.size());
+        long startedAt = System.nanoTime();
+        Map<K, V> loadedValues = loader.apply(missingKeys);
+        loadTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+        for (K key : missingKeys) {
+            V value = loadedValues.get(key);
+            int shardIndex = getShardIndex(key);
+            Shard shard = shards.get(shardIndex);
+            shard.lock.lock();
+            try {
+                if (shard.generation == generations[shardIndex]) {
+                    shard.add(key, value, System.nanoTime());
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * This method removes cached value of the key.
+     *
+     * @param key Key.
+     */
+    public void invalidate(final K key) {
+        Shard shard = getShard(key);
+        shard.lock.lock();
+        try {
+            shard.remove(key);
+        } finally {
+            shard.lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * This method removes cached values of the keys.
+     *
+     * @param keys Keys.
+     */
+    public void invalidateAll(final Collection<K> keys) {
+        for (K key : keys) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * This method removes all cached values.
+     */
+    public void invalidateAll() {
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                invalidations.add(shard.size());
+                shard.clear();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * This method returns number of cached entries, including missing values.
+     *
+     * @return Number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return metricsName;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.sum() + negativeHits.sum();
+        long requestCount = hitCount + misses.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("maxSize", maxSize);
+        metrics.put("hits", hits.sum());
+        metrics.put("negativeHits", negativeHits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("hitRatio", requestCount == 0 ? 0 : (double) hitCount / requestCount);
+        metrics.put("evictions", evictions.sum());
+        metrics.put("expirations", expirations.sum());
+        metrics.put("invalidations", invalidations.sum());
+        metrics.put("loadMicros", loadTime.snapshot());
+        return metrics;
+    }
+
+    private Shard getShard(final K key) {
+        return shards.get(getShardIndex(key));
+    }
+
+    private int getShardIndex(final K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (SHARD_COUNT - 1);
+    }
+
+    /**
+     * Cached value, null if the key has no value, and the time it expires at.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Probation and protected segments of a part of keys. Fields are guarded by the shard lock.
+     */
+    private final class Shard {
+        private final ReentrantLock lock;
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<K, Entry<V>> probation;
+        private final LinkedHashMap<K, Entry<V>> protectedEntries;
+        private long generation;
+
+        Shard(final int capacity) {
+            this.lock = new ReentrantLock();
+            this.capacity = capacity;
+            this.protectedCapacity = (int) (capacity * PROTECTED_SHARE);
+            this.probation = new LinkedHashMap<>();
+            this.protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        /**
+         * Finds live entry and records access to it: probation entry is promoted to protected segment.
+         */
+        Entry<V> find(final K key, final long now) {
+            Entry<V> entry = protectedEntries.get(key);
+            if (entry != null) {
+                if (isExpired(entry, now)) {
+                    protectedEntries.remove(key);
+                    expirations.increment();
+                    return null;
+                }
+                return entry;
+            }
+            entry = probation.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                expirations.increment();
+                return null;
+            }
+            if (protectedCapacity == 0) {
+                probation.put(key, entry);
+                return entry;
+            }
+            protectedEntries.put(key, entry);
+            if (protectedEntries.size() > protectedCapacity) {
+                Iterator<Map.Entry<K, Entry<V>>> eldest = protectedEntries.entrySet().iterator();
+                Map.Entry<K, Entry<V>> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            return entry;
+        }
+
+        void add(final K key, final V value, final long now) {
+            long ttl = value == null ? negativeTtlNanos : ttlNanos;
+            if (ttl == 0) {
+                return;
+            }
+            discard(key);
+            probation.put(key, new Entry<>(value, ttl == Long.MAX_VALUE ? Long.MAX_VALUE : now + ttl));
+            if (size() > capacity) {
+                Iterator<K> eldest = (probation.isEmpty() ? protectedEntries : probation).keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        void remove(final K key) {
+            discard(key);
+            generation++;
+        }
+
+        private void discard(final K key) {
+            if (protectedEntries.remove(key) == null) {
+                probation.remove(key);
+            }
+        }
+
+        void clear() {
+            probation.clear();
+            protectedEntries.clear();
+            generation++;
+        }
+
+        int size() {
+            return probation.size() + protectedEntries.size();
+        }
+
+        private boolean isExpired(final Entry<V> entry, final long now) {
+            return entry.expiresAt != Long.MAX_VALUE && now - entry.expiresAt > 0;
+        }
+    }
+}
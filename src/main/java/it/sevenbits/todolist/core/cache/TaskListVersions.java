@@ -0,0 +1,55 @@
+package it.sevenbits.todolist.core.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class holds versions of task lists, one per status.
+ * A change of tasks bumps the version of their status, or of all statuses if they are not known.
+ * Version of a list is the sum of its counter and the counter of all statuses, both only grow,
+ * so a result stored with the version read before it was made is current while the version is the same.
+ */
+public class TaskListVersions {
+    private final ConcurrentMap<String, AtomicLong> statusVersions;
+    private final AtomicLong allStatusesVersion;
+
+    /**
+     * Constructor of TaskListVersions class.
+     */
+    public TaskListVersions() {
+        statusVersions = new ConcurrentHashMap<>();
+        allStatusesVersion = new AtomicLong();
+    }
+
+    /**
+     * This method returns current version of the list of tasks with the status.
+     * It must be read before the list is read, so changes made during the read change the version.
+     *
+     * @param status Status of tasks.
+     * @return Version.
+     */
+    public long getVersion(final String status) {
+        return allStatusesVersion.get() + getCounter(status).get();
+    }
+
+    /**
+     * This method bumps version of the list of tasks with the status. It must be called after the change is done.
+     *
+     * @param status Status of changed tasks.
+     */
+    public void changed(final String status) {
+        getCounter(status).incrementAndGet();
+    }
+
+    /**
+     * This method bumps versions of all lists. It must be called after the change is done.
+     */
+    public void changedAll() {
+        allStatusesVersion.incrementAndGet();
+    }
+
+    private AtomicLong getCounter(final String status) {
+        return statusVersions.computeIfAbsent(status, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,134 @@
+package it.sevenbits.todolist.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * This class caches serialized pages of task lists by status, order, page number and size.
+ * Every page is stored with the version of its status list read before the page was made,
+ * a page whose version is behind is loaded again, so changed lists are not purged explicitly.
+ */
+public class TaskPageCache implements IMetricsSource {
+    private static final String DEFAULT_STATUS = "inbox";
+    private static final ObjectWriter PAGE_WRITER = new ObjectMapper().writer();
+
+    private final SegmentedLruCache<PageKey, CachedPage> cache;
+    private final TaskListVersions versions;
+    private final LongAdder staleHits;
+
+    /**
+     * Constructor of TaskPageCache class.
+     *
+     * @param versions Versions of task lists.
+     * @param maxSize Maximal number of cached pages.
+     * @param ttlMillis Time pages are kept in milliseconds, it bounds staleness caused by changes made around versions.
+     */
+    public TaskPageCache(final TaskListVersions versions, final int maxSize, final long ttlMillis) {
+        this.versions = versions;
+        this.cache = new SegmentedLruCache<>("pageCache", maxSize, ttlMillis, 0);
+        this.staleHits = new LongAdder();
+    }
+
+    /**
+     * This method returns serialized page from the cache, or makes it by the loader and caches it.
+     * Parameters are taken as they are passed in the request, as links of the page depend on them.
+     *
+     * @param status Status of tasks, null for the default one.
+     * @param order Order of tasks or null.
+     * @param page Page number or null.
+     * @param size Page size or null.
+     * @param loader Loader of the page.
+     * @return Page as UTF-8 JSON.
+     */
+    public byte[] getPage(final String status, final String order, final Short page, final Short size,
+                          final Supplier<JsonNode> loader) {
+        PageKey key = new PageKey(status, order, page, size);
+        String listStatus = Optional.ofNullable(status).orElse(DEFAULT_STATUS);
+        CachedPage cachedPage = cache.get(key, pageKey -> load(listStatus, loader));
+        if (cachedPage.version != versions.getVersion(listStatus)) {
+            staleHits.increment();
+            cache.invalidate(key);
+            cachedPage = cache.get(key, pageKey -> load(listStatus, loader));
+        }
+        return cachedPage.bytes;
+    }
+
+    private CachedPage load(final String status, final Supplier<JsonNode> loader) {
+        long version = versions.getVersion(status);
+        try {
+            return new CachedPage(PAGE_WRITER.writeValueAsBytes(loader.get()), version);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return cache.getMetricsName();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = cache.getMetrics();
+        metrics.put("staleHits", staleHits.sum());
+        return metrics;
+    }
+
+    /**
+     * Serialized page and version of its list.
+     */
+    private static final class CachedPage {
+        private final byte[] bytes;
+        private final long version;
+
+        CachedPage(final byte[] bytes, final long version) {
+            this.bytes = bytes;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Request parameters of a page.
+     */
+    private static final class PageKey {
+        private final String status;
+        private final String order;
+        private final Short page;
+        private final Short size;
+
+        PageKey(final String status, final String order, final Short page, final Short size) {
+            this.status = status;
+            this.order = order;
+            this.page = page;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PageKey)) {
+                return false;
+            }
+            PageKey key = (PageKey) other;
+            return Objects.equals(status, key.status) && Objects.equals(order, key.order)
+                    && Objects.equals(page, key.page) && Objects.equals(size, key.size);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, order, page, size);
+        }
+    }
+}
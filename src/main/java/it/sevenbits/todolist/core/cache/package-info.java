@@ -0,0 +1,6 @@
+/**
+ * This package contains bounded in-process cache of tasks.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.cache;
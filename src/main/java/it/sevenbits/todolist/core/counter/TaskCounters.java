@@ -0,0 +1,104 @@
+package it.sevenbits.todolist.core.counter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class presents an in-process cache of task counts per status.
+ * Counters are striped (LongAdder), so concurrent writers do not contend on a single value.
+ */
+public class TaskCounters {
+    private final ConcurrentMap<String, LongAdder> counters;
+    private volatile boolean loaded;
+
+    /**
+     * Constructor of TaskCounters class.
+     */
+    public TaskCounters() {
+        counters = new ConcurrentHashMap<>();
+        loaded = false;
+    }
+
+    /**
+     * This method returns count of tasks with passed status.
+     *
+     * @param status Task status.
+     * @return Task count.
+     */
+    public long get(final String status) {
+        LongAdder counter = counters.get(status);
+        return counter == null ? 0 : Math.max(counter.sum(), 0);
+    }
+
+    /**
+     * This method registers a new task with passed status.
+     *
+     * @param status Task status.
+     */
+    public void increment(final String status) {
+        add(status, 1);
+    }
+
+    /**
+     * This method registers removal of a task with passed status.
+     *
+     * @param status Task status.
+     */
+    public void decrement(final String status) {
+        add(status, -1);
+    }
+
+    /**
+     * This method registers a task status change.
+     *
+     * @param oldStatus Status task had before.
+     * @param newStatus Status task has now.
+     */
+    public void move(final String oldStatus, final String newStatus) {
+        if (!oldStatus.equals(newStatus)) {
+            decrement(oldStatus);
+            increment(newStatus);
+        }
+    }
+
+    /**
+     * This method adds a delta to count of tasks with passed status.
+     *
+     * @param status Task status.
+     * @param delta Value to add.
+     */
+    public void add(final String status, final long delta) {
+        counters.computeIfAbsent(status, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * This method replaces cached counts with passed ones.
+     * Statuses missing in passed map are reset to zero.
+     *
+     * @param counts Task counts per status.
+     */
+    public void reset(final Map<String, Long> counts) {
+        for (String status : counters.keySet()) {
+            if (!counts.containsKey(status)) {
+                LongAdder counter = counters.get(status);
+                counter.add(-counter.sum());
+            }
+        }
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            LongAdder counter = counters.computeIfAbsent(count.getKey(), key -> new LongAdder());
+            counter.add(count.getValue() - counter.sum());
+        }
+        loaded = true;
+    }
+
+    /**
+     * This method shows whether counts were loaded at least once.
+     *
+     * @return true if counts were loaded.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+}
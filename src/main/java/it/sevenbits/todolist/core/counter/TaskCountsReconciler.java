@@ -0,0 +1,82 @@
+package it.sevenbits.todolist.core.counter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class keeps task_counts table and in-process counters in sync with task and task_archive tables.
+ * task_counts table itself is maintained by triggers in the same transaction as task changes.
+ */
+public class TaskCountsReconciler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskCountsReconciler.class);
+
+    private final JdbcOperations jdbcOperations;
+    private final TaskCounters taskCounters;
+
+    /**
+     * Constructor of TaskCountsReconciler class.
+     *
+     * @param jdbcOperations JdbcOperations instance.
+     * @param taskCounters In-process counters to keep up to date.
+     */
+    public TaskCountsReconciler(final JdbcOperations jdbcOperations,
+                                final TaskCounters taskCounters) {
+        this.jdbcOperations = jdbcOperations;
+        this.taskCounters = taskCounters;
+    }
+
+    /**
+     * This method loads counts from task_counts table into in-process counters.
+     * It brings in changes made by other application instances.
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${tasks.counts.refresh-delay:5000}",
+            fixedDelayString = "${tasks.counts.refresh-delay:5000}")
+    public void refresh() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcOperations.query(
+                "SELECT status, SUM(total) AS total FROM task_counts GROUP BY status",
+                resultSet -> {
+                    counts.put(resultSet.getString("status"), resultSet.getLong("total"));
+                });
+        taskCounters.reset(counts);
+    }
+
+    /**
+     * This method recounts tasks and fixes drift of task_counts table.
+     * Actual and stored counts are taken by one statement, so they share a snapshot,
+     * and the fix is applied as a delta, so concurrent changes are not lost.
+     */
+    @Scheduled(initialDelayString = "${tasks.counts.reconcile-delay:3600000}",
+            fixedDelayString = "${tasks.counts.reconcile-delay:3600000}")
+    public void reconcile() {
+        Map<String, Long> drifts = new HashMap<>();
+        jdbcOperations.query(
+                "SELECT COALESCE(actual.status, counted.status) AS status, " +
+                        "COALESCE(actual.total, 0) - COALESCE(counted.total, 0) AS drift " +
+                        "FROM (SELECT status, COUNT(*) AS total FROM task_all GROUP BY status) actual " +
+                        "FULL JOIN (SELECT status, SUM(total) AS total FROM task_counts GROUP BY status) counted " +
+                        "ON actual.status = counted.status",
+                resultSet -> {
+                    drifts.put(resultSet.getString("status"), resultSet.getLong("drift"));
+                });
+
+        for (Map.Entry<String, Long> drift : drifts.entrySet()) {
+            if (drift.getValue() != 0) {
+                LOGGER.warn("Task count of status '{}' drifted by {}", drift.getKey(), drift.getValue());
+                jdbcOperations.update(
+                        "INSERT INTO task_counts (status, stripe, total) VALUES (?, 0, ?) " +
+                                "ON CONFLICT (status, stripe) DO UPDATE SET total = task_counts.total + EXCLUDED.total",
+                        drift.getKey(),
+                        drift.getValue());
+            }
+        }
+        refresh();
+    }
+}
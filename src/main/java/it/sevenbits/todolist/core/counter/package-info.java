@@ -0,0 +1,6 @@
+/**
+ * This package contains services that keep track of task counts per status.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.counter;
@@ -0,0 +1,208 @@
+package it.sevenbits.todolist.core.groupcommit;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.metrics.LatencyHistogram;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects task inserts of concurrent callers and writes them in groups.
+ * One writer thread takes the first queued insert, waits for more until the group has
+ * maxBatchSize inserts or maxWaitMicros passed, and writes the group by one addTasks call,
+ * that is one multi-row insert in one transaction. Every caller is blocked until its group is committed.
+ */
+public class GroupCommitWriter implements IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ITasksRepository target;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingInsert> queue;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    private final LatencyHistogram batchSizes;
+    private final LatencyHistogram waitTime;
+    private final LatencyHistogram commitTime;
+    private final LongAdder failedBatches;
+
+    /**
+     * Constructor of GroupCommitWriter class. It starts the writer thread.
+     *
+     * @param target Repository groups are written to.
+     * @param maxBatchSize Maximal number of inserts in a group.
+     * @param maxWaitMicros Maximal time the first insert of a group waits for others, in microseconds.
+     */
+    public GroupCommitWriter(final ITasksRepository target, final int maxBatchSize, final long maxWaitMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.queue = new LinkedBlockingQueue<>();
+        this.batchSizes = new LatencyHistogram();
+        this.waitTime = new LatencyHistogram();
+        this.commitTime = new LatencyHistogram();
+        this.failedBatches = new LongAdder();
+
+        running = true;
+        writerThread = new Thread(this::writeGroups, "group-commit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Method that queues an insert and waits until it is committed.
+     *
+     * @param addTaskRequest "Add task" request.
+     * @return Added task.
+     */
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        if (!running) {
+            return target.addTask(addTaskRequest);
+        }
+        PendingInsert pendingInsert = new PendingInsert(addTaskRequest);
+        queue.add(pendingInsert);
+        if (!running && queue.remove(pendingInsert)) {
+            return target.addTask(addTaskRequest);
+        }
+
+        try {
+            return pendingInsert.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    /**
+     * This method stops the writer thread after it writes queued inserts.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingInsert> group = new ArrayList<>();
+        while (queue.drainTo(group, maxBatchSize) > 0) {
+            write(group);
+            group.clear();
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "groupCommit";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("maxBatchSize", maxBatchSize);
+        metrics.put("maxWaitMicros", TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+        metrics.put("failedBatches", failedBatches.sum());
+        metrics.put("batchSize", batchSizes.snapshot());
+        metrics.put("waitMicros", waitTime.snapshot());
+        metrics.put("commitMicros", commitTime.snapshot());
+        return metrics;
+    }
+
+    private void writeGroups() {
+        List<PendingInsert> group = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!group.isEmpty()) {
+                write(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void write(final List<PendingInsert> group) {
+        List<AddTaskRequest> addTaskRequests = new ArrayList<>(group.size());
+        for (PendingInsert pendingInsert : group) {
+            addTaskRequests.add(pendingInsert.addTaskRequest);
+        }
+
+        long start = System.nanoTime();
+        List<Task> tasks;
+        try {
+            tasks = target.addTasks(addTaskRequests);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Group of {} inserts failed", group.size(), e);
+            failedBatches.increment();
+            for (PendingInsert pendingInsert : group) {
+                pendingInsert.result.completeExceptionally(e);
+            }
+            return;
+        }
+        long end = System.nanoTime();
+
+        batchSizes.record(group.size());
+        commitTime.record(TimeUnit.NANOSECONDS.toMicros(end - start));
+        for (int i = 0; i < group.size(); i++) {
+            PendingInsert pendingInsert = group.get(i);
+            waitTime.record(TimeUnit.NANOSECONDS.toMicros(end - pendingInsert.queuedAt));
+            pendingInsert.result.complete(tasks.get(i));
+        }
+    }
+
+    /**
+     * Insert waiting in the queue.
+     */
+    private static final class PendingInsert {
+        private final AddTaskRequest addTaskRequest;
+        private final long queuedAt;
+        private final CompletableFuture<Task> result;
+
+        private PendingInsert(final AddTaskRequest addTaskRequest) {
+            this.addTaskRequest = addTaskRequest;
+            this.queuedAt = System.nanoTime();
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
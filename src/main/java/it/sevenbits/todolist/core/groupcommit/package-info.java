@@ -0,0 +1,6 @@
+/**
+ * This package contains group commit of task inserts made by concurrent requests.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.groupcommit;
@@ -0,0 +1,16 @@
+package it.sevenbits.todolist.core.id;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+/**
+ * Service provides ids for new tasks.
+ */
+public interface ITaskIdGenerator {
+    /**
+     * Method that generates a new unique task id.
+     * Implementations must be safe to call from several threads.
+     *
+     * @return New task id.
+     */
+    TaskId nextId();
+}
@@ -0,0 +1,20 @@
+package it.sevenbits.todolist.core.id;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.util.UUID;
+
+/**
+ * Service provides random (version 4) UUID task ids.
+ */
+public class RandomTaskIdGenerator implements ITaskIdGenerator {
+    /**
+     * Method that generates a new random task id.
+     *
+     * @return New task id.
+     */
+    @Override
+    public TaskId nextId() {
+        return TaskId.of(UUID.randomUUID());
+    }
+}
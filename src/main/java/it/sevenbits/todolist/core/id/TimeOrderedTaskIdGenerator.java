@@ -0,0 +1,66 @@
+package it.sevenbits.todolist.core.id;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Service provides time-ordered task ids laid out as UUID version 7:
+ * 48 bits of Unix time in milliseconds, 12 bits of sequence, 62 random bits.
+ * Ids generated by one instance strictly increase, so new rows are appended
+ * to the right edge of the primary key index.
+ */
+public class TimeOrderedTaskIdGenerator implements ITaskIdGenerator {
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3fffffffffffffffL;
+
+    private final LongSupplier clock;
+    /**
+     * Last used timestamp and sequence: milliseconds shifted left by SEQUENCE_BITS plus sequence.
+     */
+    private final AtomicLong lastTimestamp;
+
+    /**
+     * Constructor of TimeOrderedTaskIdGenerator class that uses system clock.
+     */
+    public TimeOrderedTaskIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor of TimeOrderedTaskIdGenerator class.
+     *
+     * @param clock Source of current time in milliseconds.
+     */
+    public TimeOrderedTaskIdGenerator(final LongSupplier clock) {
+        this.clock = clock;
+        this.lastTimestamp = new AtomicLong();
+    }
+
+    /**
+     * Method that generates a new time-ordered task id.
+     * Sequence is taken by compare-and-set without locks. If it overflows within a millisecond
+     * or the clock goes back, timestamp keeps growing from the last used value.
+     *
+     * @return New task id.
+     */
+    @Override
+    public TaskId nextId() {
+        long timestamp;
+        long previous;
+        do {
+            previous = lastTimestamp.get();
+            timestamp = Math.max(clock.getAsLong() << SEQUENCE_BITS, previous + 1);
+        } while (!lastTimestamp.compareAndSet(previous, timestamp));
+
+        long milliseconds = timestamp >>> SEQUENCE_BITS;
+        long sequence = timestamp & ((1L << SEQUENCE_BITS) - 1);
+        long mostSignificantBits = (milliseconds << 16) | VERSION | sequence;
+        long leastSignificantBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new TaskId(mostSignificantBits, leastSignificantBits);
+    }
+}
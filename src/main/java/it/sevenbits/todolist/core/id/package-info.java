@@ -0,0 +1,6 @@
+/**
+ * This package contains interface of task id generator and its implementations.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.id;
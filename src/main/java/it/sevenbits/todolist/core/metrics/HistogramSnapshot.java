@@ -0,0 +1,134 @@
+package it.sevenbits.todolist.core.metrics;
+
+/**
+ * Immutable state of {@link LatencyHistogram}. All values are in microseconds.
+ */
+public class HistogramSnapshot {
+    private static final double P50 = 0.5;
+    private static final double P90 = 0.9;
+    private static final double P99 = 0.99;
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    /**
+     * Constructor of HistogramSnapshot class.
+     *
+     * @param counts Counts of values by bucket.
+     * @param sum Sum of values.
+     * @param max Largest value.
+     */
+    HistogramSnapshot(final long[] counts, final long sum, final long max) {
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Method that returns values recorded after the previous snapshot was taken.
+     * Largest value of the difference is estimated by its highest bucket.
+     *
+     * @param previous Earlier snapshot of the same histogram.
+     * @return Snapshot of the difference.
+     */
+    public HistogramSnapshot since(final HistogramSnapshot previous) {
+        long[] difference = new long[counts.length];
+        int highestBucket = 0;
+        for (int i = 0; i < counts.length; i++) {
+            difference[i] = counts[i] - previous.counts[i];
+            if (difference[i] > 0) {
+                highestBucket = i;
+            }
+        }
+        return new HistogramSnapshot(difference, sum - previous.sum,
+                Math.min(max, LatencyHistogram.getBucketBound(highestBucket)));
+    }
+
+    /**
+     * Method that returns estimated percentile, the upper bound of the bucket it falls into.
+     *
+     * @param quantile Quantile between 0 and 1.
+     * @return Estimated value of percentile, 0 if histogram is empty.
+     */
+    public long getPercentile(final double quantile) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(LatencyHistogram.getBucketBound(i), max);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Method that returns number of recorded values.
+     *
+     * @return Number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Method that returns sum of recorded values.
+     *
+     * @return Sum of values.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Method that returns mean of recorded values.
+     *
+     * @return Mean value, 0 if histogram is empty.
+     */
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Method that returns estimated median.
+     *
+     * @return Median.
+     */
+    public long getP50() {
+        return getPercentile(P50);
+    }
+
+    /**
+     * Method that returns estimated 90th percentile.
+     *
+     * @return 90th percentile.
+     */
+    public long getP90() {
+        return getPercentile(P90);
+    }
+
+    /**
+     * Method that returns estimated 99th percentile.
+     *
+     * @return 99th percentile.
+     */
+    public long getP99() {
+        return getPercentile(P99);
+    }
+
+    /**
+     * Method that returns largest recorded value.
+     *
+     * @return Largest value.
+     */
+    public long getMax() {
+        return max;
+    }
+}
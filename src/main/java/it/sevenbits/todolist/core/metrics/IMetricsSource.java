@@ -0,0 +1,22 @@
+package it.sevenbits.todolist.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Component that exposes its metrics through metrics endpoint.
+ */
+public interface IMetricsSource {
+    /**
+     * Method that returns name metrics are grouped under.
+     *
+     * @return Name of metrics source.
+     */
+    String getMetricsName();
+
+    /**
+     * Method that returns current metrics. Values must be serializable to JSON.
+     *
+     * @return Metrics by name.
+     */
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,65 @@
+package it.sevenbits.todolist.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in microseconds.
+ * Durations are counted in power of two buckets, so percentiles are exact up to a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Constructor of LatencyHistogram class.
+     */
+    public LatencyHistogram() {
+        buckets = new AtomicLongArray(BUCKET_COUNT);
+        sum = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Method that records a duration.
+     *
+     * @param micros Duration in microseconds, negative durations are counted as zero.
+     */
+    public void record(final long micros) {
+        long value = Math.max(micros, 0);
+        buckets.incrementAndGet(getBucket(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Method that returns current state of histogram.
+     *
+     * @return Snapshot of histogram.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, sum.sum(), max.get());
+    }
+
+    /**
+     * Bucket i holds values that need i bits, so bucket 0 holds 0 and bucket i holds [2^(i-1), 2^i).
+     */
+    static int getBucket(final long value) {
+        return Math.min(BUCKET_COUNT - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Largest value of a bucket.
+     */
+    static long getBucketBound(final int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+}
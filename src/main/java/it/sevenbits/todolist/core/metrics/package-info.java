@@ -0,0 +1,6 @@
+/**
+ * This package contains metrics the application exposes about itself.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.metrics;
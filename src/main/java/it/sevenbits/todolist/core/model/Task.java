@@ -1,20 +1,40 @@
 package it.sevenbits.todolist.core.model;
 
-import it.sevenbits.todolist.core.validation.id.constraint.TaskIDConstraint;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import it.sevenbits.todolist.core.validation.status.constraint.TaskStatusConstraint;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
 
 /**
  * This class presents a model used for creating of JSON objects.
  */
 public class Task {
+    /**
+     * Pattern used for task timestamps in JSON objects.
+     */
+    public static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'H:mm:ss+00:00";
+    /**
+     * Formatter that parses task timestamps written with DATE_TIME_PATTERN.
+     * It also accepts fractions of second, any offset and "Z".
+     */
+    public static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd'T'H:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .appendOffset("+HH:MM", "Z")
+            .toFormatter();
+
     /**
      *
      */
-    @NotBlank
-    @TaskIDConstraint
-    private final String id;
+    @NotNull
+    private final TaskId id;
     /**
      *
      */
@@ -31,29 +51,29 @@ public class Task {
     /**
      *
      */
-    @NotBlank
-    private final String createdAt;
+    @NotNull
+    private final Instant createdAt;
 
     /**
      *
      */
-    @NotBlank
-    private final String updatedAt;
+    @NotNull
+    private final Instant updatedAt;
 
     /**
      * Model constructor.
      *
-     * @param id Task id (must be valid UUID).
+     * @param id Task id.
      * @param text Task text (can not be null, empty or whitespace string).
      * @param status Task status (must be "inbox" or "done").
-     * @param createdAt String value of task creating time.
-     * @param updatedAt String value of Task updating time.
+     * @param createdAt Task creating time.
+     * @param updatedAt Task updating time.
      */
-    public Task(final String id,
+    public Task(final TaskId id,
                 final String text,
                 final String status,
-                final String createdAt,
-                final String updatedAt) {
+                final Instant createdAt,
+                final Instant updatedAt) {
         this.id = id;
         this.text = text;
         this.status = status;
@@ -66,7 +86,7 @@ public class Task {
      *
      * @return Task id.
      */
-    public String getId() {
+    public TaskId getId() {
         return id;
     }
 
@@ -91,17 +111,19 @@ public class Task {
     /**
      * Task createdAt field getter.
      *
-     * @return String createdAt field value.
+     * @return createdAt field value.
      */
-    public String getCreatedAt() {
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_PATTERN, timezone = "UTC")
+    public Instant getCreatedAt() {
         return createdAt;
     }
 
     /**
      *
-     * @return String updatedAt field value.
+     * @return updatedAt field value.
      */
-    public String getUpdatedAt() {
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_PATTERN, timezone = "UTC")
+    public Instant getUpdatedAt() {
         return updatedAt;
     }
 }
\ No newline at end of file
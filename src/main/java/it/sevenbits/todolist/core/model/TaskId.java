@@ -0,0 +1,207 @@
+package it.sevenbits.todolist.core.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.UUID;
+
+/**
+ * This class presents an immutable task id.
+ * Id is stored as two longs and is written in canonical UUID form (8-4-4-4-12 hex digits).
+ * Ids are compared as unsigned 128-bit numbers, the same way PostgreSQL compares uuid values.
+ */
+public final class TaskId implements Comparable<TaskId> {
+    private static final int LENGTH = 36;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    /**
+     * Id constructor.
+     *
+     * @param mostSignificantBits Most significant 64 bits of id.
+     * @param leastSignificantBits Least significant 64 bits of id.
+     */
+    public TaskId(final long mostSignificantBits, final long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * This method creates id from UUID.
+     *
+     * @param uuid UUID value.
+     * @return TaskId instance.
+     */
+    public static TaskId of(final UUID uuid) {
+        return new TaskId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * This method parses id from its canonical string form.
+     * It is also used by Spring to convert path variables.
+     *
+     * @param id Id string.
+     * @return TaskId instance.
+     * @throws IllegalArgumentException if string is not a valid id.
+     */
+    @JsonCreator
+    public static TaskId valueOf(final String id) {
+        TaskId taskId = tryParse(id);
+        if (taskId == null) {
+            throw new IllegalArgumentException("Invalid task id: " + id);
+        }
+        return taskId;
+    }
+
+    /**
+     * This method parses id from its canonical string form.
+     *
+     * @param id Id string.
+     * @return TaskId instance or null if string is not a valid id.
+     */
+    public static TaskId tryParse(final CharSequence id) {
+        if (id == null || id.length() != LENGTH) {
+            return null;
+        }
+
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digitCount = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char symbol = id.charAt(i);
+            if (isHyphenPosition(i)) {
+                if (symbol != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = hexValue(symbol);
+            if (digit < 0) {
+                return null;
+            }
+            if (digitCount < 16) {
+                mostSignificantBits = (mostSignificantBits << 4) | digit;
+            } else {
+                leastSignificantBits = (leastSignificantBits << 4) | digit;
+            }
+            digitCount++;
+        }
+
+        return new TaskId(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * This method checks whether string is a valid id without creating any objects.
+     *
+     * @param id Id string.
+     * @return true if string is a valid id.
+     */
+    public static boolean isValid(final CharSequence id) {
+        if (id == null || id.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char symbol = id.charAt(i);
+            if (isHyphenPosition(i) ? symbol != '-' : hexValue(symbol) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hexValue(final char symbol) {
+        if (symbol >= '0' && symbol <= '9') {
+            return symbol - '0';
+        }
+        if (symbol >= 'a' && symbol <= 'f') {
+            return symbol - 'a' + 10;
+        }
+        if (symbol >= 'A' && symbol <= 'F') {
+            return symbol - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean isHyphenPosition(final int position) {
+        return position == 8 || position == 13 || position == 18 || position == 23;
+    }
+
+    /**
+     * This method converts id to UUID.
+     *
+     * @return UUID value.
+     */
+    public UUID toUuid() {
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Most significant bits getter.
+     *
+     * @return Most significant 64 bits of id.
+     */
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    /**
+     * Least significant bits getter.
+     *
+     * @return Least significant 64 bits of id.
+     */
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * This method returns canonical string form of id in lower case.
+     *
+     * @return Id string.
+     */
+    @JsonValue
+    @Override
+    public String toString() {
+        char[] chars = new char[LENGTH];
+        int position = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            if (isHyphenPosition(position)) {
+                chars[position++] = '-';
+            }
+            chars[position++] = HEX_DIGITS[(int) (mostSignificantBits >>> shift) & 0xf];
+        }
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            if (isHyphenPosition(position)) {
+                chars[position++] = '-';
+            }
+            chars[position++] = HEX_DIGITS[(int) (leastSignificantBits >>> shift) & 0xf];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public int compareTo(final TaskId other) {
+        int result = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+        return result != 0 ? result : Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TaskId)) {
+            return false;
+        }
+        TaskId taskId = (TaskId) other;
+        return mostSignificantBits == taskId.mostSignificantBits
+                && leastSignificantBits == taskId.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = mostSignificantBits ^ leastSignificantBits;
+        return (int) (bits >> 32) ^ (int) bits;
+    }
+}
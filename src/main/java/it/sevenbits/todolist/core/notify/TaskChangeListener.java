@@ -0,0 +1,242 @@
+package it.sevenbits.todolist.core.notify;
+
+import it.sevenbits.todolist.core.cache.SegmentedLruCache;
+import it.sevenbits.todolist.core.cache.TaskListVersions;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class evicts tasks changed by other instances from local caches.
+ * Triggers on task tables send "id status" to task_changes channel on commit, or "*" for large changes.
+ * The listener keeps one dedicated connection outside of the pool that listens to the channel.
+ * While it is not connected notifications are lost, so local caches are flushed when the connection
+ * is lost and again when it is established, and the time they may be stale is bounded by reconnect delay.
+ */
+public class TaskChangeListener implements IMetricsSource {
+    static final String CHANNEL = "task_changes";
+    static final String FLUSH_ALL = "*";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskChangeListener.class);
+    private static final int CHECK_TIMEOUT_SECONDS = 5;
+
+    private final DataSource dataSource;
+    private final SegmentedLruCache<TaskId, Task> taskCache;
+    private final TaskListVersions taskListVersions;
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final Thread listenerThread;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection connection;
+
+    private final LongAdder notifications;
+    private final LongAdder invalidatedTasks;
+    private final LongAdder fullFlushes;
+    private final LongAdder connectionFailures;
+
+    /**
+     * Constructor of TaskChangeListener class. The listener thread is started by start method.
+     *
+     * @param dataSource Data source the listening connection is opened by, it must not be pooled.
+     * @param taskCache Cache of tasks read by ids, or null if it is not enabled.
+     * @param taskListVersions Versions of task lists, or null if page cache is not enabled.
+     * @param pollTimeoutMillis Time the listener waits for notifications before it checks the connection.
+     * @param reconnectDelayMillis Pause before the listener opens a new connection after a failure.
+     */
+    public TaskChangeListener(final DataSource dataSource,
+                              final SegmentedLruCache<TaskId, Task> taskCache,
+                              final TaskListVersions taskListVersions,
+                              final int pollTimeoutMillis,
+                              final long reconnectDelayMillis) {
+        if (pollTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Poll timeout must be positive: " + pollTimeoutMillis);
+        }
+        this.dataSource = dataSource;
+        this.taskCache = taskCache;
+        this.taskListVersions = taskListVersions;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.notifications = new LongAdder();
+        this.invalidatedTasks = new LongAdder();
+        this.fullFlushes = new LongAdder();
+        this.connectionFailures = new LongAdder();
+
+        listenerThread = new Thread(this::listen, "task-change-listener");
+        listenerThread.setDaemon(true);
+    }
+
+    /**
+     * This method starts the listener thread.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread.start();
+    }
+
+    /**
+     * This method stops the listener thread and closes its connection.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        closeConnection();
+        listenerThread.interrupt();
+        try {
+            listenerThread.join(TimeUnit.SECONDS.toMillis(CHECK_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method returns whether the listener is connected and receives notifications.
+     *
+     * @return True if it is connected.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                connection = dataSource.getConnection();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                LOGGER.info("Listening to {} channel", CHANNEL);
+                flushAll();
+                while (running) {
+                    PGNotification[] received = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (received == null || received.length == 0) {
+                        checkConnection();
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    connectionFailures.increment();
+                    LOGGER.warn("Connection listening to {} channel failed, reconnecting in {} ms",
+                            CHANNEL, reconnectDelayMillis, e);
+                }
+            } finally {
+                boolean wasConnected = connected;
+                connected = false;
+                closeConnection();
+                if (wasConnected && running) {
+                    flushAll();
+                }
+            }
+            pause();
+        }
+    }
+
+    private void checkConnection() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void pause() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (SQLException e) {
+            LOGGER.debug("Listening connection was not closed cleanly", e);
+        }
+    }
+
+    /**
+     * This method applies one notification to local caches.
+     * Payloads that are not "id status" flush everything, as the change they announce is unknown.
+     *
+     * @param payload Payload of the notification.
+     */
+    void handle(final String payload) {
+        notifications.increment();
+        int separator = payload == null ? -1 : payload.indexOf(' ');
+        TaskId id = separator < 0 ? null : TaskId.tryParse(payload.subSequence(0, separator));
+        if (id == null) {
+            if (!FLUSH_ALL.equals(payload)) {
+                LOGGER.warn("Unknown task change notification: {}", payload);
+            }
+            flushAll();
+            return;
+        }
+        if (taskCache != null) {
+            taskCache.invalidate(id);
+        }
+        if (taskListVersions != null) {
+            taskListVersions.changed(payload.substring(separator + 1));
+        }
+        invalidatedTasks.increment();
+    }
+
+    /**
+     * This method drops everything local caches hold, used when changes may have been missed.
+     */
+    void flushAll() {
+        if (taskCache != null) {
+            taskCache.invalidateAll();
+        }
+        if (taskListVersions != null) {
+            taskListVersions.changedAll();
+        }
+        fullFlushes.increment();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "taskChanges";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("connected", connected);
+        metrics.put("notifications", notifications.sum());
+        metrics.put("invalidatedTasks", invalidatedTasks.sum());
+        metrics.put("fullFlushes", fullFlushes.sum());
+        metrics.put("connectionFailures", connectionFailures.sum());
+        return metrics;
+    }
+}
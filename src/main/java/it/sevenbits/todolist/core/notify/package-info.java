@@ -0,0 +1,6 @@
+/**
+ * This package contains listener of task changes announced by the data base to all instances.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.notify;
@@ -0,0 +1,372 @@
+package it.sevenbits.todolist.core.offheap;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * This class keeps tasks in rows of primitive columns: id halves, status code, timestamps in microseconds,
+ * and address and length of the text in TextArena. Rows of removed tasks are reused.
+ * Rows of every status are also kept in list order by StatusRowIndex, so a page is found without scanning.
+ * "Task" objects are made only when a row is read, so the store keeps no object per task.
+ * Timestamps are kept with microsecond precision, as in data base.
+ * The class is not thread-safe.
+ */
+public class OffHeapTaskStore {
+    /**
+     * Status code of a free row.
+     */
+    public static final byte FREE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TaskIdIndex idIndex;
+    private final TextArena textArena;
+    private final List<String> statuses;
+    private final Map<String, Byte> statusCodes;
+    private final List<StatusRowIndex> statusRows;
+
+    private long[] idMostSignificantBits;
+    private long[] idLeastSignificantBits;
+    private byte[] statusColumn;
+    private long[] createdAtColumn;
+    private long[] updatedAtColumn;
+    private long[] textAddresses;
+    private int[] textLengths;
+    private int[] freeRows;
+    private int freeRowCount;
+    private int rowLimit;
+
+    /**
+     * Constructor of OffHeapTaskStore class.
+     */
+    public OffHeapTaskStore() {
+        idIndex = new TaskIdIndex();
+        textArena = new TextArena();
+        statuses = new ArrayList<>();
+        statusCodes = new HashMap<>();
+        statusRows = new ArrayList<>();
+        idMostSignificantBits = new long[INITIAL_CAPACITY];
+        idLeastSignificantBits = new long[INITIAL_CAPACITY];
+        statusColumn = new byte[INITIAL_CAPACITY];
+        createdAtColumn = new long[INITIAL_CAPACITY];
+        updatedAtColumn = new long[INITIAL_CAPACITY];
+        textAddresses = new long[INITIAL_CAPACITY];
+        textLengths = new int[INITIAL_CAPACITY];
+        freeRows = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * This method adds task, if there is no task with its id.
+     *
+     * @param task "Task" model.
+     * @return Row of added task, or -1 if there is a task with its id.
+     */
+    public int insert(final Task task) {
+        int row = freeRowCount > 0 ? freeRows[freeRowCount - 1] : rowLimit;
+        TaskId id = task.getId();
+        if (idIndex.putIfAbsent(id.getMostSignificantBits(), id.getLeastSignificantBits(), row) >= 0) {
+            return -1;
+        }
+        if (freeRowCount > 0) {
+            freeRowCount--;
+        } else {
+            if (rowLimit == statusColumn.length) {
+                grow(rowLimit * 2);
+            }
+            rowLimit++;
+        }
+
+        idMostSignificantBits[row] = id.getMostSignificantBits();
+        idLeastSignificantBits[row] = id.getLeastSignificantBits();
+        statusColumn[row] = getStatusCode(task.getStatus());
+        createdAtColumn[row] = toMicros(task.getCreatedAt());
+        updatedAtColumn[row] = toMicros(task.getUpdatedAt());
+        writeText(row, task.getText());
+        indexRow(row);
+        return row;
+    }
+
+    /**
+     * This method finds row of the task.
+     *
+     * @param id Task id.
+     * @return Row number or -1 if there is no such task.
+     */
+    public int find(final TaskId id) {
+        return idIndex.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * This method makes "Task" model of the row.
+     *
+     * @param row Row number.
+     * @return "Task" model.
+     */
+    public Task read(final int row) {
+        return new Task(new TaskId(idMostSignificantBits[row], idLeastSignificantBits[row]),
+                readText(row),
+                statuses.get(statusColumn[row]),
+                toInstant(createdAtColumn[row]),
+                toInstant(updatedAtColumn[row]));
+    }
+
+    /**
+     * This method reads text of the row.
+     *
+     * @param row Row number.
+     * @return Task text.
+     */
+    public String readText(final int row) {
+        return textArena.read(textAddresses[row], textLengths[row]);
+    }
+
+    /**
+     * This method changes the row.
+     *
+     * @param row Row number.
+     * @param text New text or null to keep current one.
+     * @param status New status or null to keep current one.
+     * @param updatedAt Time of the change.
+     */
+    public void update(final int row, final String text, final String status, final Instant updatedAt) {
+        if (text != null) {
+            textArena.free(textAddresses[row], textLengths[row]);
+            writeText(row, text);
+        }
+        if (status != null) {
+            byte statusCode = getStatusCode(status);
+            if (statusCode != statusColumn[row]) {
+                unindexRow(row);
+                statusColumn[row] = statusCode;
+                indexRow(row);
+            }
+        }
+        updatedAtColumn[row] = toMicros(updatedAt);
+    }
+
+    /**
+     * This method removes task of the row. The row is reused by next inserted task.
+     *
+     * @param row Row number.
+     */
+    public void delete(final int row) {
+        idIndex.remove(idMostSignificantBits[row], idLeastSignificantBits[row]);
+        unindexRow(row);
+        textArena.free(textAddresses[row], textLengths[row]);
+        statusColumn[row] = FREE;
+        if (freeRowCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRowCount * 2);
+        }
+        freeRows[freeRowCount++] = row;
+    }
+
+    /**
+     * This method returns number of rows that are or were used, rows from 0 to it have to be scanned.
+     *
+     * @return Row limit.
+     */
+    public int getRowLimit() {
+        return rowLimit;
+    }
+
+    /**
+     * This method returns number of tasks.
+     *
+     * @return Number of tasks.
+     */
+    public int size() {
+        return idIndex.size();
+    }
+
+    /**
+     * This method returns code of the status that rows keep, -1 if there is no task of this status.
+     *
+     * @param status Task status.
+     * @return Status code.
+     */
+    public byte findStatusCode(final String status) {
+        Byte code = statusCodes.get(status);
+        return code == null ? FREE : code;
+    }
+
+    /**
+     * This method returns status code of the row, FREE if the row is free.
+     *
+     * @param row Row number.
+     * @return Status code.
+     */
+    public byte getStatusCode(final int row) {
+        return statusColumn[row];
+    }
+
+    /**
+     * This method returns status of the row.
+     *
+     * @param row Row number.
+     * @return Task status.
+     */
+    public String getStatus(final int row) {
+        return statuses.get(statusColumn[row]);
+    }
+
+    /**
+     * This method returns creating time of the row in microseconds since epoch.
+     *
+     * @param row Row number.
+     * @return Creating time.
+     */
+    public long getCreatedAt(final int row) {
+        return createdAtColumn[row];
+    }
+
+    /**
+     * This method returns time of the last change of the row in microseconds since epoch.
+     *
+     * @param row Row number.
+     * @return Updating time.
+     */
+    public long getUpdatedAt(final int row) {
+        return updatedAtColumn[row];
+    }
+
+    /**
+     * This method returns rows of a page of the status in list order: by creating time, then by id.
+     * The page is found by binary search in rows of the status, other rows are not read.
+     *
+     * @param statusCode Status code of rows.
+     * @param ascending true for rows with least (createdAt, id) first, false for greatest.
+     * @param createdAt Creating time of the position in microseconds since epoch.
+     * @param afterId Task id of the position to return rows after it, or null to return rows from the first one.
+     * @param offset Number of rows to skip.
+     * @param limit Maximal number of rows to return.
+     * @return Row numbers.
+     */
+    public int[] selectRows(final byte statusCode, final boolean ascending, final long createdAt, final TaskId afterId,
+                            final int offset, final int limit) {
+        StatusRowIndex rows = statusRows.get(statusCode);
+        if (afterId == null) {
+            return rows.select(ascending, false, 0, 0, 0, offset, limit);
+        }
+        return rows.select(ascending, true, createdAt, afterId.getMostSignificantBits(), afterId.getLeastSignificantBits(),
+                offset, limit);
+    }
+
+    /**
+     * This method passes every row of the status to action in list order.
+     *
+     * @param statusCode Status code of rows.
+     * @param action Action on row number.
+     */
+    public void forEachRow(final byte statusCode, final IntConsumer action) {
+        statusRows.get(statusCode).forEach(action);
+    }
+
+    /**
+     * This method returns size of heap arrays of the store.
+     *
+     * @return Size in bytes.
+     */
+    public long getHeapBytes() {
+        long bytes = idIndex.getBytes();
+        for (StatusRowIndex rows : statusRows) {
+            bytes += rows.getBytes();
+        }
+        return bytes
+                + (long) statusColumn.length * (Long.BYTES * 5 + Integer.BYTES + Byte.BYTES)
+                + (long) freeRows.length * Integer.BYTES;
+    }
+
+    /**
+     * This method returns size of direct memory taken by texts.
+     *
+     * @return Size in bytes.
+     */
+    public long getDirectBytes() {
+        return textArena.getAllocatedBytes();
+    }
+
+    /**
+     * This method returns size of texts in UTF-8.
+     *
+     * @return Size in bytes.
+     */
+    public long getTextBytes() {
+        return textArena.getUsedBytes();
+    }
+
+    /**
+     * This method converts time to microseconds since epoch, as rows keep it.
+     *
+     * @param instant Time.
+     * @return Microseconds since epoch.
+     */
+    public static long toMicros(final Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant toInstant(final long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Compares row with list position: by creating time, then by id.
+     */
+    int compare(final int row, final long createdAt, final long msb, final long lsb) {
+        int result = Long.compare(createdAtColumn[row], createdAt);
+        if (result == 0) {
+            result = Long.compareUnsigned(idMostSignificantBits[row], msb);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(idLeastSignificantBits[row], lsb);
+        }
+        return result;
+    }
+
+    private void indexRow(final int row) {
+        statusRows.get(statusColumn[row]).add(row, createdAtColumn[row], idMostSignificantBits[row], idLeastSignificantBits[row]);
+    }
+
+    private void unindexRow(final int row) {
+        statusRows.get(statusColumn[row]).remove(createdAtColumn[row], idMostSignificantBits[row], idLeastSignificantBits[row]);
+    }
+
+    private void writeText(final int row, final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        textAddresses[row] = textArena.write(bytes);
+        textLengths[row] = bytes.length;
+    }
+
+    private byte getStatusCode(final String status) {
+        Byte code = statusCodes.get(status);
+        if (code == null) {
+            if (statuses.size() == Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many task statuses");
+            }
+            code = (byte) statuses.size();
+            statuses.add(status);
+            statusCodes.put(status, code);
+            statusRows.add(new StatusRowIndex(this));
+        }
+        return code;
+    }
+
+    private void grow(final int capacity) {
+        idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, capacity);
+        idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, capacity);
+        statusColumn = Arrays.copyOf(statusColumn, capacity);
+        createdAtColumn = Arrays.copyOf(createdAtColumn, capacity);
+        updatedAtColumn = Arrays.copyOf(updatedAtColumn, capacity);
+        textAddresses = Arrays.copyOf(textAddresses, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+}
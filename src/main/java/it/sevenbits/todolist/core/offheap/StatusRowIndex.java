@@ -0,0 +1,253 @@
+package it.sevenbits.todolist.core.offheap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * This class keeps rows of one status of OffHeapTaskStore in list order: by creating time, then by id.
+ * Rows are kept in sorted blocks of int, so a position is found by binary search
+ * and a page is read from there without looking at other rows.
+ * Full block is split in two, but a row added after the last one starts a new block,
+ * so tasks added in time order fill blocks completely. Small neighbour blocks are merged on removal.
+ * The class is not thread-safe.
+ */
+class StatusRowIndex {
+    private static final int BLOCK_SIZE = 512;
+    private static final int MERGED_BLOCK_SIZE = BLOCK_SIZE / 2;
+
+    private final OffHeapTaskStore store;
+    private int[][] blocks;
+    private int[] blockSizes;
+    private int blockCount;
+    private int size;
+
+    /**
+     * Constructor of StatusRowIndex class.
+     *
+     * @param store Store the rows belong to.
+     */
+    StatusRowIndex(final OffHeapTaskStore store) {
+        this.store = store;
+        blocks = new int[][] {new int[BLOCK_SIZE]};
+        blockSizes = new int[1];
+        blockCount = 1;
+    }
+
+    /**
+     * This method adds row with passed list position.
+     *
+     * @param row Row number.
+     * @param createdAt Creating time of the row in microseconds since epoch.
+     * @param msb Most significant bits of the row task id.
+     * @param lsb Least significant bits of the row task id.
+     */
+    void add(final int row, final long createdAt, final long msb, final long lsb) {
+        int block = findBlock(createdAt, msb, lsb);
+        int position = bound(block, createdAt, msb, lsb, false);
+        if (blockSizes[block] == BLOCK_SIZE) {
+            if (position == BLOCK_SIZE) {
+                insertBlock(++block);
+                position = 0;
+            } else {
+                split(block);
+                if (position > BLOCK_SIZE / 2) {
+                    block++;
+                    position -= BLOCK_SIZE / 2;
+                }
+            }
+        }
+        int[] rows = blocks[block];
+        System.arraycopy(rows, position, rows, position + 1, blockSizes[block] - position);
+        rows[position] = row;
+        blockSizes[block]++;
+        size++;
+    }
+
+    /**
+     * This method removes row with passed list position.
+     *
+     * @param createdAt Creating time of the row in microseconds since epoch.
+     * @param msb Most significant bits of the row task id.
+     * @param lsb Least significant bits of the row task id.
+     */
+    void remove(final long createdAt, final long msb, final long lsb) {
+        int block = findBlock(createdAt, msb, lsb);
+        int position = bound(block, createdAt, msb, lsb, false);
+        int[] rows = blocks[block];
+        System.arraycopy(rows, position + 1, rows, position, blockSizes[block] - position - 1);
+        blockSizes[block]--;
+        size--;
+        if (blockSizes[block] == 0 && blockCount > 1) {
+            removeBlock(block);
+            return;
+        }
+        if (block + 1 < blockCount && blockSizes[block] + blockSizes[block + 1] <= MERGED_BLOCK_SIZE) {
+            merge(block);
+        }
+        if (block > 0 && blockSizes[block - 1] + blockSizes[block] <= MERGED_BLOCK_SIZE) {
+            merge(block - 1);
+        }
+    }
+
+    /**
+     * This method returns rows of a page in list order.
+     *
+     * @param ascending true for rows with least (createdAt, id) first, false for greatest.
+     * @param hasPosition true to select only rows after the position in passed order.
+     * @param createdAt Creating time of the position in microseconds since epoch.
+     * @param msb Most significant bits of the position task id.
+     * @param lsb Least significant bits of the position task id.
+     * @param offset Number of rows to skip.
+     * @param limit Maximal number of rows to return.
+     * @return Row numbers.
+     */
+    int[] select(final boolean ascending, final boolean hasPosition, final long createdAt, final long msb, final long lsb,
+                 final int offset, final int limit) {
+        int from;
+        int to;
+        if (ascending) {
+            from = (hasPosition ? countBefore(createdAt, msb, lsb, true) : 0) + offset;
+            to = (int) Math.min((long) from + limit, size);
+        } else {
+            to = (hasPosition ? countBefore(createdAt, msb, lsb, false) : size) - offset;
+            from = Math.max(to - limit, 0);
+        }
+        if (from >= to) {
+            return new int[0];
+        }
+
+        int[] rows = new int[to - from];
+        int block = 0;
+        int position = from;
+        while (position >= blockSizes[block]) {
+            position -= blockSizes[block++];
+        }
+        for (int copied = 0; copied < rows.length; block++, position = 0) {
+            int length = Math.min(blockSizes[block] - position, rows.length - copied);
+            System.arraycopy(blocks[block], position, rows, copied, length);
+            copied += length;
+        }
+        if (!ascending) {
+            for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+                int row = rows[i];
+                rows[i] = rows[j];
+                rows[j] = row;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * This method passes every row to action in list order.
+     *
+     * @param action Action on row number.
+     */
+    void forEach(final IntConsumer action) {
+        for (int block = 0; block < blockCount; block++) {
+            for (int position = 0; position < blockSizes[block]; position++) {
+                action.accept(blocks[block][position]);
+            }
+        }
+    }
+
+    /**
+     * This method returns number of rows.
+     *
+     * @return Number of rows.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * This method returns size of the index arrays.
+     *
+     * @return Size in bytes.
+     */
+    long getBytes() {
+        return (long) blockCount * BLOCK_SIZE * Integer.BYTES + (long) blocks.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Returns number of rows before the position, or not after it if inclusive.
+     */
+    private int countBefore(final long createdAt, final long msb, final long lsb, final boolean inclusive) {
+        if (size == 0) {
+            return 0;
+        }
+        int block = findBlock(createdAt, msb, lsb);
+        int count = bound(block, createdAt, msb, lsb, inclusive);
+        for (int i = 0; i < block; i++) {
+            count += blockSizes[i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns first block whose last row is not before the position, or the last block.
+     */
+    private int findBlock(final long createdAt, final long msb, final long lsb) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (store.compare(blocks[middle][blockSizes[middle] - 1], createdAt, msb, lsb) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns number of rows of the block before the position, or not after it if inclusive.
+     */
+    private int bound(final int block, final long createdAt, final long msb, final long lsb, final boolean inclusive) {
+        int[] rows = blocks[block];
+        int low = 0;
+        int high = blockSizes[block];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = store.compare(rows[middle], createdAt, msb, lsb);
+            if (comparison < 0 || inclusive && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void split(final int block) {
+        insertBlock(block + 1);
+        System.arraycopy(blocks[block], BLOCK_SIZE / 2, blocks[block + 1], 0, BLOCK_SIZE / 2);
+        blockSizes[block] = BLOCK_SIZE / 2;
+        blockSizes[block + 1] = BLOCK_SIZE / 2;
+    }
+
+    private void merge(final int block) {
+        System.arraycopy(blocks[block + 1], 0, blocks[block], blockSizes[block], blockSizes[block + 1]);
+        blockSizes[block] += blockSizes[block + 1];
+        removeBlock(block + 1);
+    }
+
+    private void removeBlock(final int block) {
+        System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+        System.arraycopy(blockSizes, block + 1, blockSizes, block, blockCount - block - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+
+    private void insertBlock(final int block) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockSizes = Arrays.copyOf(blockSizes, blockCount * 2);
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(blockSizes, block, blockSizes, block + 1, blockCount - block);
+        blocks[block] = new int[BLOCK_SIZE];
+        blockSizes[block] = 0;
+        blockCount++;
+    }
+}
@@ -0,0 +1,159 @@
+package it.sevenbits.todolist.core.offheap;
+
+import java.util.Arrays;
+
+/**
+ * This class maps task ids, kept as two longs, to row numbers.
+ * It is an open addressing hash table with linear probing over primitive arrays,
+ * so it holds no object per task. Removed entries are filled by shifting back following entries
+ * of the same probe run, so there are no tombstones.
+ * The class is not thread-safe.
+ */
+public class TaskIdIndex {
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] mostSignificantBits;
+    private long[] leastSignificantBits;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor of TaskIdIndex class.
+     */
+    public TaskIdIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * This method finds row of the task.
+     *
+     * @param msb Most significant bits of task id.
+     * @param lsb Least significant bits of task id.
+     * @return Row number or -1 if there is no such task.
+     */
+    public int get(final long msb, final long lsb) {
+        for (int slot = getSlot(msb, lsb); rows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return rows[slot];
+            }
+        }
+        return NO_ROW;
+    }
+
+    /**
+     * This method adds task id, if it is not in index yet.
+     *
+     * @param msb Most significant bits of task id.
+     * @param lsb Least significant bits of task id.
+     * @param row Row number of the task.
+     * @return Row of the task that is already in index, or -1 if the id was added.
+     */
+    public int putIfAbsent(final long msb, final long lsb, final int row) {
+        if (size + 1 > rows.length * MAX_LOAD) {
+            resize(rows.length * 2);
+        }
+        int slot = getSlot(msb, lsb);
+        for (; rows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return rows[slot];
+            }
+        }
+        mostSignificantBits[slot] = msb;
+        leastSignificantBits[slot] = lsb;
+        rows[slot] = row;
+        size++;
+        return NO_ROW;
+    }
+
+    /**
+     * This method removes task id.
+     *
+     * @param msb Most significant bits of task id.
+     * @param lsb Least significant bits of task id.
+     * @return Row of removed task or -1 if there is no such task.
+     */
+    public int remove(final long msb, final long lsb) {
+        int slot = getSlot(msb, lsb);
+        for (; rows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                int row = rows[slot];
+                shiftBack(slot);
+                size--;
+                return row;
+            }
+        }
+        return NO_ROW;
+    }
+
+    /**
+     * This method returns number of ids in index.
+     *
+     * @return Number of ids.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns size of index arrays.
+     *
+     * @return Size in bytes.
+     */
+    public long getBytes() {
+        return (long) rows.length * (Long.BYTES * 2 + Integer.BYTES);
+    }
+
+    /**
+     * Moves entries that follow the freed slot in its probe run, so lookups do not stop at the hole.
+     */
+    private void shiftBack(final int freedSlot) {
+        int hole = freedSlot;
+        for (int slot = (hole + 1) & mask; rows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+            int home = getSlot(mostSignificantBits[slot], leastSignificantBits[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                mostSignificantBits[hole] = mostSignificantBits[slot];
+                leastSignificantBits[hole] = leastSignificantBits[slot];
+                rows[hole] = rows[slot];
+                hole = slot;
+            }
+        }
+        rows[hole] = NO_ROW;
+    }
+
+    private void resize(final int capacity) {
+        long[] oldMostSignificantBits = mostSignificantBits;
+        long[] oldLeastSignificantBits = leastSignificantBits;
+        int[] oldRows = rows;
+        allocate(capacity);
+        for (int slot = 0; slot < oldRows.length; slot++) {
+            if (oldRows[slot] != NO_ROW) {
+                int newSlot = getSlot(oldMostSignificantBits[slot], oldLeastSignificantBits[slot]);
+                while (rows[newSlot] != NO_ROW) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                mostSignificantBits[newSlot] = oldMostSignificantBits[slot];
+                leastSignificantBits[newSlot] = oldLeastSignificantBits[slot];
+                rows[newSlot] = oldRows[slot];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        mostSignificantBits = new long[capacity];
+        leastSignificantBits = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(rows, NO_ROW);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Time-ordered ids differ mostly in timestamp and random bits, so both halves are mixed.
+     */
+    private int getSlot(final long msb, final long lsb) {
+        long hash = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
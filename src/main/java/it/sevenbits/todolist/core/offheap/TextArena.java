@@ -0,0 +1,180 @@
+package it.sevenbits.todolist.core.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class keeps texts as UTF-8 bytes in direct byte buffers (slabs) outside of Java heap.
+ * Space is given in blocks of size classes: multiples of 16 bytes up to 256 bytes, then powers of two.
+ * Freed blocks are kept in a free list of their class and reused by later texts of the same class.
+ * Texts longer than a slab get a dedicated buffer that is released when the text is freed.
+ * Address of a block is slab number in high 32 bits and offset in low 32 bits.
+ * The class is not thread-safe.
+ */
+public class TextArena {
+    /**
+     * Address of an empty text, no block is used for it.
+     */
+    public static final long EMPTY = -1;
+
+    private static final int SLAB_SIZE = 1 << 20;
+    private static final int SMALL_CLASS_STEP = 16;
+    private static final int SMALL_CLASS_COUNT = 16;
+    private static final int LARGE_CLASS_FIRST_SHIFT = 9;
+    private static final int CLASS_COUNT = SMALL_CLASS_COUNT + 20 - LARGE_CLASS_FIRST_SHIFT + 1;
+
+    private final List<ByteBuffer> slabs;
+    private final long[][] freeBlocks;
+    private final int[] freeBlockCounts;
+    private int currentSlab;
+    private int currentOffset;
+    private long allocatedBytes;
+    private long usedBytes;
+
+    /**
+     * Constructor of TextArena class.
+     */
+    public TextArena() {
+        slabs = new ArrayList<>();
+        freeBlocks = new long[CLASS_COUNT][];
+        freeBlockCounts = new int[CLASS_COUNT];
+        currentSlab = -1;
+        currentOffset = SLAB_SIZE;
+    }
+
+    /**
+     * This method writes text into arena.
+     *
+     * @param bytes Text in UTF-8.
+     * @return Address of the text.
+     */
+    public long write(final byte[] bytes) {
+        if (bytes.length == 0) {
+            return EMPTY;
+        }
+        long address = allocate(bytes.length);
+        ByteBuffer buffer = slabs.get(getSlab(address)).duplicate();
+        buffer.position(getOffset(address));
+        buffer.put(bytes);
+        usedBytes += bytes.length;
+        return address;
+    }
+
+    /**
+     * This method reads text from arena.
+     *
+     * @param address Address of the text.
+     * @param length Length of the text in bytes.
+     * @return Text.
+     */
+    public String read(final long address, final int length) {
+        if (address == EMPTY) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = slabs.get(getSlab(address)).duplicate();
+        buffer.position(getOffset(address));
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method gives block of the text back to arena.
+     *
+     * @param address Address of the text.
+     * @param length Length of the text in bytes.
+     */
+    public void free(final long address, final int length) {
+        if (address == EMPTY) {
+            return;
+        }
+        usedBytes -= length;
+        if (length > SLAB_SIZE) {
+            allocatedBytes -= slabs.get(getSlab(address)).capacity();
+            slabs.set(getSlab(address), null);
+            return;
+        }
+        int sizeClass = getSizeClass(length);
+        if (freeBlocks[sizeClass] == null) {
+            freeBlocks[sizeClass] = new long[16];
+        } else if (freeBlockCounts[sizeClass] == freeBlocks[sizeClass].length) {
+            freeBlocks[sizeClass] = Arrays.copyOf(freeBlocks[sizeClass], freeBlockCounts[sizeClass] * 2);
+        }
+        freeBlocks[sizeClass][freeBlockCounts[sizeClass]++] = address;
+    }
+
+    /**
+     * This method returns size of direct memory taken by arena.
+     *
+     * @return Size in bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * This method returns size of texts kept in arena.
+     *
+     * @return Size in bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    private long allocate(final int length) {
+        if (length > SLAB_SIZE) {
+            slabs.add(ByteBuffer.allocateDirect(length));
+            allocatedBytes += length;
+            return toAddress(slabs.size() - 1, 0);
+        }
+
+        int sizeClass = getSizeClass(length);
+        if (freeBlockCounts[sizeClass] > 0) {
+            return freeBlocks[sizeClass][--freeBlockCounts[sizeClass]];
+        }
+
+        int blockSize = getBlockSize(sizeClass);
+        if (currentOffset + blockSize > SLAB_SIZE) {
+            slabs.add(ByteBuffer.allocateDirect(SLAB_SIZE));
+            allocatedBytes += SLAB_SIZE;
+            currentSlab = slabs.size() - 1;
+            currentOffset = 0;
+        }
+        long address = toAddress(currentSlab, currentOffset);
+        currentOffset += blockSize;
+        return address;
+    }
+
+    /**
+     * Returns size class of a text that is not longer than a slab.
+     */
+    static int getSizeClass(final int length) {
+        if (length <= SMALL_CLASS_STEP * SMALL_CLASS_COUNT) {
+            return (length + SMALL_CLASS_STEP - 1) / SMALL_CLASS_STEP - 1;
+        }
+        int shift = Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+        return SMALL_CLASS_COUNT + shift - LARGE_CLASS_FIRST_SHIFT;
+    }
+
+    static int getBlockSize(final int sizeClass) {
+        if (sizeClass < SMALL_CLASS_COUNT) {
+            return (sizeClass + 1) * SMALL_CLASS_STEP;
+        }
+        return 1 << (sizeClass - SMALL_CLASS_COUNT + LARGE_CLASS_FIRST_SHIFT);
+    }
+
+    private static long toAddress(final int slab, final int offset) {
+        return ((long) slab << Integer.SIZE) | offset;
+    }
+
+    private static int getSlab(final long address) {
+        return (int) (address >>> Integer.SIZE);
+    }
+
+    private static int getOffset(final long address) {
+        return (int) address;
+    }
+}
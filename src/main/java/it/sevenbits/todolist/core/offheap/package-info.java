@@ -0,0 +1,6 @@
+/**
+ * This package contains compact storage of tasks in primitive columns and direct memory.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.offheap;
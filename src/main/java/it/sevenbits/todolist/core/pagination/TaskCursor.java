@@ -0,0 +1,144 @@
+package it.sevenbits.todolist.core.pagination;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * This class presents an opaque cursor used for keyset pagination of task lists.
+ * Cursor points to the position of a task (its createdAt and id) and a direction to move from it.
+ * Cursor without position points to the beginning (forward) or to the end (backward) of the list.
+ */
+public final class TaskCursor {
+    private static final String FORWARD = "n";
+    private static final String BACKWARD = "p";
+    private static final String SEPARATOR = "|";
+
+    private final Instant createdAt;
+    private final TaskId id;
+    private final boolean backward;
+
+    /**
+     * Cursor constructor.
+     *
+     * @param createdAt createdAt value of the task cursor points to (null for the list edge).
+     * @param id Id of the task cursor points to (null for the list edge).
+     * @param backward true if the page lies before the position, false if after it.
+     */
+    public TaskCursor(final Instant createdAt, final TaskId id, final boolean backward) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.backward = backward;
+    }
+
+    /**
+     * This method returns cursor that points to the first page of the list.
+     *
+     * @return TaskCursor instance.
+     */
+    public static TaskCursor first() {
+        return new TaskCursor(null, null, false);
+    }
+
+    /**
+     * This method returns cursor that points to the last page of the list.
+     *
+     * @return TaskCursor instance.
+     */
+    public static TaskCursor last() {
+        return new TaskCursor(null, null, true);
+    }
+
+    /**
+     * This method decodes cursor from its string token.
+     * Empty token means the first page.
+     *
+     * @param token Cursor token.
+     * @return TaskCursor instance.
+     * @throws IllegalArgumentException if token is malformed.
+     */
+    public static TaskCursor decode(final String token) {
+        if (token.isEmpty()) {
+            return first();
+        }
+
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split("\\" + SEPARATOR, -1);
+        if (parts.length != 1 && parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        boolean isBackward;
+        if (FORWARD.equals(parts[0])) {
+            isBackward = false;
+        } else if (BACKWARD.equals(parts[0])) {
+            isBackward = true;
+        } else {
+            throw new IllegalArgumentException("Malformed cursor direction");
+        }
+
+        if (parts.length == 1) {
+            return new TaskCursor(null, null, isBackward);
+        }
+        try {
+            return new TaskCursor(Instant.parse(parts[1]), TaskId.valueOf(parts[2]), isBackward);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor position", e);
+        }
+    }
+
+    /**
+     * This method encodes cursor into the URL safe string token.
+     *
+     * @return Cursor token.
+     */
+    public String encode() {
+        StringBuilder builder = new StringBuilder(backward ? BACKWARD : FORWARD);
+        if (hasPosition()) {
+            builder.append(SEPARATOR).append(createdAt)
+                    .append(SEPARATOR).append(id);
+        }
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method shows whether cursor points to a task or to the list edge.
+     *
+     * @return true if cursor points to a task.
+     */
+    public boolean hasPosition() {
+        return createdAt != null && id != null;
+    }
+
+    /**
+     * Cursor createdAt getter.
+     *
+     * @return createdAt value of the task cursor points to.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Cursor id getter.
+     *
+     * @return Id of the task cursor points to.
+     */
+    public TaskId getId() {
+        return id;
+    }
+
+    /**
+     * Cursor direction getter.
+     *
+     * @return true if the page lies before the cursor position.
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains models that describe pagination of task lists.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.pagination;
@@ -0,0 +1,53 @@
+package it.sevenbits.todolist.core.persistence;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Interface of a durable store behind in-memory tasks.
+ * In-memory repository passes every change of a task to it, in the order changes of the task are applied.
+ */
+public interface ITaskChangeLog {
+    /**
+     * This method passes every stored task to consumers. It is called once, before any change.
+     *
+     * @param onPut Consumer of stored task states.
+     * @param onDelete Consumer of ids of removed tasks.
+     */
+    void recover(final Consumer<Task> onPut, final Consumer<TaskId> onDelete);
+
+    /**
+     * This method runs a change of tasks. It may wait before the change or after it until the change is stored.
+     *
+     * @param change Change that applies tasks to memory and logs them.
+     * @param <T> Type of change result.
+     * @return Result of the change.
+     */
+    <T> T change(final Supplier<T> change);
+
+    /**
+     * This method logs the new state of a task. It is called inside change, after the change
+     * is decided and before it is visible to other changes of the same task.
+     *
+     * @param task Task state.
+     */
+    void logPut(final Task task);
+
+    /**
+     * This method logs removal of a task. It is called like logPut.
+     *
+     * @param id Id of removed task.
+     */
+    void logDelete(final TaskId id);
+
+    /**
+     * This method stores all current tasks, if the log needs it to be compacted.
+     *
+     * @param tasks Live view of all tasks.
+     */
+    void snapshot(final Collection<Task> tasks);
+}
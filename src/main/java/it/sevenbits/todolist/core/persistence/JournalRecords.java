@@ -0,0 +1,125 @@
+package it.sevenbits.todolist.core.persistence;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * This class encodes and decodes records of task log and snapshots.
+ * Record is payload length, CRC32 of payload and payload. Payload is record type and task id,
+ * put records also have timestamps, status and text of the task. Zero length marks the end of records.
+ */
+final class JournalRecords {
+    /**
+     * Size of length and checksum that precede payload.
+     */
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int ID_SIZE = 1 + Long.BYTES * 2;
+    private static final int PUT_FIXED_SIZE = ID_SIZE + (Long.BYTES + Integer.BYTES) * 2 + Short.BYTES + Integer.BYTES;
+
+    private JournalRecords() {
+    }
+
+    /**
+     * Encodes record that sets current state of the task.
+     */
+    static byte[] encodePut(final Task task) {
+        byte[] status = task.getStatus().getBytes(StandardCharsets.UTF_8);
+        byte[] text = task.getText().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + PUT_FIXED_SIZE + status.length + text.length);
+        record.position(HEADER_SIZE);
+        putId(record, PUT, task.getId());
+        putInstant(record, task.getCreatedAt());
+        putInstant(record, task.getUpdatedAt());
+        record.putShort((short) status.length).put(status);
+        record.putInt(text.length).put(text);
+        return seal(record);
+    }
+
+    /**
+     * Encodes record that removes the task.
+     */
+    static byte[] encodeDelete(final TaskId id) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + ID_SIZE);
+        record.position(HEADER_SIZE);
+        putId(record, DELETE, id);
+        return seal(record);
+    }
+
+    /**
+     * Decodes the record that starts at buffer position and moves position past it.
+     *
+     * @return false at the end of records or if the record is incomplete or damaged,
+     * position is not moved then.
+     */
+    static boolean decode(final ByteBuffer buffer, final Consumer<Task> onPut, final Consumer<TaskId> onDelete) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + Integer.BYTES);
+        if (length < ID_SIZE || length > buffer.remaining() - HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return false;
+        }
+
+        byte type = payload.get();
+        TaskId id = new TaskId(payload.getLong(), payload.getLong());
+        if (type == PUT) {
+            Instant createdAt = getInstant(payload);
+            Instant updatedAt = getInstant(payload);
+            String status = getString(payload, payload.getShort());
+            String text = getString(payload, payload.getInt());
+            onPut.accept(new Task(id, text, status, createdAt, updatedAt));
+        } else if (type == DELETE) {
+            onDelete.accept(id);
+        } else {
+            return false;
+        }
+        buffer.position(start + HEADER_SIZE + length);
+        return true;
+    }
+
+    private static void putId(final ByteBuffer record, final byte type, final TaskId id) {
+        record.put(type)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putInstant(final ByteBuffer record, final Instant instant) {
+        record.putLong(instant.getEpochSecond()).putInt(instant.getNano());
+    }
+
+    private static Instant getInstant(final ByteBuffer payload) {
+        return Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+    }
+
+    private static String getString(final ByteBuffer payload, final int length) {
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] seal(final ByteBuffer record) {
+        int length = record.capacity() - HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, length);
+        record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+        return record.array();
+    }
+}
@@ -0,0 +1,514 @@
+package it.sevenbits.todolist.core.persistence;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.metrics.LatencyHistogram;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * This class makes in-memory tasks durable with an append-only log and snapshots.
+ *
+ * Every change of a task is appended as a checksummed record that holds the new state of the task,
+ * or its removal, to a memory-mapped log segment. Records are idempotent, so replaying a record
+ * that is already in a snapshot does not change the result. A flusher thread forces written segment to disk.
+ * If syncWrites is set, a change returns only after its record is forced, and the segment is forced as soon
+ * as there are new records, so changes appended while one fsync runs share the next one. Otherwise the segment
+ * is forced at most once per fsyncInterval, and up to fsyncInterval of changes may be lost.
+ *
+ * Snapshot starts a new segment, so earlier segments hold only changes that are already applied,
+ * and writes all current tasks to a file named after the new segment. Segments before it are removed then.
+ * Recovery loads the latest snapshot and replays segments from its one, every segment up to
+ * its first damaged record, so a torn write at the end of the log is skipped.
+ */
+public class TaskJournal implements ITaskChangeLog, IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskJournal.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("tasks-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.snap");
+    private static final int SNAPSHOT_MAGIC = 0x54534e50;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalMillis;
+    private final boolean syncWrites;
+
+    /**
+     * Changes hold it shared, snapshot takes it exclusively to cut the log between changes.
+     */
+    private final ReadWriteLock changeLock;
+    private final ReentrantLock appendLock;
+    private final ThreadLocal<long[]> changePosition;
+    private final Object flushMonitor;
+    private Thread flusherThread;
+    private volatile boolean running;
+
+    private long segmentNumber;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private volatile long appendedPosition;
+    private volatile long durablePosition;
+    private long recordsSinceSnapshot;
+
+    private final LatencyHistogram fsyncTime;
+    private final LatencyHistogram durabilityWait;
+    private volatile long recoveryMillis;
+    private volatile long recoveredRecords;
+    private volatile long lastSnapshotMillis;
+    private volatile long lastSnapshotTasks;
+
+    /**
+     * Constructor of TaskJournal class. Log is opened for appending by recover method.
+     *
+     * @param directory Directory of log segments and snapshots.
+     * @param segmentSize Size of log segment in bytes.
+     * @param fsyncIntervalMillis Minimal time between fsyncs of the log in milliseconds if writes are not synchronous.
+     * @param syncWrites Whether changes wait until their records are forced to disk.
+     */
+    public TaskJournal(final Path directory, final int segmentSize,
+                       final long fsyncIntervalMillis, final boolean syncWrites) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.syncWrites = syncWrites;
+        this.changeLock = new ReentrantReadWriteLock();
+        this.appendLock = new ReentrantLock();
+        this.changePosition = ThreadLocal.withInitial(() -> new long[2]);
+        this.flushMonitor = new Object();
+        this.fsyncTime = new LatencyHistogram();
+        this.durabilityWait = new LatencyHistogram();
+    }
+
+    /**
+     * This method loads the latest snapshot and replays the log after it, then opens a new log segment.
+     *
+     * @param onPut Consumer of recovered task states.
+     * @param onDelete Consumer of ids of removed tasks.
+     */
+    @Override
+    public void recover(final Consumer<Task> onPut, final Consumer<TaskId> onDelete) {
+        long startedAt = System.nanoTime();
+        long[] records = new long[1];
+        Consumer<Task> countingOnPut = task -> {
+            records[0]++;
+            onPut.accept(task);
+        };
+        Consumer<TaskId> countingOnDelete = id -> {
+            records[0]++;
+            onDelete.accept(id);
+        };
+        try {
+            Files.createDirectories(directory);
+            List<Long> snapshots = listFiles(SNAPSHOT_NAME);
+            long firstSegment = 0;
+            if (!snapshots.isEmpty()) {
+                firstSegment = snapshots.get(snapshots.size() - 1);
+                readSnapshot(getSnapshotPath(firstSegment), countingOnPut);
+            }
+            long lastSegment = firstSegment;
+            for (long number : listFiles(SEGMENT_NAME)) {
+                if (number >= firstSegment) {
+                    replaySegment(number, countingOnPut, countingOnDelete);
+                }
+                lastSegment = Math.max(lastSegment, number);
+            }
+            openSegment(lastSegment + 1, segmentSize);
+            recordsSinceSnapshot = records[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recoveredRecords = records[0];
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        LOGGER.info("{} task records recovered from {} in {} ms", recoveredRecords, directory, recoveryMillis);
+
+        running = true;
+        flusherThread = new Thread(this::flush, "task-journal-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+    }
+
+    /**
+     * This method runs a change of tasks. Records appended by the change are not split by snapshot.
+     * If syncWrites is set, the outermost change returns after its records are forced to disk.
+     *
+     * @param change Change that applies tasks to memory and appends their records.
+     * @param <T> Type of change result.
+     * @return Result of the change.
+     */
+    @Override
+    public <T> T change(final Supplier<T> change) {
+        long[] position = changePosition.get();
+        boolean isOutermost = position[1] == 0;
+        if (isOutermost) {
+            position[0] = 0;
+        }
+        position[1]++;
+        T result;
+        changeLock.readLock().lock();
+        try {
+            result = change.get();
+        } finally {
+            changeLock.readLock().unlock();
+            position[1]--;
+        }
+        if (isOutermost && syncWrites && position[0] > 0) {
+            awaitDurable(position[0]);
+        }
+        return result;
+    }
+
+    /**
+     * This method appends the new state of a task. It is called inside change, after the change
+     * is decided and before it is visible to other changes of the same task.
+     *
+     * @param task Task state.
+     */
+    @Override
+    public void logPut(final Task task) {
+        append(JournalRecords.encodePut(task));
+    }
+
+    /**
+     * This method appends removal of a task. It is called like logPut.
+     *
+     * @param id Id of removed task.
+     */
+    @Override
+    public void logDelete(final TaskId id) {
+        append(JournalRecords.encodeDelete(id));
+    }
+
+    /**
+     * This method writes snapshot of tasks if any changes were logged since the previous one.
+     * Changes are blocked only while the log is switched to a new segment.
+     *
+     * @param tasks Live view of all tasks, it is iterated after the switch.
+     */
+    @Override
+    public void snapshot(final Collection<Task> tasks) {
+        long startedAt = System.nanoTime();
+        long snapshotNumber;
+        changeLock.writeLock().lock();
+        try {
+            if (recordsSinceSnapshot == 0 && !listFiles(SNAPSHOT_NAME).isEmpty()) {
+                return;
+            }
+            appendLock.lock();
+            try {
+                snapshotNumber = segmentNumber + 1;
+                switchSegment(snapshotNumber, segmentSize);
+                recordsSinceSnapshot = 0;
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+
+        try {
+            Path snapshotPath = getSnapshotPath(snapshotNumber);
+            Path temporaryPath = directory.resolve(snapshotPath.getFileName() + ".tmp");
+            long taskCount = 0;
+            try (FileOutputStream fileStream = new FileOutputStream(temporaryPath.toFile());
+                 OutputStream stream = new BufferedOutputStream(fileStream, 1 << 16)) {
+                stream.write(ByteBuffer.allocate(Integer.BYTES).putInt(SNAPSHOT_MAGIC).array());
+                for (Task task : tasks) {
+                    stream.write(JournalRecords.encodePut(task));
+                    taskCount++;
+                }
+                stream.write(new byte[JournalRecords.HEADER_SIZE]);
+                stream.flush();
+                fileStream.getFD().sync();
+            }
+            Files.move(temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE);
+
+            for (long number : listFiles(SEGMENT_NAME)) {
+                if (number < snapshotNumber) {
+                    Files.delete(getSegmentPath(number));
+                }
+            }
+            for (long number : listFiles(SNAPSHOT_NAME)) {
+                if (number < snapshotNumber) {
+                    Files.delete(getSnapshotPath(number));
+                }
+            }
+            lastSnapshotTasks = taskCount;
+            lastSnapshotMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            LOGGER.info("Snapshot of {} tasks written in {} ms", taskCount, lastSnapshotMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method forces the log and stops the flusher thread.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (flusherThread != null) {
+            flusherThread.interrupt();
+            try {
+                flusherThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        appendLock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                segmentChannel.close();
+                segment = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "journal";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("syncWrites", syncWrites);
+        metrics.put("fsyncIntervalMillis", fsyncIntervalMillis);
+        metrics.put("notDurableBytes", appendedPosition - durablePosition);
+        metrics.put("fsyncMicros", fsyncTime.snapshot());
+        metrics.put("durabilityWaitMicros", durabilityWait.snapshot());
+        metrics.put("recoveryMillis", recoveryMillis);
+        metrics.put("recoveredRecords", recoveredRecords);
+        metrics.put("lastSnapshotMillis", lastSnapshotMillis);
+        metrics.put("lastSnapshotTasks", lastSnapshotTasks);
+        return metrics;
+    }
+
+    private void append(final byte[] record) {
+        long position;
+        appendLock.lock();
+        try {
+            if (segment == null) {
+                throw new IllegalStateException("Task journal is not open");
+            }
+            // one zero header is left at the end of segment as the end mark
+            if (segment.remaining() < record.length + JournalRecords.HEADER_SIZE) {
+                switchSegment(segmentNumber + 1, Math.max(segmentSize, record.length + JournalRecords.HEADER_SIZE));
+            }
+            segment.put(record);
+            recordsSinceSnapshot++;
+            position = getPosition();
+            appendedPosition = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        changePosition.get()[0] = position;
+        if (syncWrites) {
+            synchronized (flushMonitor) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Position in the whole log: segment number in high bits, offset in low bits, so it grows across segments.
+     */
+    private long getPosition() {
+        return (segmentNumber << Integer.SIZE) | segment.position();
+    }
+
+    private void awaitDurable(final long position) {
+        long startedAt = System.nanoTime();
+        synchronized (flushMonitor) {
+            while (durablePosition < position && running) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        durabilityWait.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Flusher thread loop: waits for appended records and forces the segment once for all of them.
+     * Synchronous writers are batched by the time the previous fsync takes, asynchronous ones by fsyncInterval.
+     */
+    private void flush() {
+        long lastForcedAt = System.nanoTime();
+        while (running) {
+            try {
+                synchronized (flushMonitor) {
+                    while (appendedPosition == durablePosition && running) {
+                        flushMonitor.wait(syncWrites ? 0 : Math.max(1, fsyncIntervalMillis));
+                    }
+                }
+                if (!syncWrites) {
+                    long sinceLastForceMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastForcedAt);
+                    if (sinceLastForceMillis < fsyncIntervalMillis) {
+                        Thread.sleep(fsyncIntervalMillis - sinceLastForceMillis);
+                    }
+                }
+                lastForcedAt = System.nanoTime();
+                forceSegment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Task journal fsync failed", e);
+            }
+        }
+    }
+
+    private void forceSegment() {
+        MappedByteBuffer forcedSegment;
+        long position;
+        appendLock.lock();
+        try {
+            forcedSegment = segment;
+            position = appendedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+        if (forcedSegment == null) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        forcedSegment.force();
+        fsyncTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+        markDurable(position);
+    }
+
+    private void markDurable(final long position) {
+        synchronized (flushMonitor) {
+            if (position > durablePosition) {
+                durablePosition = position;
+            }
+            flushMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Forces the current segment and opens the next one. It is called under appendLock.
+     * Segments switch rarely, so the old one is forced here and the flusher handles only the current one.
+     */
+    private void switchSegment(final long number, final int size) throws IOException {
+        if (segment != null) {
+            segment.force();
+            segmentChannel.close();
+            markDurable(appendedPosition);
+        }
+        openSegment(number, size);
+    }
+
+    private void openSegment(final long number, final int size) throws IOException {
+        segmentNumber = number;
+        segmentChannel = FileChannel.open(getSegmentPath(number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        appendedPosition = getPosition();
+        markDurable(appendedPosition);
+    }
+
+    private void replaySegment(final long number, final Consumer<Task> onPut,
+                               final Consumer<TaskId> onDelete) throws IOException {
+        try (FileChannel channel = FileChannel.open(getSegmentPath(number), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (JournalRecords.decode(buffer, onPut, onDelete)) {
+                continue;
+            }
+            if (buffer.remaining() >= JournalRecords.HEADER_SIZE && buffer.getLong(buffer.position()) != 0) {
+                LOGGER.warn("Task log segment {} is damaged at offset {}, the rest of it is skipped",
+                        number, buffer.position());
+            }
+        }
+    }
+
+    private void readSnapshot(final Path path, final Consumer<Task> onPut) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            DataInputStream input = new DataInputStream(stream);
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a task snapshot: " + path);
+            }
+            byte[] header = new byte[JournalRecords.HEADER_SIZE];
+            while (true) {
+                input.readFully(header);
+                int length = ByteBuffer.wrap(header).getInt();
+                if (length == 0) {
+                    return;
+                }
+                byte[] record = new byte[JournalRecords.HEADER_SIZE + length];
+                System.arraycopy(header, 0, record, 0, header.length);
+                input.readFully(record, header.length, length);
+                if (!JournalRecords.decode(ByteBuffer.wrap(record), onPut, id -> { })) {
+                    throw new IllegalStateException("Task snapshot is damaged: " + path);
+                }
+            }
+        }
+    }
+
+    private List<Long> listFiles(final Pattern namePattern) {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                Matcher matcher = namePattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numbers.sort(Long::compare);
+        return numbers;
+    }
+
+    private Path getSegmentPath(final long number) {
+        return directory.resolve(String.format("tasks-%016d.log", number));
+    }
+
+    private Path getSnapshotPath(final long number) {
+        return directory.resolve(String.format("snapshot-%016d.snap", number));
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains durable storage of in-memory tasks: append-only log and snapshots.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.persistence;
@@ -0,0 +1,137 @@
+package it.sevenbits.todolist.core.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.sevenbits.todolist.core.metrics.HistogramSnapshot;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class resizes a connection pool within configured bounds.
+ * Every interval it looks at how long threads waited for connections and how long connections
+ * were held. The pool grows while waits are above target, unless connections started to be held
+ * much longer after the last growth, which means the data base itself is saturated and more
+ * connections would only add to its latency. The pool shrinks while waits are low and less than
+ * half of it is busy. Idle connections above the lower bound are closed by the pool after idle timeout.
+ */
+public class AdaptivePoolSizer implements IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+    private static final double P90 = 0.9;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final int GROWTH_DIVISOR = 4;
+    private static final int LOW_WAIT_DIVISOR = 4;
+
+    private final HikariDataSource dataSource;
+    private final PoolMetricsRegistry poolMetricsRegistry;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWaitMicros;
+
+    private HistogramSnapshot lastWaitTime;
+    private HistogramSnapshot lastUsageTime;
+    private long lastTickNanos;
+    private long lastUsageP90;
+    private boolean grewLastTime;
+    private volatile Map<String, Object> lastDecision;
+
+    /**
+     * Constructor of AdaptivePoolSizer class.
+     *
+     * @param dataSource Data source whose pool is resized, instrumented by the registry.
+     * @param poolMetricsRegistry Registry of pool metrics.
+     * @param minSize Lower bound of pool size.
+     * @param maxSize Upper bound of pool size.
+     * @param targetWaitMillis Wait for a connection at 90th percentile the pool is sized for.
+     */
+    public AdaptivePoolSizer(final HikariDataSource dataSource, final PoolMetricsRegistry poolMetricsRegistry,
+                             final int minSize, final int maxSize, final long targetWaitMillis) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Pool size bounds are invalid: " + minSize + ".." + maxSize);
+        }
+        this.dataSource = dataSource;
+        this.poolMetricsRegistry = poolMetricsRegistry;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWaitMicros = TimeUnit.MILLISECONDS.toMicros(targetWaitMillis);
+        this.lastDecision = new LinkedHashMap<>();
+
+        dataSource.setMinimumIdle(minSize);
+        dataSource.setMaximumPoolSize(Math.max(minSize, Math.min(maxSize, dataSource.getMaximumPoolSize())));
+    }
+
+    /**
+     * This method looks at pool metrics since the last call and resizes the pool.
+     */
+    @Scheduled(fixedDelayString = "${tasks.pool.adaptive.interval:10000}")
+    public synchronized void resize() {
+        PoolMetrics poolMetrics = poolMetricsRegistry.getPool(dataSource.getPoolName());
+        if (poolMetrics == null) {
+            return;
+        }
+        HistogramSnapshot waitTime = poolMetrics.getWaitTime();
+        HistogramSnapshot usageTime = poolMetrics.getUsageTime();
+        long now = System.nanoTime();
+        if (lastWaitTime == null) {
+            lastWaitTime = waitTime;
+            lastUsageTime = usageTime;
+            lastTickNanos = now;
+            return;
+        }
+
+        HistogramSnapshot intervalWaitTime = waitTime.since(lastWaitTime);
+        HistogramSnapshot intervalUsageTime = usageTime.since(lastUsageTime);
+        long intervalMicros = Math.max(TimeUnit.NANOSECONDS.toMicros(now - lastTickNanos), 1);
+        lastWaitTime = waitTime;
+        lastUsageTime = usageTime;
+        lastTickNanos = now;
+
+        int size = dataSource.getMaximumPoolSize();
+        long waitP90 = intervalWaitTime.getPercentile(P90);
+        long usageP90 = intervalUsageTime.getPercentile(P90);
+        // average number of connections held during the interval
+        double busy = (double) intervalUsageTime.getSum() / intervalMicros;
+        boolean saturated = grewLastTime && lastUsageP90 > 0 && usageP90 > lastUsageP90 * LATENCY_TOLERANCE;
+
+        int newSize = size;
+        if (waitP90 > targetWaitMicros && !saturated) {
+            newSize = Math.min(maxSize, size + Math.max(1, size / GROWTH_DIVISOR));
+        } else if (saturated) {
+            newSize = Math.max(minSize, size - 1);
+        } else if (waitP90 <= targetWaitMicros / LOW_WAIT_DIVISOR && busy < size / 2.0) {
+            newSize = Math.max(minSize, size - 1);
+        }
+
+        if (newSize != size) {
+            LOGGER.info("Resizing pool {} from {} to {}: wait p90 {} us, usage p90 {} us, busy {}",
+                    dataSource.getPoolName(), size, newSize, waitP90, usageP90, busy);
+            dataSource.setMaximumPoolSize(newSize);
+        }
+        grewLastTime = newSize > size;
+        lastUsageP90 = usageP90;
+
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("size", newSize);
+        decision.put("minSize", minSize);
+        decision.put("maxSize", maxSize);
+        decision.put("waitP90Micros", waitP90);
+        decision.put("usageP90Micros", usageP90);
+        decision.put("busy", busy);
+        decision.put("saturated", saturated);
+        lastDecision = decision;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "adaptivePoolSizer";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return lastDecision;
+    }
+}
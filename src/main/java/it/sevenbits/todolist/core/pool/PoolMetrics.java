@@ -0,0 +1,116 @@
+package it.sevenbits.todolist.core.pool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import it.sevenbits.todolist.core.metrics.HistogramSnapshot;
+import it.sevenbits.todolist.core.metrics.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of one connection pool, recorded by the pool itself.
+ */
+public class PoolMetrics implements IMetricsTracker {
+    private static final long MICROS_IN_MILLI = 1000;
+
+    private final PoolStats poolStats;
+    private final LongSupplier leakDetectionThreshold;
+    private final LatencyHistogram waitTime;
+    private final LatencyHistogram usageTime;
+    private final LatencyHistogram creationTime;
+    private final LongAdder timeouts;
+    private final LongAdder leakSuspects;
+
+    /**
+     * Constructor of PoolMetrics class.
+     *
+     * @param poolStats Current state of the pool.
+     * @param leakDetectionThreshold Supplier of time in milliseconds a connection may be held
+     *                               before it is suspected to leak, 0 if leak detection is off.
+     */
+    public PoolMetrics(final PoolStats poolStats, final LongSupplier leakDetectionThreshold) {
+        this.poolStats = poolStats;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        waitTime = new LatencyHistogram();
+        usageTime = new LatencyHistogram();
+        creationTime = new LatencyHistogram();
+        timeouts = new LongAdder();
+        leakSuspects = new LongAdder();
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(final long connectionCreatedMillis) {
+        creationTime.record(connectionCreatedMillis * MICROS_IN_MILLI);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+        waitTime.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(final long elapsedBorrowedMillis) {
+        usageTime.record(elapsedBorrowedMillis * MICROS_IN_MILLI);
+        long threshold = leakDetectionThreshold.getAsLong();
+        if (threshold > 0 && elapsedBorrowedMillis >= threshold) {
+            leakSuspects.increment();
+        }
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Method that returns current state of the pool.
+     *
+     * @return Pool statistics.
+     */
+    public PoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    /**
+     * Method that returns how long threads waited for connections.
+     *
+     * @return Snapshot of wait time histogram in microseconds.
+     */
+    public HistogramSnapshot getWaitTime() {
+        return waitTime.snapshot();
+    }
+
+    /**
+     * Method that returns how long connections were held.
+     *
+     * @return Snapshot of usage time histogram in microseconds, with millisecond precision.
+     */
+    public HistogramSnapshot getUsageTime() {
+        return usageTime.snapshot();
+    }
+
+    /**
+     * Method that returns all metrics of the pool.
+     *
+     * @return Metrics by name.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("active", poolStats.getActiveConnections());
+        metrics.put("idle", poolStats.getIdleConnections());
+        metrics.put("pending", poolStats.getPendingThreads());
+        metrics.put("total", poolStats.getTotalConnections());
+        metrics.put("min", poolStats.getMinConnections());
+        metrics.put("max", poolStats.getMaxConnections());
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("leakSuspects", leakSuspects.sum());
+        metrics.put("waitMicros", waitTime.snapshot());
+        metrics.put("usageMicros", usageTime.snapshot());
+        metrics.put("creationMicros", creationTime.snapshot());
+        return metrics;
+    }
+}
@@ -0,0 +1,72 @@
+package it.sevenbits.todolist.core.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of metrics of all instrumented connection pools.
+ * Pools start lazily, so metrics of a pool appear after its first connection is requested.
+ */
+public class PoolMetricsRegistry implements IMetricsSource {
+    private final ConcurrentMap<String, HikariDataSource> dataSources;
+    private final ConcurrentMap<String, PoolMetrics> pools;
+
+    /**
+     * Constructor of PoolMetricsRegistry class.
+     */
+    public PoolMetricsRegistry() {
+        dataSources = new ConcurrentHashMap<>();
+        pools = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method that makes data source record its metrics into the registry.
+     * It must be called before the first connection is requested.
+     * Name of the pool set by this method must not be changed later.
+     *
+     * @param poolName Unique name of the pool.
+     * @param dataSource Data source to instrument.
+     */
+    public void instrument(final String poolName, final HikariDataSource dataSource) {
+        dataSource.setPoolName(poolName);
+        dataSources.put(poolName, dataSource);
+        dataSource.setMetricsTrackerFactory((name, poolStats) -> {
+            PoolMetrics poolMetrics = new PoolMetrics(poolStats, dataSource::getLeakDetectionThreshold);
+            pools.put(poolName, poolMetrics);
+            return poolMetrics;
+        });
+    }
+
+    /**
+     * Method that returns metrics of a pool.
+     *
+     * @param poolName Name of the pool.
+     * @return Pool metrics, null if the pool is not started yet.
+     */
+    public PoolMetrics getPool(final String poolName) {
+        return pools.get(poolName);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "pools";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Map.Entry<String, HikariDataSource> dataSource : dataSources.entrySet()) {
+            PoolMetrics poolMetrics = pools.get(dataSource.getKey());
+            Map<String, Object> poolMetricsMap = poolMetrics == null ? new LinkedHashMap<>() : poolMetrics.getMetrics();
+            poolMetricsMap.put("maximumPoolSize", dataSource.getValue().getMaximumPoolSize());
+            poolMetricsMap.put("leakDetectionThresholdMillis", dataSource.getValue().getLeakDetectionThreshold());
+            metrics.put(dataSource.getKey(), poolMetricsMap);
+        }
+        return metrics;
+    }
+}
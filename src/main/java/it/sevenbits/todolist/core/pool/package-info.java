@@ -0,0 +1,6 @@
+/**
+ * This package contains instrumentation and sizing of data base connection pools.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.pool;
@@ -0,0 +1,182 @@
+package it.sevenbits.todolist.core.repository;
+
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.cache.SegmentedLruCache;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository decorator that reads tasks by id through a bounded cache.
+ * Cached tasks are invalidated when they are changed or removed through this repository,
+ * changes made around it are seen when the cached entry expires.
+ * Lists and searches go straight to the wrapped repository.
+ */
+public class CachingTasksRepository extends ForwardingTasksRepository {
+    private final SegmentedLruCache<TaskId, Task> cache;
+
+    /**
+     * Constructor of CachingTasksRepository class.
+     *
+     * @param delegate Wrapped repository.
+     * @param cache Cache of tasks by ids.
+     */
+    public CachingTasksRepository(final ITasksRepository delegate, final SegmentedLruCache<TaskId, Task> cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    /**
+     * This method returns a "Task" model taken by ID from the cache or the wrapped repository.
+     *
+     * @param id String parameter.
+     * @return "Task" model.
+     */
+    @Override
+    public Task getTaskByID(final TaskId id) {
+        return cache.get(id, getDelegate()::getTaskByID);
+    }
+
+    /**
+     * This method returns "Task" models taken by list of IDs. Tasks missing in the cache are read at once.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        Map<TaskId, Task> tasksByIds = cache.getAll(ids, missingIds -> {
+            Map<TaskId, Task> loadedTasks = new HashMap<>();
+            for (Task task : getDelegate().getTasksByIDs(missingIds)) {
+                loadedTasks.put(task.getId(), task);
+            }
+            return loadedTasks;
+        });
+        List<Task> tasks = new ArrayList<>(tasksByIds.size());
+        for (TaskId id : ids) {
+            Task task = tasksByIds.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * This method adds "Task" models to the wrapped repository.
+     * Imported ids may be cached as missing, so the cache is cleared.
+     *
+     * @param tasks "Task" models.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        try {
+            return getDelegate().importTasks(tasks);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * This method removes a "Task" model by ID and its cached value.
+     *
+     * @param id String parameter
+     * @return deleted "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task deleteTask(final TaskId id) {
+        try {
+            return getDelegate().deleteTask(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * This method updates a "Task" model by ID and removes its cached value.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        try {
+            return getDelegate().patchTask(id, text, status);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * This method updates several "Task" models and removes their cached values.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    @Override
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        try {
+            return getDelegate().updateTasks(patches);
+        } finally {
+            cache.invalidateAll(patches.keySet());
+        }
+    }
+
+    /**
+     * This method removes several "Task" models and their cached values.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        try {
+            return getDelegate().deleteTasks(ids);
+        } finally {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    /**
+     * This method changes status of tasks selected by filter. Changed ids are not known, so the cache is cleared.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        try {
+            return getDelegate().updateTasksByFilter(filter, status, limit);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * This method removes tasks selected by filter. Removed ids are not known, so the cache is cleared.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        try {
+            return getDelegate().deleteTasksByFilter(filter, limit);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+}
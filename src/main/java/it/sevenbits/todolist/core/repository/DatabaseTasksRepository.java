@@ -1,46 +1,86 @@
 package it.sevenbits.todolist.core.repository;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.counter.TaskCounters;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
 import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
 import it.sevenbits.todolist.web.exceptions.InvalidPageOrderException;
 import it.sevenbits.todolist.web.exceptions.InvalidTaskStatusException;
 import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcOperations;
-import org.springframework.web.util.UriComponents;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * This class presents a repository that uses PostgreSQL.
  */
 public class DatabaseTasksRepository implements ITasksRepository {
+    private static final int INSERT_CHUNK_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int IMPORT_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Only tasks of this status are moved to task_archive table by TaskArchiver.
+     */
+    private static final String ARCHIVED_STATUS = "done";
+
     private final JdbcOperations jdbcOperations;
+    private final TaskCounters taskCounters;
+    private final ITaskIdGenerator taskIdGenerator;
     private final List<String> statusList;
     private final List<String> orderList;
-    private final JsonNodeFactory jsonNodeFactory;
-    private final ObjectMapper objectMapper;
+    private final TasksPageBuilder tasksPageBuilder;
+    private final RowMapper<Task> taskRowMapper;
 
     /**
      * Constructor of HashMapTasksRepository class.
      *
      * @param jdbcOperations JdbcOperations instance that presents an interface contains Data source instance
+     * @param taskCounters In-process task counters kept up to date by the repository.
+     * @param taskIdGenerator Generator of ids for new tasks.
      */
-    public DatabaseTasksRepository(final JdbcOperations jdbcOperations) {
+    public DatabaseTasksRepository(final JdbcOperations jdbcOperations,
+                                   final TaskCounters taskCounters,
+                                   final ITaskIdGenerator taskIdGenerator) {
         this.jdbcOperations = jdbcOperations;
+        this.taskCounters = taskCounters;
+        this.taskIdGenerator = taskIdGenerator;
 
-        jsonNodeFactory = JsonNodeFactory.instance;
-        objectMapper = new ObjectMapper();
+        tasksPageBuilder = new TasksPageBuilder();
+        taskRowMapper = (resultSet, i) -> new Task(
+                TaskId.of(resultSet.getObject("id", UUID.class)),
+                resultSet.getString("text"),
+                resultSet.getString("status"),
+                resultSet.getTimestamp("createdAt").toInstant(),
+                resultSet.getTimestamp("updatedAt").toInstant());
 
         statusList = new ArrayList<>();
         orderList = new ArrayList<>();
@@ -57,13 +97,9 @@ public class DatabaseTasksRepository implements ITasksRepository {
     @Override
     public Task addTask(final AddTaskRequest addTaskRequest) {
         String taskStatus = "inbox";
-        Date dateNow = new Date();
-        SimpleDateFormat formatForDateNow = new SimpleDateFormat(
-                "yyyy-MM-dd'T'H:mm:ss+00:00");
+        Instant createdAt = Instant.now();
 
-        String createdAt = formatForDateNow.format(dateNow);
-
-        Task task = new Task(UUID.randomUUID().toString(),
+        Task task = new Task(taskIdGenerator.nextId(),
                 addTaskRequest.getText(),
                 taskStatus,
                 createdAt,
@@ -71,18 +107,180 @@ public class DatabaseTasksRepository implements ITasksRepository {
 
         jdbcOperations.update(
                 "INSERT INTO task (id, text, status, createdAt, updatedAt) VALUES (?, ?, ?, ?, ?)",
-                task.getId(),
+                task.getId().toUuid(),
                 task.getText(),
                 task.getStatus(),
-                task.getCreatedAt(),
-                task.getUpdatedAt()
+                Timestamp.from(task.getCreatedAt()),
+                Timestamp.from(task.getUpdatedAt())
         );
+        taskCounters.increment(task.getStatus());
 
         return task;
     }
 
+    /**
+     * This method adds several new "Task" models to data base in one transaction.
+     * Tasks are written by multi-row INSERT statements, up to INSERT_CHUNK_SIZE rows per statement.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    @Override
+    @Transactional
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        String taskStatus = "inbox";
+        Instant createdAt = Instant.now();
+
+        List<Task> tasks = new ArrayList<>(addTaskRequests.size());
+        for (AddTaskRequest addTaskRequest : addTaskRequests) {
+            tasks.add(new Task(taskIdGenerator.nextId(),
+                    addTaskRequest.getText(),
+                    taskStatus,
+                    createdAt,
+                    createdAt));
+        }
+
+        for (int from = 0; from < tasks.size(); from += INSERT_CHUNK_SIZE) {
+            insertTasks(tasks.subList(from, Math.min(from + INSERT_CHUNK_SIZE, tasks.size())));
+        }
+        afterCommit(() -> taskCounters.add(taskStatus, tasks.size()));
+
+        return tasks;
+    }
+
+    private void insertTasks(final List<Task> tasks) {
+        StringBuilder query = new StringBuilder(
+                "INSERT INTO task (id, text, status, createdAt, updatedAt) VALUES ");
+        Object[] arguments = new Object[tasks.size() * 5];
+        int argument = 0;
+        for (Task task : tasks) {
+            if (argument > 0) {
+                query.append(", ");
+            }
+            query.append("(?, ?, ?, ?, ?)");
+            arguments[argument++] = task.getId().toUuid();
+            arguments[argument++] = task.getText();
+            arguments[argument++] = task.getStatus();
+            arguments[argument++] = Timestamp.from(task.getCreatedAt());
+            arguments[argument++] = Timestamp.from(task.getUpdatedAt());
+        }
+        jdbcOperations.update(query.toString(), arguments);
+    }
+
+    /**
+     * This method loads "Task" models into data base with COPY and merges them into task table.
+     * Tasks are copied in chunks of about IMPORT_BUFFER_SIZE characters into a temporary staging table
+     * as they are taken from iterator, so memory use does not depend on number of tasks.
+     * Everything is done in one transaction, tasks with ids that are already in task or task_archive table are skipped.
+     *
+     * @param tasks "Task" models, they may be read lazily.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        Map<String, Long> imported = jdbcOperations.execute((ConnectionCallback<Map<String, Long>>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TEMPORARY TABLE task_import " +
+                            "(id uuid, text varchar, status varchar, createdAt timestamptz, updatedAt timestamptz) " +
+                            "ON COMMIT DROP");
+                }
+                copyTasks(connection.unwrap(PGConnection.class).getCopyAPI(), tasks);
+
+                Map<String, Long> counts = new HashMap<>();
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(
+                             "WITH inserted AS (" +
+                                     "INSERT INTO task (id, text, status, createdAt, updatedAt) " +
+                                     "SELECT id, text, status, createdAt, updatedAt FROM task_import " +
+                                     "WHERE NOT EXISTS (SELECT 1 FROM task_archive WHERE task_archive.id = task_import.id) " +
+                                     "ON CONFLICT (id) DO NOTHING RETURNING status) " +
+                                     "SELECT status, COUNT(*) AS total FROM inserted GROUP BY status")) {
+                    while (resultSet.next()) {
+                        counts.put(resultSet.getString("status"), resultSet.getLong("total"));
+                    }
+                }
+                connection.commit();
+                return counts;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+
+        long total = 0;
+        for (Map.Entry<String, Long> count : imported.entrySet()) {
+            taskCounters.add(count.getKey(), count.getValue());
+            total += count.getValue();
+        }
+        return total;
+    }
+
+    private void copyTasks(final CopyManager copyManager, final Iterator<Task> tasks) throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(
+                "COPY task_import (id, text, status, createdAt, updatedAt) FROM STDIN");
+        try {
+            StringBuilder buffer = new StringBuilder(IMPORT_BUFFER_SIZE + IMPORT_BUFFER_SIZE / 4);
+            while (tasks.hasNext()) {
+                Task task = tasks.next();
+                buffer.append(task.getId()).append('\t');
+                appendCopyText(buffer, task.getText());
+                buffer.append('\t');
+                appendCopyText(buffer, task.getStatus());
+                buffer.append('\t').append(task.getCreatedAt())
+                        .append('\t').append(task.getUpdatedAt())
+                        .append('\n');
+                if (buffer.length() >= IMPORT_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeToCopy(final CopyIn copyIn, final StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Escapes value for COPY text format.
+     */
+    private void appendCopyText(final StringBuilder buffer, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                default:
+                    buffer.append(character);
+            }
+        }
+    }
+
     /**
      * This method returns all the objects from data base.
+     * If cursor is passed, page is taken by keyset pagination, otherwise by page number.
      *
      * @return "Task" list.
      */
@@ -90,7 +288,8 @@ public class DatabaseTasksRepository implements ITasksRepository {
     public JsonNode getAllTasks(final String status,
                                 final String order,
                                 final Short page,
-                                final Short size) {
+                                final Short size,
+                                final TaskCursor cursor) {
 
         final String statusToUse = Optional.ofNullable(status)
                 .orElse("inbox");
@@ -101,157 +300,602 @@ public class DatabaseTasksRepository implements ITasksRepository {
         final short sizeToUse = Optional.ofNullable(size)
                 .orElse((short) 25);
 
-        int totalTasksCount = getTotalTaskCount(statusToUse);
-        int totalPagesCount = (totalTasksCount % sizeToUse > 0)
-                ? totalTasksCount/sizeToUse + 1 : totalTasksCount/sizeToUse;
-        int skippedTasksCount = sizeToUse * (pageToUse - 1);
+        if (cursor != null) {
+            return getTasksPageByCursor(statusToUse, orderToUse, sizeToUse, cursor);
+        }
 
-        ObjectNode rootNode = jsonNodeFactory.objectNode();
-        ObjectNode metaNode = rootNode.putObject("_meta");
-        ArrayNode tasksNode = rootNode.putArray("tasks");
-
-        final UriComponents uriPartBeforePageNumber = UriComponentsBuilder.fromPath("/tasks")
-                .queryParam("status", status)
-                .queryParam("order", order)
-                .build();
-        final UriComponents uriPartAfterPageNumber = UriComponentsBuilder.fromPath("/tasks")
-                .queryParam("size", size)
-                .build();
-
-        int numberOfPreviousPage = (pageToUse == 1) ? 1 : (pageToUse - 1);
-        int numberOfNextPage = (totalPagesCount == 1) ? 1 : (pageToUse + 1);
-
-        String nextPageLink = UriComponentsBuilder.newInstance()
-                .uriComponents(uriPartBeforePageNumber)
-                .queryParam("page", numberOfNextPage)
-                .uriComponents(uriPartAfterPageNumber)
-                .build()
-                .toString();
-        String previousPageLink = UriComponentsBuilder.newInstance()
-                .uriComponents(uriPartBeforePageNumber)
-                .queryParam("page", numberOfPreviousPage)
-                .uriComponents(uriPartAfterPageNumber)
-                .build()
-                .toString();
-        String firstPageLink = UriComponentsBuilder.newInstance()
-                .uriComponents(uriPartBeforePageNumber)
-                .queryParam("page", 1)
-                .uriComponents(uriPartAfterPageNumber)
-                .build()
-                .toString();
-        String lastPageLink = UriComponentsBuilder.newInstance()
-                .uriComponents(uriPartBeforePageNumber)
-                .queryParam("page", totalPagesCount)
-                .uriComponents(uriPartAfterPageNumber)
-                .build()
-                .toString();
-
-        metaNode.put("total", totalTasksCount)
-                .put("page", pageToUse)
-                .put("size", sizeToUse)
-                .put("next", nextPageLink)
-                .put("prev", previousPageLink)
-                .put("first", firstPageLink)
-                .put("last", lastPageLink);
-
-        final List<Task> taskArrayList = new ArrayList<>();
-
-        taskArrayList.addAll(jdbcOperations.query(
-                "SELECT id, text, status, createdAt, updatedAt FROM task WHERE status = ? " +
-                        "ORDER BY createdAt " + orderToUse + " OFFSET ? LIMIT ?",
-                (resultSet, i) -> {
-                    String id = resultSet.getString("id");
-                    String text = resultSet.getString("text");
-                    String createdAt = resultSet.getString("createdAt");
-                    String updatedAt = resultSet.getString("updatedAt");
-                    return new Task(
-                            id,
-                            text,
-                            statusToUse,
-                            createdAt,
-                            updatedAt);
-                },
+        int skippedTasksCount = sizeToUse * (pageToUse - 1);
+        List<Task> tasks = jdbcOperations.query(
+                "SELECT id, text, status, createdAt, updatedAt FROM " + getTaskTable(statusToUse) + " WHERE status = ? " +
+                        "ORDER BY createdAt " + orderToUse + ", id " + orderToUse + " OFFSET ? LIMIT ?",
+                taskRowMapper,
                 statusToUse,
                 skippedTasksCount,
-                sizeToUse)
-        );
+                sizeToUse);
 
-        for (Task currentTask : taskArrayList) {
-            tasksNode.add(objectMapper.valueToTree(currentTask));
+        return tasksPageBuilder.buildNumberedPage(status, order, size, pageToUse, sizeToUse,
+                getTotalTaskCount(statusToUse), tasks);
+    }
+
+    /**
+     * This method takes a page of tasks that lies next to the cursor position.
+     * Page is found by seek predicate on (createdAt, id), so its cost does not depend on page depth.
+     * One extra row is fetched to find out whether there are tasks beyond the page.
+     */
+    private JsonNode getTasksPageByCursor(final String status,
+                                          final String order,
+                                          final short size,
+                                          final TaskCursor cursor) {
+        final boolean ascending = "asc".equals(order) != cursor.isBackward();
+        final String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder query = new StringBuilder(
+                "SELECT id, text, status, createdAt, updatedAt FROM " + getTaskTable(status) + " WHERE status = ?");
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(status);
+        if (cursor.hasPosition()) {
+            query.append(" AND (createdAt, id) ").append(ascending ? ">" : "<").append(" (?, ?)");
+            arguments.add(Timestamp.from(cursor.getCreatedAt()));
+            arguments.add(cursor.getId().toUuid());
         }
+        query.append(" ORDER BY createdAt ").append(direction)
+                .append(", id ").append(direction)
+                .append(" LIMIT ?");
+        arguments.add(size + 1);
+
+        List<Task> tasks = jdbcOperations.query(
+                query.toString(),
+                taskRowMapper,
+                arguments.toArray());
 
-        return rootNode;
+        return tasksPageBuilder.buildCursorPage(status, order, size, cursor, tasks, getTotalTaskCount(status));
     }
 
     /**
      * This method returns a "Task" model from data base taken by ID.
+     * Archive is looked up only when the task is not in task table.
      *
      * @param id String parameter.
      * @return "Task" model.
      */
     @Override
-    public Task getTaskByID(final String id) {
-        return jdbcOperations.queryForObject(
+    public Task getTaskByID(final TaskId id) {
+        List<Task> tasks = jdbcOperations.query(
                 "SELECT id, text, status, createdAt, updatedAt FROM task WHERE id = ?",
-                (resultSet, i) -> {
-                    String status = resultSet.getString("status");
-                    String text = resultSet.getString("text");
-                    String createdAt = resultSet.getString("createdAt");
-                    String updatedAt = resultSet.getString("updatedAt");
-                    return new Task(id,
-                            status,
-                            text,
-                            createdAt,
-                            updatedAt);
+                taskRowMapper,
+                id.toUuid());
+        if (tasks.isEmpty()) {
+            tasks = jdbcOperations.query(
+                    "SELECT id, text, status, createdAt, updatedAt FROM task_archive WHERE id = ?",
+                    taskRowMapper,
+                    id.toUuid());
+        }
+
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    /**
+     * This method returns "Task" models from data base taken by list of IDs in one query.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return jdbcOperations.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id, text, status, createdAt, updatedAt FROM task_all WHERE id = ANY(?)");
+                    statement.setArray(1, connection.createArrayOf("uuid", toUuids(ids)));
+                    return statement;
                 },
-                id);
+                taskRowMapper);
+    }
+
+    /**
+     * This method finds "Task" models by full-text search over textSearch column, that is kept
+     * in sync with task text by a trigger and indexed by GIN index.
+     * Every query term is searched as a prefix, tasks are ranked by ts_rank.
+     *
+     * @param queryTerms Search terms made by SearchTerms, they contain only letters and digits.
+     * @param status Status of tasks to find, null for all statuses.
+     * @param offset Number of found tasks to skip.
+     * @param limit Maximal number of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> searchTasks(final List<String> queryTerms, final String status,
+                                  final int offset, final int limit) {
+        StringBuilder textQuery = new StringBuilder();
+        for (String queryTerm : queryTerms) {
+            if (textQuery.length() > 0) {
+                textQuery.append(" & ");
+            }
+            textQuery.append(queryTerm).append(":*");
+        }
+
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(textQuery.toString());
+        String statusCondition = "";
+        if (status != null) {
+            statusCondition = " AND status = ?";
+            arguments.add(status);
+        }
+        arguments.add(offset);
+        arguments.add(limit);
+
+        return jdbcOperations.query(
+                "SELECT id, text, status, createdAt, updatedAt " +
+                        "FROM " + getTaskTable(status) + ", to_tsquery('pg_catalog.simple', ?) query " +
+                        "WHERE textSearch @@ query" + statusCondition + " " +
+                        "ORDER BY ts_rank(textSearch, query) DESC, createdAt DESC, id DESC OFFSET ? LIMIT ?",
+                taskRowMapper,
+                arguments.toArray());
+    }
+
+    /**
+     * This method streams "Task" models from data base through a server-side cursor.
+     * PostgreSQL driver uses a cursor only outside of autocommit, so the statement runs
+     * in its own read-only transaction and rows are fetched EXPORT_FETCH_SIZE at a time.
+     * There is no ORDER BY, so the table is read by a sequential scan.
+     *
+     * @param status Status of tasks to export, null for all statuses.
+     * @param taskConsumer Consumer of tasks.
+     * @return Number of exported tasks.
+     */
+    @Override
+    public long exportTasks(final String status, final Consumer<Task> taskConsumer) {
+        return jdbcOperations.execute((ConnectionCallback<Long>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, text, status, createdAt, updatedAt FROM " + getTaskTable(status) +
+                            (status == null ? "" : " WHERE status = ?"))) {
+                if (status != null) {
+                    statement.setString(1, status);
+                }
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+
+                long exported = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        taskConsumer.accept(taskRowMapper.mapRow(resultSet, (int) exported));
+                        exported++;
+                    }
+                }
+                connection.commit();
+                return exported;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
     }
 
     /**
      * This method removes a "Task" model from data base by ID.
+     * Archive is looked up only when the task is not in task table.
      *
      * @param id String parameter
-     * @return deleted "Task" model
+     * @return deleted "Task" model or null if there is no such task.
      */
     @Override
-    public Task deleteTask(final String id) {
-        final Task task = getTaskByID(id);
-        jdbcOperations.update("DELETE FROM task WHERE id = ?", id);
+    public Task deleteTask(final TaskId id) {
+        List<Task> tasks = jdbcOperations.query(
+                "DELETE FROM task WHERE id = ? RETURNING id, text, status, createdAt, updatedAt",
+                taskRowMapper,
+                id.toUuid());
+        if (tasks.isEmpty()) {
+            tasks = jdbcOperations.query(
+                    "DELETE FROM task_archive WHERE id = ? RETURNING id, text, status, createdAt, updatedAt",
+                    taskRowMapper,
+                    id.toUuid());
+        }
+        if (tasks.isEmpty()) {
+            return null;
+        }
 
+        Task task = tasks.get(0);
+        taskCounters.decrement(task.getStatus());
         return task;
     }
 
     /**
-     * /**
-     * This method update a "Task" model in data base by ID.
+     * This method updates text and/or status of a "Task" model in data base by ID in one statement.
+     * If the task is archived, it is moved back to task table and updated there, in the same transaction.
      *
-     * @param id      String parameter for define a "Task" model we wanna to replace.
-     * @param newTask new "Task" model
-     * @return deleted "Task" model.
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
      */
     @Override
-    public Task updateTask(final String id, final Task newTask) {
-        Date dateNow = new Date();
-        SimpleDateFormat formatForDateNow = new SimpleDateFormat(
-                "yyyy-MM-dd'T'H:mm:ss+00:00");
+    @Transactional
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        Task task = updateTask(id, text, status);
+        if (task == null && restoreTasks(Collections.singletonList(id)) > 0) {
+            task = updateTask(id, text, status);
+        }
+        return task;
+    }
 
-        String updatedAt = formatForDateNow.format(dateNow);
+    private Task updateTask(final TaskId id, final String text, final String status) {
+        List<String> oldStatuses = new ArrayList<>(1);
+        List<Task> tasks = jdbcOperations.query(
+                "UPDATE task SET text = COALESCE(?::varchar, task.text), " +
+                        "status = COALESCE(?::varchar, task.status), updatedAt = ? " +
+                        "FROM task old WHERE task.id = old.id AND task.id = ? " +
+                        "RETURNING task.id, task.text, task.status, task.createdAt, task.updatedAt, " +
+                        "old.status AS oldStatus",
+                (resultSet, i) -> {
+                    oldStatuses.add(resultSet.getString("oldStatus"));
+                    return taskRowMapper.mapRow(resultSet, i);
+                },
+                text,
+                status,
+                Timestamp.from(Instant.now()),
+                id.toUuid());
+        if (tasks.isEmpty()) {
+            return null;
+        }
 
-        jdbcOperations.update(
-                "UPDATE task SET text = ?, status = ?, updatedAt = ? WHERE id = ?",
-                newTask.getText(),
-                newTask.getStatus(),
-                updatedAt,
-                id);
+        Task task = tasks.get(0);
+        afterCommit(() -> taskCounters.move(oldStatuses.get(0), task.getStatus()));
+        return task;
+    }
+
+    /**
+     * This method updates several "Task" models in data base by one statement.
+     * Patches are passed as arrays and joined to the table, null fields keep current values.
+     * Archived tasks among them are moved back to task table and updated by second statement,
+     * all statements run in one transaction. Counters are changed after it commits.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    @Override
+    @Transactional
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        if (patches.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String[]> statusMoves = new ArrayList<>();
+        List<TaskId> updatedIds = updateTaskRows(patches, statusMoves);
+        if (updatedIds.size() < patches.size()) {
+            Map<TaskId, UpdateTaskRequest> missedPatches = new HashMap<>(patches);
+            missedPatches.keySet().removeAll(updatedIds);
+            if (restoreTasks(missedPatches.keySet()) > 0) {
+                updatedIds.addAll(updateTaskRows(missedPatches, statusMoves));
+            }
+        }
+        afterCommit(() -> {
+            for (String[] statusMove : statusMoves) {
+                taskCounters.move(statusMove[0], statusMove[1]);
+            }
+        });
+        return updatedIds;
+    }
+
+    /**
+     * Updates rows of task table, old and new status of every updated task is added to statusMoves.
+     */
+    private List<TaskId> updateTaskRows(final Map<TaskId, UpdateTaskRequest> patches, final List<String[]> statusMoves) {
+        UUID[] ids = new UUID[patches.size()];
+        String[] texts = new String[patches.size()];
+        String[] statuses = new String[patches.size()];
+        int patchIndex = 0;
+        for (Map.Entry<TaskId, UpdateTaskRequest> patch : patches.entrySet()) {
+            ids[patchIndex] = patch.getKey().toUuid();
+            texts[patchIndex] = patch.getValue().getText();
+            statuses[patchIndex] = patch.getValue().getStatus();
+            patchIndex++;
+        }
+
+        List<TaskId> updatedIds = new ArrayList<>();
+        jdbcOperations.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "UPDATE task SET text = COALESCE(patch.text, task.text), " +
+                                    "status = COALESCE(patch.status, task.status), updatedAt = ? " +
+                                    "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[]) AS patch(id, text, status), " +
+                                    "task old " +
+                                    "WHERE task.id = patch.id AND old.id = task.id " +
+                                    "RETURNING task.id, old.status AS oldStatus, task.status");
+                    statement.setTimestamp(1, Timestamp.from(Instant.now()));
+                    statement.setArray(2, connection.createArrayOf("uuid", ids));
+                    statement.setArray(3, connection.createArrayOf("varchar", texts));
+                    statement.setArray(4, connection.createArrayOf("varchar", statuses));
+                    return statement;
+                },
+                resultSet -> {
+                    updatedIds.add(TaskId.of(resultSet.getObject("id", UUID.class)));
+                    statusMoves.add(new String[] {resultSet.getString("oldStatus"), resultSet.getString("status")});
+                });
+
+        return updatedIds;
+    }
+
+    /**
+     * This method writes given states of tasks to data base by one statement: missing tasks are inserted,
+     * existing ones are overwritten. Archived copies of the tasks are removed by the same statement,
+     * so a task is never in both tables. In-process task counters are not changed, they are refreshed
+     * from task_counts table.
+     *
+     * @param tasks States of tasks, one per id.
+     * @return Number of written tasks.
+     */
+    public int saveTasks(final Collection<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        UUID[] ids = new UUID[tasks.size()];
+        String[] texts = new String[tasks.size()];
+        String[] statuses = new String[tasks.size()];
+        Timestamp[] createdAts = new Timestamp[tasks.size()];
+        Timestamp[] updatedAts = new Timestamp[tasks.size()];
+        int taskIndex = 0;
+        for (Task task : tasks) {
+            ids[taskIndex] = task.getId().toUuid();
+            texts[taskIndex] = task.getText();
+            statuses[taskIndex] = task.getStatus();
+            createdAts[taskIndex] = Timestamp.from(task.getCreatedAt());
+            updatedAts[taskIndex] = Timestamp.from(task.getUpdatedAt());
+            taskIndex++;
+        }
+
+        return jdbcOperations.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "WITH unarchived AS (DELETE FROM task_archive WHERE id = ANY(?)) " +
+                            "INSERT INTO task (id, text, status, createdAt, updatedAt) " +
+                            "SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::timestamptz[], ?::timestamptz[]) " +
+                            "ON CONFLICT (id) DO UPDATE SET text = EXCLUDED.text, status = EXCLUDED.status, " +
+                            "updatedAt = EXCLUDED.updatedAt");
+            Array idArray = connection.createArrayOf("uuid", ids);
+            statement.setArray(1, idArray);
+            statement.setArray(2, idArray);
+            statement.setArray(3, connection.createArrayOf("varchar", texts));
+            statement.setArray(4, connection.createArrayOf("varchar", statuses));
+            statement.setArray(5, connection.createArrayOf("timestamptz", createdAts));
+            statement.setArray(6, connection.createArrayOf("timestamptz", updatedAts));
+            return statement;
+        });
+    }
+
+    /**
+     * This method removes several "Task" models from data base by one statement.
+     * Ids that are not found in task table are removed from archive by second statement,
+     * both statements run in one transaction. Counters are changed after it commits.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    @Transactional
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return newTask;
+        List<String> deletedStatuses = new ArrayList<>();
+        List<TaskId> deletedIds = deleteTaskRows("task", ids, deletedStatuses);
+        if (deletedIds.size() < ids.size()) {
+            List<TaskId> missedIds = new ArrayList<>(ids);
+            missedIds.removeAll(deletedIds);
+            deletedIds.addAll(deleteTaskRows("task_archive", missedIds, deletedStatuses));
+        }
+        afterCommit(() -> {
+            for (String status : deletedStatuses) {
+                taskCounters.decrement(status);
+            }
+        });
+        return deletedIds;
+    }
+
+    /**
+     * Deletes rows of the table, status of every deleted task is added to deletedStatuses.
+     */
+    private List<TaskId> deleteTaskRows(final String table, final Collection<TaskId> ids,
+                                        final List<String> deletedStatuses) {
+        List<TaskId> deletedIds = new ArrayList<>();
+        jdbcOperations.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "DELETE FROM " + table + " WHERE id = ANY(?) RETURNING id, status");
+                    statement.setArray(1, connection.createArrayOf("uuid", toUuids(ids)));
+                    return statement;
+                },
+                resultSet -> {
+                    deletedIds.add(TaskId.of(resultSet.getObject("id", UUID.class)));
+                    deletedStatuses.add(resultSet.getString("status"));
+                });
+        return deletedIds;
     }
 
+    /**
+     * This method changes status of tasks selected by filter in data base.
+     * Selected rows are locked by subquery, so one call holds locks on at most limit rows.
+     * If task table has less than limit such tasks, archived ones are moved back to task table with new status
+     * in the same transaction.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    @Transactional
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(status);
+        arguments.add(Timestamp.from(Instant.now()));
+        arguments.add(status);
+        String condition = getFilterCondition(filter, arguments);
+        arguments.add(limit);
+
+        List<String> oldStatuses = jdbcOperations.query(
+                "UPDATE task SET status = ?, updatedAt = ? FROM task old " +
+                        "WHERE task.id = old.id AND task.id IN (" +
+                        "SELECT id FROM task WHERE status <> ?" + condition + " LIMIT ? FOR UPDATE) " +
+                        "RETURNING old.status",
+                (resultSet, i) -> resultSet.getString(1),
+                arguments.toArray());
+        if (oldStatuses.size() < limit && !ARCHIVED_STATUS.equals(status)) {
+            oldStatuses.addAll(restoreTasksByFilter(filter, status, limit - oldStatuses.size()));
+        }
+        afterCommit(() -> {
+            for (String oldStatus : oldStatuses) {
+                taskCounters.move(oldStatus, status);
+            }
+        });
+
+        return oldStatuses.size();
+    }
+
+    private List<String> restoreTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(status);
+        String condition = getFilterCondition(filter, arguments);
+        arguments.add(limit);
+        arguments.add(status);
+        arguments.add(Timestamp.from(Instant.now()));
+
+        return jdbcOperations.query(
+                "WITH restored AS (DELETE FROM task_archive WHERE id IN (" +
+                        "SELECT id FROM task_archive WHERE status <> ?" + condition + " LIMIT ? FOR UPDATE) " +
+                        "RETURNING id, text, status, createdAt), " +
+                        "inserted AS (INSERT INTO task (id, text, status, createdAt, updatedAt) " +
+                        "SELECT id, text, ?, createdAt, ? FROM restored) " +
+                        "SELECT status FROM restored",
+                (resultSet, i) -> resultSet.getString(1),
+                arguments.toArray());
+    }
+
+    /**
+     * This method removes tasks selected by filter from data base.
+     * Selected rows are locked by subquery, so one call holds locks on at most limit rows.
+     * If task table has less than limit such tasks, archived ones are removed too, in the same transaction.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    @Transactional
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        List<String> statuses = deleteTaskRowsByFilter("task", filter, limit);
+        if (statuses.size() < limit && (filter.getStatus() == null || ARCHIVED_STATUS.equals(filter.getStatus()))) {
+            statuses.addAll(deleteTaskRowsByFilter("task_archive", filter, limit - statuses.size()));
+        }
+        afterCommit(() -> {
+            for (String status : statuses) {
+                taskCounters.decrement(status);
+            }
+        });
+
+        return statuses.size();
+    }
+
+    private List<String> deleteTaskRowsByFilter(final String table, final TaskFilter filter, final int limit) {
+        List<Object> arguments = new ArrayList<>();
+        String condition = getFilterCondition(filter, arguments);
+        arguments.add(limit);
+
+        return jdbcOperations.query(
+                "DELETE FROM " + table + " WHERE id IN (" +
+                        "SELECT id FROM " + table + " WHERE TRUE" + condition + " LIMIT ? FOR UPDATE) " +
+                        "RETURNING status",
+                (resultSet, i) -> resultSet.getString(1),
+                arguments.toArray());
+    }
+
+    /**
+     * Moves archived tasks back to task table before they are changed.
+     * updatedAt is set to now, so TaskArchiver does not take them again before the change is made.
+     */
+    private int restoreTasks(final Collection<TaskId> ids) {
+        return jdbcOperations.update(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "WITH restored AS (DELETE FROM task_archive WHERE id = ANY(?) " +
+                                    "RETURNING id, text, status, createdAt) " +
+                                    "INSERT INTO task (id, text, status, createdAt, updatedAt) " +
+                                    "SELECT id, text, status, createdAt, ? FROM restored");
+                    statement.setArray(1, connection.createArrayOf("uuid", toUuids(ids)));
+                    statement.setTimestamp(2, Timestamp.from(Instant.now()));
+                    return statement;
+                });
+    }
+
+    /**
+     * Runs change of in-process counters after the current transaction commits, at once if there is none,
+     * so counters never count changes that were rolled back.
+     */
+    private void afterCommit(final Runnable counterChange) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counterChange.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                counterChange.run();
+            }
+        });
+    }
+
+    /**
+     * Tasks of archived status may be in task_archive table, so they are read through task_all view.
+     */
+    private String getTaskTable(final String status) {
+        return status == null || ARCHIVED_STATUS.equals(status) ? "task_all" : "task";
+    }
+
+    private Object[] toUuids(final Collection<TaskId> ids) {
+        Object[] uuids = new Object[ids.size()];
+        int index = 0;
+        for (TaskId id : ids) {
+            uuids[index++] = id.toUuid();
+        }
+        return uuids;
+    }
+
+    private String getFilterCondition(final TaskFilter filter, final List<Object> arguments) {
+        StringBuilder condition = new StringBuilder();
+        if (filter.getStatus() != null) {
+            condition.append(" AND status = ?");
+            arguments.add(filter.getStatus());
+        }
+        if (filter.getCreatedAfter() != null) {
+            condition.append(" AND createdAt > ?");
+            arguments.add(Timestamp.from(filter.getCreatedAfter()));
+        }
+        if (filter.getCreatedBefore() != null) {
+            condition.append(" AND createdAt < ?");
+            arguments.add(Timestamp.from(filter.getCreatedBefore()));
+        }
+        if (filter.getUpdatedAfter() != null) {
+            condition.append(" AND updatedAt > ?");
+            arguments.add(Timestamp.from(filter.getUpdatedAfter()));
+        }
+        if (filter.getUpdatedBefore() != null) {
+            condition.append(" AND updatedAt < ?");
+            arguments.add(Timestamp.from(filter.getUpdatedBefore()));
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Total count is taken from in-process counters, so list requests do not scan the table.
+     * Counters are loaded and corrected by TaskCountsReconciler.
+     */
     private int getTotalTaskCount(final String status) {
-        return Optional.ofNullable(jdbcOperations.queryForObject(
-                "SELECT COUNT(*) FROM task WHERE status = ?",
-                Integer.class,
-                status
-        )).orElse(0);
+        return (int) taskCounters.get(status);
     }
 }
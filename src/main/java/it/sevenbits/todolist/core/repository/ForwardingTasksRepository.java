@@ -0,0 +1,116 @@
+package it.sevenbits.todolist.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Base class of repository decorators: every method is passed to the wrapped repository.
+ * Decorators override only the methods they change.
+ */
+public abstract class ForwardingTasksRepository implements ITasksRepository {
+    private final ITasksRepository delegate;
+
+    /**
+     * Constructor of ForwardingTasksRepository class.
+     *
+     * @param delegate Wrapped repository.
+     */
+    protected ForwardingTasksRepository(final ITasksRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Method that returns wrapped repository.
+     *
+     * @return Wrapped repository.
+     */
+    protected ITasksRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        return delegate.addTask(addTaskRequest);
+    }
+
+    @Override
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        return delegate.addTasks(addTaskRequests);
+    }
+
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        return delegate.importTasks(tasks);
+    }
+
+    @Override
+    public JsonNode getAllTasks(final String status,
+                                final String order,
+                                final Short page,
+                                final Short size,
+                                final TaskCursor cursor) {
+        return delegate.getAllTasks(status, order, page, size, cursor);
+    }
+
+    @Override
+    public Task getTaskByID(final TaskId id) {
+        return delegate.getTaskByID(id);
+    }
+
+    @Override
+    public List<Task> searchTasks(final List<String> queryTerms, final String status,
+                                  final int offset, final int limit) {
+        return delegate.searchTasks(queryTerms, status, offset, limit);
+    }
+
+    @Override
+    public long exportTasks(final String status, final Consumer<Task> taskConsumer) {
+        return delegate.exportTasks(status, taskConsumer);
+    }
+
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        return delegate.getTasksByIDs(ids);
+    }
+
+    @Override
+    public Task deleteTask(final TaskId id) {
+        return delegate.deleteTask(id);
+    }
+
+    @Override
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        return delegate.patchTask(id, text, status);
+    }
+
+    @Override
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        return delegate.updateTasks(patches);
+    }
+
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        return delegate.deleteTasks(ids);
+    }
+
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        return delegate.updateTasksByFilter(filter, status, limit);
+    }
+
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        return delegate.deleteTasksByFilter(filter, limit);
+    }
+}
@@ -0,0 +1,36 @@
+package it.sevenbits.todolist.core.repository;
+
+import it.sevenbits.todolist.core.groupcommit.GroupCommitWriter;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+
+/**
+ * Repository decorator that adds single tasks through group commit.
+ * Other methods go straight to the wrapped repository.
+ */
+public class GroupCommitTasksRepository extends ForwardingTasksRepository {
+    private final GroupCommitWriter groupCommitWriter;
+
+    /**
+     * Constructor of GroupCommitTasksRepository class.
+     *
+     * @param delegate Wrapped repository.
+     * @param groupCommitWriter Writer of insert groups, it writes to the wrapped repository.
+     */
+    public GroupCommitTasksRepository(final ITasksRepository delegate,
+                                      final GroupCommitWriter groupCommitWriter) {
+        super(delegate);
+        this.groupCommitWriter = groupCommitWriter;
+    }
+
+    /**
+     * This method adds a new task and returns once the group it was written in is committed.
+     *
+     * @param addTaskRequest "Task" model
+     * @return new "Task" model.
+     */
+    @Override
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        return groupCommitWriter.addTask(addTaskRequest);
+    }
+}
@@ -1,29 +1,84 @@
 package it.sevenbits.todolist.core.repository;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.counter.TaskCounters;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
 import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.core.persistence.ITaskChangeLog;
+import it.sevenbits.todolist.core.search.TaskTextIndex;
 import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
- * Task ITasksRepository implementation.
+ * Task ITasksRepository implementation that keeps tasks in process memory.
+ * Tasks are stored in a concurrent map by id. Every status has an ordered index of its tasks,
+ * a skip list sorted by (createdAt, id) like the data base index, so list pages are taken without sorting.
+ * Every change of a task is made inside compute of its map entry, so changes of one task are serialized,
+ * and the entry is the source of truth: index entries are checked against it when they are read.
+ * If a change log is passed (TaskJournal, or WriteBehindQueue that writes to the data base), every change is
+ * logged inside the compute, so log order of changes of one task is the order they were applied in,
+ * and tasks are recovered from the log when repository is created.
  */
 public class HashMapTasksRepository implements ITasksRepository {
-    private Map<String, Task> taskMap;
+    private static final Comparator<Task> TASK_ORDER = Comparator.comparing(Task::getCreatedAt)
+            .thenComparing(Task::getId);
+
+    private final ConcurrentMap<TaskId, Task> taskMap;
+    private final ConcurrentMap<String, NavigableSet<Task>> statusIndexes;
+    private final TaskCounters taskCounters;
+    private final TaskTextIndex textIndex;
+    private final TasksPageBuilder tasksPageBuilder;
+    private final ITaskIdGenerator taskIdGenerator;
+    private final ITaskChangeLog journal;
 
     /**
-     * Constructor of HashMapTasksRepository class.
+     * Constructor of HashMapTasksRepository class. Tasks are not persisted.
+     *
+     * @param taskIdGenerator Generator of ids for new tasks.
+     */
+    public HashMapTasksRepository(final ITaskIdGenerator taskIdGenerator) {
+        this(taskIdGenerator, null);
+    }
+
+    /**
+     * Constructor of HashMapTasksRepository class. Tasks are recovered from the change log.
+     *
+     * @param taskIdGenerator Generator of ids for new tasks.
+     * @param journal Log changes are passed to, or null if tasks are not persisted.
      */
-    public HashMapTasksRepository() {
-        taskMap = new HashMap<>();
+    public HashMapTasksRepository(final ITaskIdGenerator taskIdGenerator, final ITaskChangeLog journal) {
+        this.taskIdGenerator = taskIdGenerator;
+        this.journal = journal;
+        taskMap = new ConcurrentHashMap<>();
+        statusIndexes = new ConcurrentHashMap<>();
+        taskCounters = new TaskCounters();
+        textIndex = new TaskTextIndex();
+        tasksPageBuilder = new TasksPageBuilder();
+
+        if (journal != null) {
+            journal.recover(this::restoreTask, this::restoreDeletion);
+        }
     }
 
     /**
@@ -34,34 +89,105 @@ public class HashMapTasksRepository implements ITasksRepository {
      */
     @Override
     public Task addTask(final AddTaskRequest addTaskRequest) {
-        UUID taskID = UUID.randomUUID();
+        TaskId taskID = taskIdGenerator.nextId();
         String taskStatus = "inbox";
-        Date dateNow = new Date();
-        SimpleDateFormat formatForDateNow = new SimpleDateFormat(
-                "yyyy-MM-dd'T'H:mm:ss+00:00");
-
-        String createdAt = formatForDateNow.format(dateNow);
-        String updatedAt = "-----";
+        Instant createdAt = Instant.now();
 
-        Task task = new Task(taskID.toString(),
+        Task task = new Task(taskID,
                 addTaskRequest.getText(),
                 taskStatus,
                 createdAt,
-                updatedAt);
-        taskMap.put(taskID.toString(), task);
-        return task;
+                createdAt);
+        return change(() -> {
+            taskMap.computeIfAbsent(taskID, taskId -> {
+                logPut(task);
+                indexTask(task);
+                return task;
+            });
+            return task;
+        });
     }
 
     /**
-     * This method returns all the objects from "Task" repository.
+     * This method adds several new "Task" models to repository at once.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    @Override
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        return change(() -> {
+            List<Task> tasks = new ArrayList<>(addTaskRequests.size());
+            for (AddTaskRequest addTaskRequest : addTaskRequests) {
+                tasks.add(addTask(addTaskRequest));
+            }
+            return tasks;
+        });
+    }
+
+    /**
+     * This method returns a page of tasks with passed status from the status index.
+     * If cursor is passed, page is taken from the cursor position found in O(log n),
+     * otherwise tasks of previous pages are skipped.
+     *
      * @return "Task" list.
      */
     @Override
     public JsonNode getAllTasks(final String status,
                                 final String order,
                                 final Short page,
-                                final Short size) {
-        return null;
+                                final Short size,
+                                final TaskCursor cursor) {
+
+        final String statusToUse = Optional.ofNullable(status)
+                .orElse("inbox");
+        final String orderToUse = Optional.ofNullable(order)
+                .orElse("desc");
+        final short pageToUse = Optional.ofNullable(page)
+                .orElse((short) 1);
+        final short sizeToUse = Optional.ofNullable(size)
+                .orElse((short) 25);
+        final int totalTasksCount = (int) taskCounters.get(statusToUse);
+
+        if (cursor != null) {
+            boolean ascending = "asc".equals(orderToUse) != cursor.isBackward();
+            NavigableSet<Task> tasks = getStatusIndex(statusToUse, ascending);
+            if (cursor.hasPosition()) {
+                Task position = new Task(cursor.getId(), "", statusToUse, cursor.getCreatedAt(), cursor.getCreatedAt());
+                tasks = tasks.tailSet(position, false);
+            }
+            return tasksPageBuilder.buildCursorPage(statusToUse, orderToUse, sizeToUse, cursor,
+                    takeTasks(tasks, statusToUse, 0, sizeToUse + 1), totalTasksCount);
+        }
+
+        List<Task> tasks = takeTasks(getStatusIndex(statusToUse, "asc".equals(orderToUse)),
+                statusToUse, sizeToUse * (pageToUse - 1), sizeToUse);
+        return tasksPageBuilder.buildNumberedPage(status, order, size, pageToUse, sizeToUse, totalTasksCount, tasks);
+    }
+
+    /**
+     * Takes current versions of indexed tasks that still have the status.
+     * Task being moved to another status may be in both indexes for a moment, it is skipped in the old one.
+     */
+    private List<Task> takeTasks(final Collection<Task> indexedTasks, final String status,
+                                 final int offset, final int limit) {
+        List<Task> tasks = new ArrayList<>();
+        int skipped = 0;
+        for (Task indexedTask : indexedTasks) {
+            if (tasks.size() == limit) {
+                break;
+            }
+            Task task = taskMap.get(indexedTask.getId());
+            if (task == null || !status.equals(task.getStatus())) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                tasks.add(task);
+            }
+        }
+        return tasks;
     }
 
     /**
@@ -71,31 +197,344 @@ public class HashMapTasksRepository implements ITasksRepository {
      * @return "Task" model.
      */
     @Override
-    public Task getTaskByID(final String id) {
+    public Task getTaskByID(final TaskId id) {
         return taskMap.get(id);
     }
 
+    /**
+     * This method returns "Task" models from repository taken by list of IDs.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (TaskId id : ids) {
+            Task task = taskMap.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * This method adds "Task" models to repository as they are taken from iterator.
+     *
+     * @param tasks "Task" models.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        long imported = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            boolean isAdded = change(() -> {
+                boolean[] isInserted = new boolean[1];
+                taskMap.computeIfAbsent(task.getId(), taskId -> {
+                    logPut(task);
+                    indexTask(task);
+                    isInserted[0] = true;
+                    return task;
+                });
+                return isInserted[0];
+            });
+            if (isAdded) {
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * This method finds "Task" models by the in-memory text index.
+     * Rank of a task is the number of words of its text that match query terms.
+     *
+     * @param queryTerms Search terms made by SearchTerms.
+     * @param status Status of tasks to find, null for all statuses.
+     * @param offset Number of found tasks to skip.
+     * @param limit Maximal number of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> searchTasks(final List<String> queryTerms, final String status,
+                                  final int offset, final int limit) {
+        Map<Task, Integer> ranks = new HashMap<>();
+        for (TaskId id : textIndex.find(queryTerms)) {
+            Task task = taskMap.get(id);
+            if (task != null && (status == null || status.equals(task.getStatus()))) {
+                int rank = TaskTextIndex.rank(task.getText(), queryTerms);
+                if (rank > 0) {
+                    ranks.put(task, rank);
+                }
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>(ranks.keySet());
+        tasks.sort(Comparator.comparing((Task task) -> ranks.get(task))
+                .thenComparing(Task::getCreatedAt)
+                .thenComparing(Task::getId)
+                .reversed());
+        if (offset >= tasks.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(tasks.subList(offset, Math.min(tasks.size(), offset + limit)));
+    }
+
+    /**
+     * This method passes every "Task" model with given status to consumer one by one.
+     *
+     * @param status Status of tasks to export, null for all statuses.
+     * @param taskConsumer Consumer of tasks.
+     * @return Number of exported tasks.
+     */
+    @Override
+    public long exportTasks(final String status, final Consumer<Task> taskConsumer) {
+        long exported = 0;
+        for (Task task : getTasks(status)) {
+            taskConsumer.accept(task);
+            exported++;
+        }
+        return exported;
+    }
+
     /**
      * This method removes a "Task" model from repository by ID.
      *
      * @param id String parameter
-     * @return deleted "Task" model
+     * @return deleted "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task deleteTask(final TaskId id) {
+        return change(() -> {
+            Task[] deletedTask = new Task[1];
+            taskMap.computeIfPresent(id, (taskId, task) -> {
+                logDelete(taskId);
+                unindexTask(task);
+                deletedTask[0] = task;
+                return null;
+            });
+            return deletedTask[0];
+        });
+    }
+
+    /**
+     * This method updates text and/or status of a "Task" model in repository by ID.
+     * The task is replaced atomically, so concurrent patches do not overwrite each other,
+     * and it is moved to the index of its new status in the same step.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
      */
     @Override
-    public Task deleteTask(final String id) {
-        return taskMap.remove(id);
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        return change(() -> taskMap.computeIfPresent(id, (taskId, task) -> {
+            Task updatedTask = new Task(taskId,
+                    Optional.ofNullable(text).orElse(task.getText()),
+                    Optional.ofNullable(status).orElse(task.getStatus()),
+                    task.getCreatedAt(),
+                    Instant.now());
+            logPut(updatedTask);
+            reindexTask(task, updatedTask);
+            return updatedTask;
+        }));
     }
 
     /**
-     /**
-     * This method replaces a "Task" model from repository by ID.
+     * This method updates several "Task" models in repository.
      *
-     * @param id String parameter for define a "Task" model we wanna to replace.
-     * @param newTask new "Task" model
-     * @return deleted "Task" model.
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
      */
     @Override
-    public Task updateTask(final String id, final Task newTask) {
-        return taskMap.replace(id, newTask);
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        return change(() -> {
+            List<TaskId> updatedIds = new ArrayList<>();
+            for (Map.Entry<TaskId, UpdateTaskRequest> patch : patches.entrySet()) {
+                if (patchTask(patch.getKey(), patch.getValue().getText(), patch.getValue().getStatus()) != null) {
+                    updatedIds.add(patch.getKey());
+                }
+            }
+            return updatedIds;
+        });
+    }
+
+    /**
+     * This method removes several "Task" models from repository.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        return change(() -> {
+            List<TaskId> deletedIds = new ArrayList<>();
+            for (TaskId id : ids) {
+                if (deleteTask(id) != null) {
+                    deletedIds.add(id);
+                }
+            }
+            return deletedIds;
+        });
+    }
+
+    /**
+     * This method changes status of tasks selected by filter.
+     * If filter has a status, only the index of that status is scanned.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        return change(() -> {
+            int updatedCount = 0;
+            for (Task candidate : getTasks(filter.getStatus())) {
+                if (updatedCount == limit) {
+                    break;
+                }
+                boolean[] isUpdated = new boolean[1];
+                taskMap.computeIfPresent(candidate.getId(), (taskId, task) -> {
+                    if (!filter.matches(task) || status.equals(task.getStatus())) {
+                        return task;
+                    }
+                    isUpdated[0] = true;
+                    Task updatedTask = new Task(taskId, task.getText(), status, task.getCreatedAt(), Instant.now());
+                    logPut(updatedTask);
+                    reindexTask(task, updatedTask);
+                    return updatedTask;
+                });
+                if (isUpdated[0]) {
+                    updatedCount++;
+                }
+            }
+            return updatedCount;
+        });
+    }
+
+    /**
+     * This method removes tasks selected by filter.
+     * If filter has a status, only the index of that status is scanned.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        List<TaskId> ids = new ArrayList<>();
+        for (Task task : getTasks(filter.getStatus())) {
+            if (ids.size() == limit) {
+                break;
+            }
+            if (filter.matches(task)) {
+                ids.add(task.getId());
+            }
+        }
+        return deleteTasks(ids).size();
+    }
+
+    /**
+     * This method writes snapshot of all tasks to the change log, so the log before it can be removed.
+     * It does nothing if tasks are not persisted.
+     */
+    @Scheduled(initialDelayString = "${tasks.persistence.snapshot-interval:600000}",
+            fixedDelayString = "${tasks.persistence.snapshot-interval:600000}")
+    public void snapshot() {
+        if (journal != null) {
+            journal.snapshot(taskMap.values());
+        }
+    }
+
+    private <T> T change(final Supplier<T> change) {
+        return journal == null ? change.get() : journal.change(change);
+    }
+
+    private void logPut(final Task task) {
+        if (journal != null) {
+            journal.logPut(task);
+        }
+    }
+
+    private void logDelete(final TaskId id) {
+        if (journal != null) {
+            journal.logDelete(id);
+        }
+    }
+
+    /**
+     * Applies recovered state of a task.
+     */
+    private void restoreTask(final Task task) {
+        taskMap.compute(task.getId(), (taskId, oldTask) -> {
+            if (oldTask != null) {
+                unindexTask(oldTask);
+            }
+            indexTask(task);
+            return task;
+        });
+    }
+
+    /**
+     * Applies recovered removal of a task.
+     */
+    private void restoreDeletion(final TaskId id) {
+        taskMap.computeIfPresent(id, (taskId, task) -> {
+            unindexTask(task);
+            return null;
+        });
+    }
+
+    /**
+     * Returns tasks with passed status, all tasks if status is null.
+     * Tasks of one status are taken from its index, so they are not filtered out of the whole map.
+     */
+    private Collection<Task> getTasks(final String status) {
+        if (status == null) {
+            return taskMap.values();
+        }
+        return takeTasks(getStatusIndex(status, true), status, 0, Integer.MAX_VALUE);
+    }
+
+    private NavigableSet<Task> getStatusIndex(final String status, final boolean ascending) {
+        NavigableSet<Task> statusIndex = statusIndexes.computeIfAbsent(status,
+                indexStatus -> new ConcurrentSkipListSet<>(TASK_ORDER));
+        return ascending ? statusIndex : statusIndex.descendingSet();
+    }
+
+    /**
+     * Adds task to indexes. Must be called inside compute of the task entry.
+     */
+    private void indexTask(final Task task) {
+        textIndex.add(task);
+        getStatusIndex(task.getStatus(), true).add(task);
+        taskCounters.increment(task.getStatus());
+    }
+
+    /**
+     * Removes task from indexes. Must be called inside compute of the task entry.
+     */
+    private void unindexTask(final Task task) {
+        getStatusIndex(task.getStatus(), true).remove(task);
+        textIndex.remove(task);
+        taskCounters.decrement(task.getStatus());
+    }
+
+    /**
+     * Moves task to the index of its new status. Must be called inside compute of the task entry.
+     * Task is added to the new index before it is removed from the old one, so lists never miss it.
+     */
+    private void reindexTask(final Task task, final Task updatedTask) {
+        textIndex.replace(task, updatedTask);
+        if (!task.getStatus().equals(updatedTask.getStatus())) {
+            getStatusIndex(updatedTask.getStatus(), true).add(updatedTask);
+            getStatusIndex(task.getStatus(), true).remove(task);
+            taskCounters.move(task.getStatus(), updatedTask.getStatus());
+        }
     }
 }
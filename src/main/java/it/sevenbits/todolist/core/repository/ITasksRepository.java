@@ -1,10 +1,18 @@
 package it.sevenbits.todolist.core.repository;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
 import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
 import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Interface that describes functionality for "task" model repository.
@@ -18,14 +26,33 @@ public interface ITasksRepository {
      */
     Task addTask(final AddTaskRequest addTaskRequest);
 
+    /**
+     * This method adds several new "Task" models to repository at once.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    List<Task> addTasks(final List<AddTaskRequest> addTaskRequests);
+
+    /**
+     * This method adds "Task" models to repository as they are taken from iterator.
+     * Tasks with ids that are already in repository are skipped.
+     *
+     * @param tasks "Task" models, they may be read lazily.
+     * @return Number of added tasks.
+     */
+    long importTasks(final Iterator<Task> tasks);
+
     /**
      * This method returns all the objects from "Task" repository.
+     * If cursor is not null, page is taken by keyset pagination and page number is ignored.
      * @return "Task" list.
      */
     JsonNode getAllTasks(final String status,
                          final String order,
                          final Short page,
-                         final Short size);
+                         final Short size,
+                         final TaskCursor cursor);
 
     /**
      * This method returns a "Task" model from repository taken by ID.
@@ -33,23 +60,93 @@ public interface ITasksRepository {
      * @param id String parameter.
      * @return "Task" model.
      */
-    Task getTaskByID(final String id);
+    Task getTaskByID(final TaskId id);
+
+    /**
+     * This method finds "Task" models whose text has a word starting with each of query terms.
+     * Tasks are ordered by rank, most relevant first, then from newest to oldest.
+     *
+     * @param queryTerms Search terms made by SearchTerms.
+     * @param status Status of tasks to find, null for all statuses.
+     * @param offset Number of found tasks to skip.
+     * @param limit Maximal number of tasks to return.
+     * @return Found "Task" models.
+     */
+    List<Task> searchTasks(final List<String> queryTerms, final String status, final int offset, final int limit);
+
+    /**
+     * This method passes every "Task" model with given status to consumer one by one,
+     * without holding all of them in memory. Order of tasks is not defined.
+     *
+     * @param status Status of tasks to export, null for all statuses.
+     * @param taskConsumer Consumer of tasks.
+     * @return Number of exported tasks.
+     */
+    long exportTasks(final String status, final Consumer<Task> taskConsumer);
+
+    /**
+     * This method returns "Task" models from repository taken by list of IDs.
+     * Missing ids are skipped, order of returned tasks is not defined.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    List<Task> getTasksByIDs(final Collection<TaskId> ids);
 
     /**
      * This method removes a "Task" model from repository taken by ID.
+     * Lookup and removal are done atomically.
      *
      * @param id String parameter
-     * @return deleted "Task" model
+     * @return deleted "Task" model or null if there is no such task.
      */
-    Task deleteTask(final String id);
+    Task deleteTask(final TaskId id);
 
     /**
-     /**
-     * This method removes a "Task" model from repository taken by ID.
+     * This method updates text and/or status of a "Task" model taken by ID.
+     * Lookup and update are done atomically.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
+     */
+    Task patchTask(final TaskId id, final String text, final String status);
+
+    /**
+     * This method updates several "Task" models at once.
+     * Null text or status of a patch leaves the field unchanged.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches);
+
+    /**
+     * This method removes several "Task" models at once.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    List<TaskId> deleteTasks(final Collection<TaskId> ids);
+
+    /**
+     * This method changes status of tasks selected by filter.
+     * Only tasks that have another status are updated, at most limit tasks per call.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    int updateTasksByFilter(final TaskFilter filter, final String status, final int limit);
+
+    /**
+     * This method removes tasks selected by filter, at most limit tasks per call.
      *
-     * @param id String parameter for define a "Task" model we wanna to replace.
-     * @param newTask new "Task" model
-     * @return deleted "Task" model.
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
      */
-    Task updateTask(final String id, final Task newTask);
+    int deleteTasksByFilter(final TaskFilter filter, final int limit);
 }
@@ -0,0 +1,516 @@
+package it.sevenbits.todolist.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.counter.TaskCounters;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.offheap.OffHeapTaskStore;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.core.search.TaskTextIndex;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Task ITasksRepository implementation that keeps tasks in OffHeapTaskStore:
+ * primitive columns on heap and texts in direct memory, with no object per task.
+ * "Task" objects are made only for tasks that are returned.
+ * A page of a list is found by binary search in rows of its status, searches read texts of rows of the status.
+ * Store is guarded by read-write lock: reads run concurrently, changes one at a time.
+ */
+public class OffHeapTasksRepository implements ITasksRepository, IMetricsSource {
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+
+    private final OffHeapTaskStore store;
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final TaskCounters taskCounters;
+    private final TasksPageBuilder tasksPageBuilder;
+    private final ITaskIdGenerator taskIdGenerator;
+
+    /**
+     * Constructor of OffHeapTasksRepository class.
+     *
+     * @param taskIdGenerator Generator of ids for new tasks.
+     */
+    public OffHeapTasksRepository(final ITaskIdGenerator taskIdGenerator) {
+        this.taskIdGenerator = taskIdGenerator;
+        store = new OffHeapTaskStore();
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+        taskCounters = new TaskCounters();
+        tasksPageBuilder = new TasksPageBuilder();
+    }
+
+    /**
+     * This method adds a new "Task" model to the store.
+     *
+     * @param addTaskRequest "Task" model
+     * @return new "Task" model.
+     */
+    @Override
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        writeLock.lock();
+        try {
+            return insertTask(addTaskRequest);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method adds several new "Task" models to the store at once.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    @Override
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        List<Task> tasks = new ArrayList<>(addTaskRequests.size());
+        writeLock.lock();
+        try {
+            for (AddTaskRequest addTaskRequest : addTaskRequests) {
+                tasks.add(insertTask(addTaskRequest));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return tasks;
+    }
+
+    private Task insertTask(final AddTaskRequest addTaskRequest) {
+        Instant createdAt = Instant.now();
+        Task task = store.read(store.insert(new Task(taskIdGenerator.nextId(),
+                addTaskRequest.getText(),
+                "inbox",
+                createdAt,
+                createdAt)));
+        taskCounters.increment(task.getStatus());
+        return task;
+    }
+
+    /**
+     * This method returns a page of tasks with passed status.
+     * Rows of the page are found in rows of the status kept in list order, other rows are not read.
+     *
+     * @return "Task" list.
+     */
+    @Override
+    public JsonNode getAllTasks(final String status,
+                                final String order,
+                                final Short page,
+                                final Short size,
+                                final TaskCursor cursor) {
+
+        final String statusToUse = Optional.ofNullable(status)
+                .orElse("inbox");
+        final String orderToUse = Optional.ofNullable(order)
+                .orElse("desc");
+        final short pageToUse = Optional.ofNullable(page)
+                .orElse((short) 1);
+        final short sizeToUse = Optional.ofNullable(size)
+                .orElse((short) 25);
+        final int totalTasksCount = (int) taskCounters.get(statusToUse);
+
+        if (cursor != null) {
+            boolean ascending = "asc".equals(orderToUse) != cursor.isBackward();
+            List<Task> tasks = selectTasks(statusToUse, ascending, cursor, 0, sizeToUse + 1);
+            return tasksPageBuilder.buildCursorPage(statusToUse, orderToUse, sizeToUse, cursor, tasks, totalTasksCount);
+        }
+
+        List<Task> tasks = selectTasks(statusToUse, "asc".equals(orderToUse), null,
+                sizeToUse * (pageToUse - 1), sizeToUse);
+        return tasksPageBuilder.buildNumberedPage(status, order, size, pageToUse, sizeToUse, totalTasksCount, tasks);
+    }
+
+    private List<Task> selectTasks(final String status, final boolean ascending, final TaskCursor cursor,
+                                   final int offset, final int limit) {
+        readLock.lock();
+        try {
+            byte statusCode = store.findStatusCode(status);
+            if (statusCode == OffHeapTaskStore.FREE) {
+                return Collections.emptyList();
+            }
+            boolean hasPosition = cursor != null && cursor.hasPosition();
+            int[] rows = store.selectRows(statusCode, ascending,
+                    hasPosition ? OffHeapTaskStore.toMicros(cursor.getCreatedAt()) : 0,
+                    hasPosition ? cursor.getId() : null,
+                    offset, limit);
+            List<Task> tasks = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                tasks.add(store.read(row));
+            }
+            return tasks;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * This method returns a "Task" model taken by ID.
+     *
+     * @param id String parameter.
+     * @return "Task" model.
+     */
+    @Override
+    public Task getTaskByID(final TaskId id) {
+        readLock.lock();
+        try {
+            int row = store.find(id);
+            return row < 0 ? null : store.read(row);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * This method returns "Task" models taken by list of IDs.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        readLock.lock();
+        try {
+            for (TaskId id : ids) {
+                int row = store.find(id);
+                if (row >= 0) {
+                    tasks.add(store.read(row));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return tasks;
+    }
+
+    /**
+     * This method adds "Task" models to the store as they are taken from iterator.
+     * Lock is taken per task, so reading of the input does not block other requests.
+     *
+     * @param tasks "Task" models.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        long imported = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writeLock.lock();
+            try {
+                if (store.insert(task) >= 0) {
+                    taskCounters.increment(task.getStatus());
+                    imported++;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * This method finds "Task" models by scanning texts of tasks with passed status.
+     * With status only rows of the status are read, without it all rows are.
+     * Rank of a task is the number of words of its text that match query terms.
+     *
+     * @param queryTerms Search terms made by SearchTerms.
+     * @param status Status of tasks to find, null for all statuses.
+     * @param offset Number of found tasks to skip.
+     * @param limit Maximal number of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> searchTasks(final List<String> queryTerms, final String status,
+                                  final int offset, final int limit) {
+        Map<Task, Integer> ranks = new HashMap<>();
+        readLock.lock();
+        try {
+            IntConsumer rankRow = row -> {
+                int rank = TaskTextIndex.rank(store.readText(row), queryTerms);
+                if (rank > 0) {
+                    ranks.put(store.read(row), rank);
+                }
+            };
+            if (status != null) {
+                byte statusCode = store.findStatusCode(status);
+                if (statusCode == OffHeapTaskStore.FREE) {
+                    return Collections.emptyList();
+                }
+                store.forEachRow(statusCode, rankRow);
+            } else {
+                for (int row = 0; row < store.getRowLimit(); row++) {
+                    if (store.getStatusCode(row) != OffHeapTaskStore.FREE) {
+                        rankRow.accept(row);
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        List<Task> tasks = new ArrayList<>(ranks.keySet());
+        tasks.sort(Comparator.comparing((Task task) -> ranks.get(task))
+                .thenComparing(Task::getCreatedAt)
+                .thenComparing(Task::getId)
+                .reversed());
+        if (offset >= tasks.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(tasks.subList(offset, Math.min(tasks.size(), offset + limit)));
+    }
+
+    /**
+     * This method passes every "Task" model with given status to consumer one by one.
+     * Rows are read in chunks of EXPORT_CHUNK_SIZE under read lock, consumer is called without lock.
+     *
+     * @param status Status of tasks to export, null for all statuses.
+     * @param taskConsumer Consumer of tasks.
+     * @return Number of exported tasks.
+     */
+    @Override
+    public long exportTasks(final String status, final Consumer<Task> taskConsumer) {
+        long exported = 0;
+        List<Task> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        for (int fromRow = 0; ; fromRow += EXPORT_CHUNK_SIZE) {
+            readLock.lock();
+            try {
+                if (fromRow >= store.getRowLimit()) {
+                    break;
+                }
+                int toRow = Math.min(fromRow + EXPORT_CHUNK_SIZE, store.getRowLimit());
+                for (int row = fromRow; row < toRow; row++) {
+                    if (store.getStatusCode(row) != OffHeapTaskStore.FREE
+                            && (status == null || status.equals(store.getStatus(row)))) {
+                        chunk.add(store.read(row));
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+            for (Task task : chunk) {
+                taskConsumer.accept(task);
+            }
+            exported += chunk.size();
+            chunk.clear();
+        }
+        return exported;
+    }
+
+    /**
+     * This method removes a "Task" model by ID.
+     *
+     * @param id String parameter
+     * @return deleted "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task deleteTask(final TaskId id) {
+        writeLock.lock();
+        try {
+            return removeTask(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Task removeTask(final TaskId id) {
+        int row = store.find(id);
+        if (row < 0) {
+            return null;
+        }
+        Task task = store.read(row);
+        store.delete(row);
+        taskCounters.decrement(task.getStatus());
+        return task;
+    }
+
+    /**
+     * This method updates text and/or status of a "Task" model by ID.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        writeLock.lock();
+        try {
+            int row = store.find(id);
+            if (row < 0) {
+                return null;
+            }
+            updateRow(row, text, status);
+            return store.read(row);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void updateRow(final int row, final String text, final String status) {
+        String oldStatus = store.getStatus(row);
+        store.update(row, text, status, Instant.now());
+        if (status != null) {
+            taskCounters.move(oldStatus, status);
+        }
+    }
+
+    /**
+     * This method updates several "Task" models at once.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    @Override
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        List<TaskId> updatedIds = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (Map.Entry<TaskId, UpdateTaskRequest> patch : patches.entrySet()) {
+                int row = store.find(patch.getKey());
+                if (row >= 0) {
+                    updateRow(row, patch.getValue().getText(), patch.getValue().getStatus());
+                    updatedIds.add(patch.getKey());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return updatedIds;
+    }
+
+    /**
+     * This method removes several "Task" models at once.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        List<TaskId> deletedIds = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (TaskId id : ids) {
+                if (removeTask(id) != null) {
+                    deletedIds.add(id);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return deletedIds;
+    }
+
+    /**
+     * This method changes status of tasks selected by filter.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        int updatedCount = 0;
+        writeLock.lock();
+        try {
+            for (int row = 0; row < store.getRowLimit() && updatedCount < limit; row++) {
+                if (matches(filter, row) && !status.equals(store.getStatus(row))) {
+                    updateRow(row, null, status);
+                    updatedCount++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return updatedCount;
+    }
+
+    /**
+     * This method removes tasks selected by filter.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        int deletedCount = 0;
+        writeLock.lock();
+        try {
+            for (int row = 0; row < store.getRowLimit() && deletedCount < limit; row++) {
+                if (matches(filter, row)) {
+                    taskCounters.decrement(store.getStatus(row));
+                    store.delete(row);
+                    deletedCount++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Checks filter against row columns, so "Task" is not made for rows that do not match.
+     */
+    private boolean matches(final TaskFilter filter, final int row) {
+        byte statusCode = store.getStatusCode(row);
+        return statusCode != OffHeapTaskStore.FREE
+                && (filter.getStatus() == null || filter.getStatus().equals(store.getStatus(row)))
+                && (filter.getCreatedAfter() == null
+                        || store.getCreatedAt(row) > OffHeapTaskStore.toMicros(filter.getCreatedAfter()))
+                && (filter.getCreatedBefore() == null
+                        || store.getCreatedAt(row) < OffHeapTaskStore.toMicros(filter.getCreatedBefore()))
+                && (filter.getUpdatedAfter() == null
+                        || store.getUpdatedAt(row) > OffHeapTaskStore.toMicros(filter.getUpdatedAfter()))
+                && (filter.getUpdatedBefore() == null
+                        || store.getUpdatedAt(row) < OffHeapTaskStore.toMicros(filter.getUpdatedBefore()));
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "offHeapStore";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        readLock.lock();
+        try {
+            int size = store.size();
+            long heapBytes = store.getHeapBytes();
+            long directBytes = store.getDirectBytes();
+            metrics.put("tasks", size);
+            metrics.put("heapBytes", heapBytes);
+            metrics.put("directBytes", directBytes);
+            metrics.put("textBytes", store.getTextBytes());
+            metrics.put("bytesPerTask", size == 0 ? 0 : (heapBytes + directBytes) / size);
+        } finally {
+            readLock.unlock();
+        }
+        return metrics;
+    }
+}
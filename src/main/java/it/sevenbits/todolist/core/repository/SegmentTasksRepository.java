@@ -0,0 +1,578 @@
+package it.sevenbits.todolist.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.core.search.TaskTextIndex;
+import it.sevenbits.todolist.core.segment.SegmentTaskStore;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Task ITasksRepository implementation that keeps tasks in SegmentTaskStore:
+ * records in memory-mapped segment files and only id and status indexes on heap,
+ * so it holds more tasks than fit in the heap and keeps them across restarts.
+ * Lists are taken from ordered status indexes, searches and filters read texts from mapped pages.
+ * Store is guarded by read-write lock: reads run concurrently, changes one at a time.
+ * Compaction takes the lock for a chunk of records at a time, so changes are not stopped for a whole segment.
+ */
+public class SegmentTasksRepository implements ITasksRepository, IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentTasksRepository.class);
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final int COMPACTION_CHUNK_SIZE = 1000;
+
+    private final SegmentTaskStore store;
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final TasksPageBuilder tasksPageBuilder;
+    private final ITaskIdGenerator taskIdGenerator;
+    private final double compactionGarbageRatio;
+    private final long recoveryMillis;
+    private final long recoveredRecords;
+
+    /**
+     * Constructor of SegmentTasksRepository class. Store is opened and its indexes are built.
+     *
+     * @param taskIdGenerator Generator of ids for new tasks.
+     * @param store Store of tasks.
+     * @param compactionGarbageRatio Minimal share of segment space not taken by live records to compact it.
+     */
+    public SegmentTasksRepository(final ITaskIdGenerator taskIdGenerator, final SegmentTaskStore store,
+                                  final double compactionGarbageRatio) {
+        this.taskIdGenerator = taskIdGenerator;
+        this.store = store;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+        tasksPageBuilder = new TasksPageBuilder();
+
+        long startedAt = System.nanoTime();
+        recoveredRecords = store.open();
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        LOGGER.info("{} task records replayed from segments in {} ms, {} tasks loaded",
+                recoveredRecords, recoveryMillis, store.size());
+    }
+
+    /**
+     * This method adds a new "Task" model to the store.
+     *
+     * @param addTaskRequest "Task" model
+     * @return new "Task" model.
+     */
+    @Override
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        writeLock.lock();
+        try {
+            return insertTask(addTaskRequest);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method adds several new "Task" models to the store at once.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    @Override
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        List<Task> tasks = new ArrayList<>(addTaskRequests.size());
+        writeLock.lock();
+        try {
+            for (AddTaskRequest addTaskRequest : addTaskRequests) {
+                tasks.add(insertTask(addTaskRequest));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return tasks;
+    }
+
+    private Task insertTask(final AddTaskRequest addTaskRequest) {
+        Instant createdAt = Instant.now();
+        return store.read(store.put(new Task(taskIdGenerator.nextId(),
+                addTaskRequest.getText(),
+                "inbox",
+                createdAt,
+                createdAt)));
+    }
+
+    /**
+     * This method returns a page of tasks with passed status from the ordered status index.
+     * If cursor is passed, page is taken from the cursor position found in O(log n),
+     * otherwise tasks of previous pages are skipped.
+     *
+     * @return "Task" list.
+     */
+    @Override
+    public JsonNode getAllTasks(final String status,
+                                final String order,
+                                final Short page,
+                                final Short size,
+                                final TaskCursor cursor) {
+
+        final String statusToUse = Optional.ofNullable(status)
+                .orElse("inbox");
+        final String orderToUse = Optional.ofNullable(order)
+                .orElse("desc");
+        final short pageToUse = Optional.ofNullable(page)
+                .orElse((short) 1);
+        final short sizeToUse = Optional.ofNullable(size)
+                .orElse((short) 25);
+
+        if (cursor != null) {
+            boolean ascending = "asc".equals(orderToUse) != cursor.isBackward();
+            List<Task> tasks = new ArrayList<>();
+            int totalTasksCount = selectTasks(statusToUse, ascending, cursor, 0, sizeToUse + 1, tasks);
+            return tasksPageBuilder.buildCursorPage(statusToUse, orderToUse, sizeToUse, cursor, tasks, totalTasksCount);
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        int totalTasksCount = selectTasks(statusToUse, "asc".equals(orderToUse), null,
+                sizeToUse * (pageToUse - 1), sizeToUse, tasks);
+        return tasksPageBuilder.buildNumberedPage(status, order, size, pageToUse, sizeToUse, totalTasksCount, tasks);
+    }
+
+    /**
+     * Reads a page of tasks and count of tasks with the status under one read lock, so they agree.
+     */
+    private int selectTasks(final String status, final boolean ascending, final TaskCursor cursor,
+                            final int offset, final int limit, final List<Task> tasks) {
+        int[] skipped = new int[1];
+        readLock.lock();
+        try {
+            store.forEach(status, ascending, cursor, location -> {
+                if (skipped[0] < offset) {
+                    skipped[0]++;
+                    return true;
+                }
+                tasks.add(store.read(location));
+                return tasks.size() < limit;
+            });
+            return store.count(status);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * This method returns a "Task" model taken by ID.
+     *
+     * @param id String parameter.
+     * @return "Task" model.
+     */
+    @Override
+    public Task getTaskByID(final TaskId id) {
+        readLock.lock();
+        try {
+            long location = store.find(id);
+            return location == SegmentTaskStore.NO_LOCATION ? null : store.read(location);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * This method returns "Task" models taken by list of IDs.
+     *
+     * @param ids ids of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> getTasksByIDs(final Collection<TaskId> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        readLock.lock();
+        try {
+            for (TaskId id : ids) {
+                long location = store.find(id);
+                if (location != SegmentTaskStore.NO_LOCATION) {
+                    tasks.add(store.read(location));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return tasks;
+    }
+
+    /**
+     * This method adds "Task" models to the store as they are taken from iterator.
+     * Lock is taken per task, so reading of the input does not block other requests.
+     *
+     * @param tasks "Task" models.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        long imported = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writeLock.lock();
+            try {
+                if (store.find(task.getId()) == SegmentTaskStore.NO_LOCATION) {
+                    store.put(task);
+                    imported++;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * This method finds "Task" models by scanning texts of tasks with passed status in mapped pages.
+     * Rank of a task is the number of words of its text that match query terms.
+     *
+     * @param queryTerms Search terms made by SearchTerms.
+     * @param status Status of tasks to find, null for all statuses.
+     * @param offset Number of found tasks to skip.
+     * @param limit Maximal number of tasks to return.
+     * @return Found "Task" models.
+     */
+    @Override
+    public List<Task> searchTasks(final List<String> queryTerms, final String status,
+                                  final int offset, final int limit) {
+        Map<Task, Integer> ranks = new HashMap<>();
+        readLock.lock();
+        try {
+            store.forEach(status, true, null, location -> {
+                int rank = TaskTextIndex.rank(store.readText(location), queryTerms);
+                if (rank > 0) {
+                    ranks.put(store.read(location), rank);
+                }
+                return true;
+            });
+        } finally {
+            readLock.unlock();
+        }
+
+        List<Task> tasks = new ArrayList<>(ranks.keySet());
+        tasks.sort(Comparator.comparing((Task task) -> ranks.get(task))
+                .thenComparing(Task::getCreatedAt)
+                .thenComparing(Task::getId)
+                .reversed());
+        if (offset >= tasks.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(tasks.subList(offset, Math.min(tasks.size(), offset + limit)));
+    }
+
+    /**
+     * This method passes every "Task" model with given status to consumer one by one.
+     * Tasks are read in chunks of EXPORT_CHUNK_SIZE under read lock, consumer is called without lock.
+     * Every next chunk is taken from the position of the last exported task.
+     *
+     * @param status Status of tasks to export, null for all statuses.
+     * @param taskConsumer Consumer of tasks.
+     * @return Number of exported tasks.
+     */
+    @Override
+    public long exportTasks(final String status, final Consumer<Task> taskConsumer) {
+        List<String> statuses;
+        readLock.lock();
+        try {
+            statuses = status == null ? store.getStatuses() : Collections.singletonList(status);
+        } finally {
+            readLock.unlock();
+        }
+
+        long exported = 0;
+        List<Task> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        for (String statusToExport : statuses) {
+            TaskCursor position = null;
+            do {
+                chunk.clear();
+                selectTasks(statusToExport, true, position, 0, EXPORT_CHUNK_SIZE, chunk);
+                for (Task task : chunk) {
+                    taskConsumer.accept(task);
+                }
+                exported += chunk.size();
+                if (!chunk.isEmpty()) {
+                    Task last = chunk.get(chunk.size() - 1);
+                    position = new TaskCursor(last.getCreatedAt(), last.getId(), false);
+                }
+            } while (chunk.size() == EXPORT_CHUNK_SIZE);
+        }
+        return exported;
+    }
+
+    /**
+     * This method removes a "Task" model by ID.
+     *
+     * @param id String parameter
+     * @return deleted "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task deleteTask(final TaskId id) {
+        writeLock.lock();
+        try {
+            return removeTask(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Task removeTask(final TaskId id) {
+        long location = store.find(id);
+        if (location == SegmentTaskStore.NO_LOCATION) {
+            return null;
+        }
+        Task task = store.read(location);
+        store.delete(id);
+        return task;
+    }
+
+    /**
+     * This method updates text and/or status of a "Task" model by ID.
+     * New state of the task is appended, previous record becomes garbage for compaction.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        writeLock.lock();
+        try {
+            long location = store.find(id);
+            if (location == SegmentTaskStore.NO_LOCATION) {
+                return null;
+            }
+            return store.read(store.put(updateTask(store.read(location), text, status)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Task updateTask(final Task task, final String text, final String status) {
+        return new Task(task.getId(),
+                Optional.ofNullable(text).orElse(task.getText()),
+                Optional.ofNullable(status).orElse(task.getStatus()),
+                task.getCreatedAt(),
+                Instant.now());
+    }
+
+    /**
+     * This method updates several "Task" models at once.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    @Override
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        List<TaskId> updatedIds = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (Map.Entry<TaskId, UpdateTaskRequest> patch : patches.entrySet()) {
+                long location = store.find(patch.getKey());
+                if (location != SegmentTaskStore.NO_LOCATION) {
+                    store.put(updateTask(store.read(location), patch.getValue().getText(), patch.getValue().getStatus()));
+                    updatedIds.add(patch.getKey());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return updatedIds;
+    }
+
+    /**
+     * This method removes several "Task" models at once.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        List<TaskId> deletedIds = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (TaskId id : ids) {
+                if (store.delete(id) != SegmentTaskStore.NO_LOCATION) {
+                    deletedIds.add(id);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return deletedIds;
+    }
+
+    /**
+     * This method changes status of tasks selected by filter.
+     * If filter has a status, only the index of that status is scanned.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        writeLock.lock();
+        try {
+            List<Task> tasks = findTasks(filter, limit, task -> !status.equals(task.getStatus()));
+            for (Task task : tasks) {
+                store.put(updateTask(task, null, status));
+            }
+            return tasks.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method removes tasks selected by filter.
+     * If filter has a status, only the index of that status is scanned.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        writeLock.lock();
+        try {
+            List<Task> tasks = findTasks(filter, limit, task -> true);
+            for (Task task : tasks) {
+                store.delete(task.getId());
+            }
+            return tasks.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Collects tasks matching the filter before they are changed, so indexes are not changed while they are scanned.
+     */
+    private List<Task> findTasks(final TaskFilter filter, final int limit, final Predicate<Task> condition) {
+        List<Task> tasks = new ArrayList<>();
+        store.forEach(filter.getStatus(), true, null, location -> {
+            if (tasks.size() == limit) {
+                return false;
+            }
+            Task task = store.read(location);
+            if (filter.matches(task) && condition.test(task)) {
+                tasks.add(task);
+            }
+            return true;
+        });
+        return tasks;
+    }
+
+    /**
+     * This method forces records appended since the previous call to disk.
+     */
+    @Scheduled(fixedDelayString = "${tasks.segment.flush-interval:1000}")
+    public void flush() {
+        readLock.lock();
+        try {
+            store.force();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * This method compacts segments that have enough space taken by replaced and removed records.
+     */
+    @Scheduled(initialDelayString = "${tasks.segment.compaction-interval:60000}",
+            fixedDelayString = "${tasks.segment.compaction-interval:60000}")
+    public void compact() {
+        while (true) {
+            int segmentNumber;
+            readLock.lock();
+            try {
+                segmentNumber = store.findCompactionCandidate(compactionGarbageRatio);
+            } finally {
+                readLock.unlock();
+            }
+            if (segmentNumber < 0) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            int offset = 0;
+            while (offset >= 0) {
+                writeLock.lock();
+                try {
+                    offset = store.compact(segmentNumber, offset, COMPACTION_CHUNK_SIZE);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            LOGGER.info("Segment {} is compacted in {} ms", segmentNumber,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        }
+    }
+
+    /**
+     * This method forces and closes segment files.
+     */
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            store.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "segmentStore";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        readLock.lock();
+        try {
+            int size = store.size();
+            long heapBytes = store.getHeapBytes();
+            metrics.put("tasks", size);
+            metrics.put("segments", store.getSegmentCount());
+            metrics.put("fileBytes", store.getFileBytes());
+            metrics.put("liveBytes", store.getLiveBytes());
+            metrics.put("heapBytes", heapBytes);
+            metrics.put("heapBytesPerTask", size == 0 ? 0 : heapBytes / size);
+            metrics.put("compactedSegments", store.getCompactedSegments());
+        } finally {
+            readLock.unlock();
+        }
+        metrics.put("recoveryMillis", recoveryMillis);
+        metrics.put("recoveredRecords", recoveredRecords);
+        return metrics;
+    }
+}
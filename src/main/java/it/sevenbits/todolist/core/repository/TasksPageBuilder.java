@@ -0,0 +1,184 @@
+package it.sevenbits.todolist.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class builds responses of task list requests, so all repositories return the same "_meta" structure.
+ */
+final class TasksPageBuilder {
+    private final JsonNodeFactory jsonNodeFactory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor of TasksPageBuilder class.
+     */
+    TasksPageBuilder() {
+        jsonNodeFactory = JsonNodeFactory.instance;
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * This method builds a page taken by page number.
+     * Links keep request parameters as they were passed, so omitted ones stay omitted.
+     *
+     * @param status Requested status or null.
+     * @param order Requested order or null.
+     * @param size Requested size or null.
+     * @param pageToUse Number of the page.
+     * @param sizeToUse Size of the page.
+     * @param totalTasksCount Count of tasks with the status.
+     * @param tasks Tasks of the page.
+     * @return Page of tasks.
+     */
+    JsonNode buildNumberedPage(final String status,
+                               final String order,
+                               final Short size,
+                               final short pageToUse,
+                               final short sizeToUse,
+                               final int totalTasksCount,
+                               final List<Task> tasks) {
+        int totalPagesCount = (totalTasksCount % sizeToUse > 0)
+                ? totalTasksCount/sizeToUse + 1 : totalTasksCount/sizeToUse;
+
+        ObjectNode rootNode = jsonNodeFactory.objectNode();
+        ObjectNode metaNode = rootNode.putObject("_meta");
+        ArrayNode tasksNode = rootNode.putArray("tasks");
+
+        final UriComponents uriPartBeforePageNumber = UriComponentsBuilder.fromPath("/tasks")
+                .queryParam("status", status)
+                .queryParam("order", order)
+                .build();
+        final UriComponents uriPartAfterPageNumber = UriComponentsBuilder.fromPath("/tasks")
+                .queryParam("size", size)
+                .build();
+
+        int numberOfPreviousPage = (pageToUse == 1) ? 1 : (pageToUse - 1);
+        int numberOfNextPage = (totalPagesCount == 1) ? 1 : (pageToUse + 1);
+
+        String nextPageLink = UriComponentsBuilder.newInstance()
+                .uriComponents(uriPartBeforePageNumber)
+                .queryParam("page", numberOfNextPage)
+                .uriComponents(uriPartAfterPageNumber)
+                .build()
+                .toString();
+        String previousPageLink = UriComponentsBuilder.newInstance()
+                .uriComponents(uriPartBeforePageNumber)
+                .queryParam("page", numberOfPreviousPage)
+                .uriComponents(uriPartAfterPageNumber)
+                .build()
+                .toString();
+        String firstPageLink = UriComponentsBuilder.newInstance()
+                .uriComponents(uriPartBeforePageNumber)
+                .queryParam("page", 1)
+                .uriComponents(uriPartAfterPageNumber)
+                .build()
+                .toString();
+        String lastPageLink = UriComponentsBuilder.newInstance()
+                .uriComponents(uriPartBeforePageNumber)
+                .queryParam("page", totalPagesCount)
+                .uriComponents(uriPartAfterPageNumber)
+                .build()
+                .toString();
+
+        metaNode.put("total", totalTasksCount)
+                .put("page", pageToUse)
+                .put("size", sizeToUse)
+                .put("next", nextPageLink)
+                .put("prev", previousPageLink)
+                .put("first", firstPageLink)
+                .put("last", lastPageLink);
+
+        for (Task currentTask : tasks) {
+            tasksNode.add(objectMapper.valueToTree(currentTask));
+        }
+
+        return rootNode;
+    }
+
+    /**
+     * This method builds a page taken next to the cursor position.
+     * Tasks are passed in the order they were scanned from the cursor, with one extra task
+     * if there are tasks beyond the page.
+     *
+     * @param status Status of tasks.
+     * @param order Order of the list.
+     * @param size Size of the page.
+     * @param cursor Cursor the page was taken by.
+     * @param scannedTasks Up to size + 1 tasks in scan order.
+     * @param totalTasksCount Count of tasks with the status.
+     * @return Page of tasks.
+     */
+    JsonNode buildCursorPage(final String status,
+                             final String order,
+                             final short size,
+                             final TaskCursor cursor,
+                             final List<Task> scannedTasks,
+                             final int totalTasksCount) {
+        List<Task> tasks = new ArrayList<>(scannedTasks);
+        boolean hasMore = tasks.size() > size;
+        if (hasMore) {
+            tasks.remove(tasks.size() - 1);
+        }
+        if (cursor.isBackward()) {
+            Collections.reverse(tasks);
+        }
+
+        boolean hasNext = cursor.isBackward() ? cursor.hasPosition() : hasMore;
+        boolean hasPrevious = cursor.isBackward() ? hasMore : cursor.hasPosition();
+
+        ObjectNode rootNode = jsonNodeFactory.objectNode();
+        ObjectNode metaNode = rootNode.putObject("_meta");
+        ArrayNode tasksNode = rootNode.putArray("tasks");
+
+        metaNode.put("total", totalTasksCount)
+                .put("size", size);
+        if (hasNext && !tasks.isEmpty()) {
+            Task lastTask = tasks.get(tasks.size() - 1);
+            metaNode.put("next", getCursorLink(status, order, size,
+                    new TaskCursor(lastTask.getCreatedAt(), lastTask.getId(), false)));
+        } else {
+            metaNode.putNull("next");
+        }
+        if (hasPrevious && !tasks.isEmpty()) {
+            Task firstTask = tasks.get(0);
+            metaNode.put("prev", getCursorLink(status, order, size,
+                    new TaskCursor(firstTask.getCreatedAt(), firstTask.getId(), true)));
+        } else {
+            metaNode.putNull("prev");
+        }
+        metaNode.put("first", getCursorLink(status, order, size, TaskCursor.first()))
+                .put("last", getCursorLink(status, order, size, TaskCursor.last()));
+
+        for (Task currentTask : tasks) {
+            tasksNode.add(objectMapper.valueToTree(currentTask));
+        }
+
+        return rootNode;
+    }
+
+    private String getCursorLink(final String status,
+                                 final String order,
+                                 final short size,
+                                 final TaskCursor cursor) {
+        return UriComponentsBuilder.fromPath("/tasks")
+                .queryParam("status", status)
+                .queryParam("order", order)
+                .queryParam("size", size)
+                .queryParam("cursor", cursor.encode())
+                .build()
+                .toString();
+    }
+}
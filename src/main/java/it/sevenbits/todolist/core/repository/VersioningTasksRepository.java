@@ -0,0 +1,196 @@
+package it.sevenbits.todolist.core.repository;
+
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.cache.TaskListVersions;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.UpdateTaskRequest;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository decorator that bumps versions of task lists after tasks are changed.
+ * Status list of a single changed task is bumped, if the change may move tasks between statuses
+ * or their statuses are not known, all lists are bumped.
+ * Versions are bumped in finally blocks, so a change that fails half way does not leave a stale version.
+ */
+public class VersioningTasksRepository extends ForwardingTasksRepository {
+    private final TaskListVersions versions;
+
+    /**
+     * Constructor of VersioningTasksRepository class.
+     *
+     * @param delegate Wrapped repository.
+     * @param versions Versions of task lists.
+     */
+    public VersioningTasksRepository(final ITasksRepository delegate, final TaskListVersions versions) {
+        super(delegate);
+        this.versions = versions;
+    }
+
+    /**
+     * This method adds a new task and bumps version of its list.
+     *
+     * @param addTaskRequest "Task" model
+     * @return new "Task" model.
+     */
+    @Override
+    public Task addTask(final AddTaskRequest addTaskRequest) {
+        Task task = null;
+        try {
+            task = getDelegate().addTask(addTaskRequest);
+            return task;
+        } finally {
+            changed(task);
+        }
+    }
+
+    /**
+     * This method adds several new tasks and bumps versions of their lists.
+     *
+     * @param addTaskRequests "Task" models.
+     * @return new "Task" models in the order of requests.
+     */
+    @Override
+    public List<Task> addTasks(final List<AddTaskRequest> addTaskRequests) {
+        try {
+            return getDelegate().addTasks(addTaskRequests);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * This method imports tasks and bumps versions of all lists.
+     *
+     * @param tasks "Task" models.
+     * @return Number of added tasks.
+     */
+    @Override
+    public long importTasks(final Iterator<Task> tasks) {
+        try {
+            return getDelegate().importTasks(tasks);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * This method removes a task and bumps version of its list.
+     *
+     * @param id String parameter
+     * @return deleted "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task deleteTask(final TaskId id) {
+        Task task = null;
+        try {
+            task = getDelegate().deleteTask(id);
+            return task;
+        } finally {
+            changed(task);
+        }
+    }
+
+    /**
+     * This method updates a task and bumps version of its list, or of all lists if status is changed,
+     * as the previous status is not known.
+     *
+     * @param id Id of task to update.
+     * @param text New task text or null to keep current one.
+     * @param status New task status or null to keep current one.
+     * @return updated "Task" model or null if there is no such task.
+     */
+    @Override
+    public Task patchTask(final TaskId id, final String text, final String status) {
+        Task task = null;
+        try {
+            task = getDelegate().patchTask(id, text, status);
+            return task;
+        } finally {
+            if (status != null) {
+                versions.changedAll();
+            } else {
+                changed(task);
+            }
+        }
+    }
+
+    /**
+     * This method updates several tasks and bumps versions of all lists.
+     *
+     * @param patches Patches by ids of tasks to update.
+     * @return ids of tasks that were found and updated.
+     */
+    @Override
+    public List<TaskId> updateTasks(final Map<TaskId, UpdateTaskRequest> patches) {
+        try {
+            return getDelegate().updateTasks(patches);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * This method removes several tasks and bumps versions of all lists.
+     *
+     * @param ids ids of tasks to remove.
+     * @return ids of tasks that were found and removed.
+     */
+    @Override
+    public List<TaskId> deleteTasks(final Collection<TaskId> ids) {
+        try {
+            return getDelegate().deleteTasks(ids);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * This method changes status of tasks selected by filter and bumps versions of all lists.
+     *
+     * @param filter Filter of tasks to update.
+     * @param status New task status.
+     * @param limit Maximal count of tasks to update.
+     * @return Count of updated tasks.
+     */
+    @Override
+    public int updateTasksByFilter(final TaskFilter filter, final String status, final int limit) {
+        try {
+            return getDelegate().updateTasksByFilter(filter, status, limit);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * This method removes tasks selected by filter and bumps versions of all lists.
+     *
+     * @param filter Filter of tasks to remove.
+     * @param limit Maximal count of tasks to remove.
+     * @return Count of removed tasks.
+     */
+    @Override
+    public int deleteTasksByFilter(final TaskFilter filter, final int limit) {
+        try {
+            return getDelegate().deleteTasksByFilter(filter, limit);
+        } finally {
+            versions.changedAll();
+        }
+    }
+
+    /**
+     * Bumps version of the task list, or of all lists if the change failed and the task is not known.
+     */
+    private void changed(final Task task) {
+        if (task != null) {
+            versions.changed(task.getStatus());
+        } else {
+            versions.changedAll();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package it.sevenbits.todolist.core.routing;
+
+/**
+ * This class holds routing state of the current thread.
+ * Connections taken outside of a read are always taken from primary data source.
+ */
+public final class ReadRoutingContext {
+    private static final ThreadLocal<Long> REQUIRED_POSITION = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    /**
+     * Method that marks the current thread as serving a read that may go to a replica.
+     *
+     * @param requiredPosition Write-ahead log position a replica must have replayed to serve the read.
+     */
+    public static void startRead(final long requiredPosition) {
+        REQUIRED_POSITION.set(requiredPosition);
+    }
+
+    /**
+     * Method that clears routing state of the current thread.
+     */
+    public static void clear() {
+        REQUIRED_POSITION.remove();
+    }
+
+    /**
+     * Method that checks if the current thread serves a read.
+     *
+     * @return True if connections may be taken from a replica.
+     */
+    public static boolean isRead() {
+        return REQUIRED_POSITION.get() != null;
+    }
+
+    /**
+     * Method that returns write-ahead log position a replica must have replayed.
+     *
+     * @return Required position, 0 if the read carries no consistency token.
+     */
+    public static long getRequiredPosition() {
+        Long requiredPosition = REQUIRED_POSITION.get();
+        return requiredPosition == null ? 0 : requiredPosition;
+    }
+}
@@ -0,0 +1,190 @@
+package it.sevenbits.todolist.core.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Data source that sends reads to replicas and everything else to primary.
+ * A replica serves a read only if it has replayed the write-ahead log up to the position
+ * the read requires, so a client that passes position of its last write reads its own writes.
+ * Positions of replicas are polled by {@link #refreshReplicaPositions()}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+    private static final long UNAVAILABLE = -1;
+
+    private static final String CURRENT_POSITION_QUERY = "SELECT pg_current_wal_lsn()::text";
+    private static final String REPLAYED_POSITION_QUERY =
+            "SELECT (CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END)::text";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicLongArray replayedPositions;
+    private final AtomicInteger nextReplica;
+
+    /**
+     * Constructor of ReplicaRoutingDataSource class.
+     * Replicas are not used until their positions are polled for the first time.
+     *
+     * @param primary Data source of primary data base.
+     * @param replicas Data sources of replicas, may be empty.
+     */
+    public ReplicaRoutingDataSource(final DataSource primary, final List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.replayedPositions = new AtomicLongArray(replicas.size());
+        this.nextReplica = new AtomicInteger();
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targetDataSources.put(REPLICA + i, replicas.get(i));
+            replayedPositions.set(i, UNAVAILABLE);
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Method that checks if any replica is configured.
+     *
+     * @return True if reads may be routed to replicas.
+     */
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Method that returns current write-ahead log position of primary data base.
+     * Every write committed before the call is at or before this position.
+     *
+     * @return Current position.
+     * @throws SQLException if primary is unavailable.
+     */
+    public long getPrimaryPosition() throws SQLException {
+        return queryPosition(primary, CURRENT_POSITION_QUERY);
+    }
+
+    /**
+     * This method polls write-ahead log positions replayed by replicas.
+     * A replica that can not be reached is not used until it answers again.
+     */
+    @Scheduled(fixedDelayString = "${tasks.replicas.refresh-delay:100}")
+    public void refreshReplicaPositions() {
+        for (int i = 0; i < replicas.size(); i++) {
+            long position;
+            try {
+                position = queryPosition(replicas.get(i), REPLAYED_POSITION_QUERY);
+            } catch (SQLException | IllegalArgumentException e) {
+                if (replayedPositions.get(i) != UNAVAILABLE) {
+                    LOGGER.warn("Replica {} is unavailable", i, e);
+                }
+                position = UNAVAILABLE;
+            }
+            replayedPositions.set(i, position);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadRoutingContext.isRead()) {
+            return PRIMARY;
+        }
+        long requiredPosition = ReadRoutingContext.getRequiredPosition();
+        int replicaCount = replicas.size();
+        int first = nextReplica.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < replicaCount; i++) {
+            int replica = (first + i) % replicaCount;
+            long replayedPosition = replayedPositions.get(replica);
+            if (replayedPosition != UNAVAILABLE && replayedPosition >= requiredPosition) {
+                return REPLICA + replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * This method closes connection pools of replicas.
+     * Primary data source is managed by its owner.
+     */
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable) {
+                try {
+                    ((Closeable) replica).close();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not close replica data source", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that parses write-ahead log position in PostgreSQL text form, e.g. "16/B374D848".
+     *
+     * @param position Position in text form.
+     * @return Position as a number, comparable with other positions.
+     * @throws IllegalArgumentException if position is malformed.
+     */
+    public static long parsePosition(final String position) {
+        int separator = position == null ? -1 : position.indexOf('/');
+        if (separator <= 0 || separator > 8 || separator == position.length() - 1 || position.length() - separator > 9) {
+            throw new IllegalArgumentException("Position is malformed: " + position);
+        }
+        return parseHex(position, 0, separator) << 32 | parseHex(position, separator + 1, position.length());
+    }
+
+    /**
+     * Method that formats write-ahead log position in PostgreSQL text form.
+     *
+     * @param position Position as a number.
+     * @return Position in text form.
+     */
+    public static String formatPosition(final long position) {
+        return Long.toHexString(position >>> 32).toUpperCase() + "/"
+                + Long.toHexString(position & 0xffffffffL).toUpperCase();
+    }
+
+    private static long parseHex(final String position, final int from, final int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(position.charAt(i), 16);
+            if (digit < 0 || position.charAt(i) > 'f') {
+                throw new IllegalArgumentException("Position is malformed: " + position);
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static long queryPosition(final DataSource dataSource, final String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            if (!resultSet.next() || resultSet.getString(1) == null) {
+                throw new SQLException("Write-ahead log position is unknown");
+            }
+            return parsePosition(resultSet.getString(1));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains routing of data base reads between primary and replica data sources.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.routing;
@@ -0,0 +1,52 @@
+package it.sevenbits.todolist.core.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * This class splits text into search terms: lowercased runs of letters and digits.
+ * The same rules are used for task text and search queries.
+ */
+public final class SearchTerms {
+    private SearchTerms() {
+    }
+
+    /**
+     * Method that splits text into terms.
+     *
+     * @param text Text to split.
+     * @return Terms in the order they appear in text, with repetitions.
+     */
+    public static List<String> split(final String text) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        int i = 0;
+        while (i <= text.length()) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return terms;
+    }
+
+    /**
+     * Method that splits search query into distinct terms.
+     *
+     * @param query Search query.
+     * @return Distinct terms in the order they appear in query.
+     */
+    public static List<String> parseQuery(final String query) {
+        Set<String> terms = new LinkedHashSet<>(split(query));
+        return new ArrayList<>(terms);
+    }
+}
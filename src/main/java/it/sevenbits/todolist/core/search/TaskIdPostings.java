@@ -0,0 +1,128 @@
+package it.sevenbits.todolist.core.search;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.util.Collection;
+
+/**
+ * Set of ids of tasks that contain one term: open addressing hash table of (msb, lsb) pairs in one long array,
+ * so a posting costs 16 bytes instead of a node and a TaskId object. Zero pair marks a free slot,
+ * task ids are UUIDs with version bits set, so they are never zero.
+ * Methods are synchronized. A set that became empty is marked dead and removed from the index,
+ * ids are never added to a dead set.
+ */
+final class TaskIdPostings {
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int MAX_LOAD_PERCENT = 70;
+    private static final int PERCENT = 100;
+
+    private long[] slots;
+    private int size;
+    private boolean dead;
+
+    TaskIdPostings() {
+        slots = new long[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Adds id. Returns false if the set is dead and id must be added to a new one.
+     */
+    synchronized boolean add(final TaskId id) {
+        if (dead) {
+            return false;
+        }
+        if ((size + 1) * PERCENT > getCapacity() * MAX_LOAD_PERCENT) {
+            resize(getCapacity() * 2);
+        }
+        if (insert(slots, id.getMostSignificantBits(), id.getLeastSignificantBits())) {
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * Removes id. Returns true if the set became empty, it is dead then.
+     */
+    synchronized boolean remove(final TaskId id) {
+        int mask = getCapacity() - 1;
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = hash(msb, lsb) & mask;
+        while (slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0) {
+            if (slots[slot * 2] == msb && slots[slot * 2 + 1] == lsb) {
+                deleteSlot(slot, mask);
+                size--;
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == 0) {
+            dead = true;
+        }
+        return dead;
+    }
+
+    /**
+     * Adds all ids of the set to the collection.
+     */
+    synchronized void copyTo(final Collection<TaskId> ids) {
+        for (int slot = 0; slot < getCapacity(); slot++) {
+            if (slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0) {
+                ids.add(new TaskId(slots[slot * 2], slots[slot * 2 + 1]));
+            }
+        }
+    }
+
+    private int getCapacity() {
+        return slots.length / 2;
+    }
+
+    /**
+     * Backward shift deletion: following entries of the probe run are moved into the hole,
+     * so lookups never need tombstones.
+     */
+    private void deleteSlot(final int deleted, final int mask) {
+        int hole = deleted;
+        int slot = (hole + 1) & mask;
+        while (slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0) {
+            int home = hash(slots[slot * 2], slots[slot * 2 + 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                slots[hole * 2] = slots[slot * 2];
+                slots[hole * 2 + 1] = slots[slot * 2 + 1];
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[hole * 2] = 0;
+        slots[hole * 2 + 1] = 0;
+    }
+
+    private void resize(final int capacity) {
+        long[] resized = new long[capacity * 2];
+        for (int slot = 0; slot < getCapacity(); slot++) {
+            if (slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0) {
+                insert(resized, slots[slot * 2], slots[slot * 2 + 1]);
+            }
+        }
+        slots = resized;
+    }
+
+    private static boolean insert(final long[] table, final long msb, final long lsb) {
+        int mask = table.length / 2 - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (table[slot * 2] != 0 || table[slot * 2 + 1] != 0) {
+            if (table[slot * 2] == msb && table[slot * 2 + 1] == lsb) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot * 2] = msb;
+        table[slot * 2 + 1] = lsb;
+        return true;
+    }
+
+    private static int hash(final long msb, final long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32);
+    }
+}
@@ -0,0 +1,155 @@
+package it.sevenbits.todolist.core.search;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory inverted index of task text: sorted map from term to ids of tasks that contain it.
+ * Terms are sorted, so all terms with a prefix are found by one range lookup.
+ * The index may briefly lag behind tasks, so callers check found tasks against the query.
+ * A term is removed with its last task, so the index holds only terms of current texts.
+ * Skip list compute functions may run more than once, so posting sets are changed under their own lock
+ * and a set removed from the map is marked dead before, an add that finds a dead set retries with a new one.
+ */
+public class TaskTextIndex {
+    private final ConcurrentSkipListMap<String, TaskIdPostings> postings;
+
+    /**
+     * Constructor of TaskTextIndex class.
+     */
+    public TaskTextIndex() {
+        postings = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Method that adds task to index.
+     *
+     * @param task Task to add.
+     */
+    public void add(final Task task) {
+        for (String term : new HashSet<>(SearchTerms.split(task.getText()))) {
+            addPosting(term, task.getId());
+        }
+    }
+
+    /**
+     * Method that removes task from index.
+     *
+     * @param task Task to remove, as it was added.
+     */
+    public void remove(final Task task) {
+        for (String term : new HashSet<>(SearchTerms.split(task.getText()))) {
+            removePosting(term, task.getId());
+        }
+    }
+
+    /**
+     * Method that updates index after text of a task is changed.
+     *
+     * @param oldTask Task as it was added.
+     * @param newTask Task with new text.
+     */
+    public void replace(final Task oldTask, final Task newTask) {
+        if (!oldTask.getText().equals(newTask.getText())) {
+            add(newTask);
+            Set<String> oldTerms = new HashSet<>(SearchTerms.split(oldTask.getText()));
+            oldTerms.removeAll(SearchTerms.split(newTask.getText()));
+            for (String term : oldTerms) {
+                removePosting(term, oldTask.getId());
+            }
+        }
+    }
+
+    /**
+     * Method that finds ids of tasks that have a term starting with each of query terms.
+     *
+     * @param queryTerms Query terms.
+     * @return Ids of matching tasks.
+     */
+    public Set<TaskId> find(final List<String> queryTerms) {
+        Set<TaskId> result = null;
+        for (String queryTerm : queryTerms) {
+            Set<TaskId> termIds = new HashSet<>();
+            ConcurrentNavigableMap<String, TaskIdPostings> range =
+                    postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+            for (TaskIdPostings ids : range.values()) {
+                ids.copyTo(termIds);
+            }
+            if (result == null) {
+                result = termIds;
+            } else {
+                result.retainAll(termIds);
+            }
+            if (result.isEmpty()) {
+                return Collections.emptySet();
+            }
+        }
+        return result == null ? Collections.emptySet() : result;
+    }
+
+    /**
+     * Method that returns number of indexed terms.
+     *
+     * @return Number of terms.
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    private void addPosting(final String term, final TaskId id) {
+        while (true) {
+            TaskIdPostings ids = postings.get(term);
+            if (ids == null) {
+                TaskIdPostings created = new TaskIdPostings();
+                ids = postings.putIfAbsent(term, created);
+                if (ids == null) {
+                    ids = created;
+                }
+            }
+            if (ids.add(id)) {
+                return;
+            }
+            postings.remove(term, ids);
+        }
+    }
+
+    private void removePosting(final String term, final TaskId id) {
+        TaskIdPostings ids = postings.get(term);
+        if (ids != null && ids.remove(id)) {
+            postings.remove(term, ids);
+        }
+    }
+
+    /**
+     * Method that ranks text against query: number of its terms that match any query term,
+     * or 0 if some query term matches nothing.
+     *
+     * @param text Task text.
+     * @param queryTerms Query terms.
+     * @return Rank of text, 0 if it does not match.
+     */
+    public static int rank(final String text, final List<String> queryTerms) {
+        List<String> terms = SearchTerms.split(text);
+        int rank = 0;
+        for (String queryTerm : queryTerms) {
+            int queryTermRank = 0;
+            for (String term : terms) {
+                if (term.startsWith(queryTerm)) {
+                    queryTermRank++;
+                }
+            }
+            if (queryTermRank == 0) {
+                return 0;
+            }
+            rank += queryTermRank;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains full-text search over task text.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.search;
@@ -0,0 +1,195 @@
+package it.sevenbits.todolist.core.segment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is one fixed-size segment file mapped into memory.
+ * Records are appended up to the end of the segment and never changed in place.
+ * Absolute reads of the mapped buffer do not change its position, so they may run concurrently.
+ */
+public class SegmentFile {
+    private final int number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int endPosition;
+    private long liveBytes;
+
+    /**
+     * Constructor of SegmentFile class. File is created and extended to the size if it is smaller.
+     *
+     * @param number Number of the segment.
+     * @param path Path of the segment file.
+     * @param size Size of the segment in bytes.
+     * @throws IOException if the file can not be opened or mapped.
+     */
+    public SegmentFile(final int number, final Path path, final int size) throws IOException {
+        this.number = number;
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    /**
+     * This method appends record if there is room for it.
+     *
+     * @param record Record bytes.
+     * @return Offset of the record or -1 if the segment is full.
+     */
+    public int append(final byte[] record) {
+        if (record.length > buffer.capacity() - endPosition) {
+            return -1;
+        }
+        int offset = endPosition;
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset);
+        target.put(record);
+        endPosition += record.length;
+        return offset;
+    }
+
+    /**
+     * This method copies bytes of the segment.
+     *
+     * @param offset Offset of the first byte.
+     * @param length Number of bytes.
+     * @return Copied bytes.
+     */
+    public byte[] copy(final int offset, final int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * This method returns view of the whole segment for absolute reads.
+     *
+     * @return Buffer that shares bytes of the segment.
+     */
+    public ByteBuffer view() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * This method returns view of the segment bytes that does not copy them.
+     *
+     * @param offset Offset of the first byte.
+     * @param length Number of bytes.
+     * @return Buffer positioned at the first byte and limited by the last one.
+     */
+    public ByteBuffer view(final int offset, final int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+        return view;
+    }
+
+    /**
+     * This method fills the segment with zeros from the end of records, so damaged bytes
+     * of a torn write are not taken for records appended later. Pages that are already zero are not written.
+     */
+    public void clearTail() {
+        int position = endPosition;
+        for (; position < buffer.capacity() - Long.BYTES; position += Long.BYTES) {
+            if (buffer.getLong(position) != 0) {
+                buffer.putLong(position, 0);
+            }
+        }
+        for (; position < buffer.capacity(); position++) {
+            buffer.put(position, (byte) 0);
+        }
+    }
+
+    /**
+     * This method forces changes of the segment to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * This method closes the segment file. Mapping is released when the buffer is collected.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method closes and removes the segment file.
+     */
+    public void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method returns number of the segment.
+     *
+     * @return Segment number.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * This method returns size of the segment.
+     *
+     * @return Size in bytes.
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * This method returns offset after the last appended record.
+     *
+     * @return Offset in bytes.
+     */
+    public int getEndPosition() {
+        return endPosition;
+    }
+
+    /**
+     * This method sets offset after the last record, as found by recovery.
+     *
+     * @param endPosition Offset in bytes.
+     */
+    public void setEndPosition(final int endPosition) {
+        this.endPosition = endPosition;
+    }
+
+    /**
+     * This method returns number of bytes of the segment taken by live records.
+     *
+     * @return Size in bytes.
+     */
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * This method changes number of bytes of the segment taken by live records.
+     *
+     * @param delta Change of live bytes.
+     */
+    public void addLiveBytes(final long delta) {
+        liveBytes += delta;
+    }
+}
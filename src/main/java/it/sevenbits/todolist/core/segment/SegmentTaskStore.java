@@ -0,0 +1,633 @@
+package it.sevenbits.todolist.core.segment;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.offheap.OffHeapTaskStore;
+import it.sevenbits.todolist.core.offheap.TaskIdIndex;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * This class keeps tasks as records in fixed-size memory-mapped segment files.
+ *
+ * Every change appends a checksummed record with the new state of the task, or a removal record,
+ * to the last segment, and a new segment is started when it is full. Heap holds only indexes:
+ * hash index from task id to location of its latest record (segment number and offset)
+ * and ordered index of every status by creation time and id, so tasks are read from mapped pages
+ * and the page cache, not the heap, keeps them. Opening the store replays the segments in order,
+ * every segment up to its first damaged record.
+ *
+ * Compaction copies live records of a segment to the last one and removes the segment.
+ * Removal records are copied as long as an older segment may hold a record of the removed task.
+ * The class is not thread-safe.
+ */
+public class SegmentTaskStore {
+    /**
+     * Location returned for tasks that are not in the store.
+     */
+    public static final long NO_LOCATION = -1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentTaskStore.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.seg");
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int TYPE_OFFSET = HEADER_SIZE;
+    private static final int MOST_SIGNIFICANT_BITS_OFFSET = TYPE_OFFSET + 1;
+    private static final int LEAST_SIGNIFICANT_BITS_OFFSET = MOST_SIGNIFICANT_BITS_OFFSET + Long.BYTES;
+    private static final int CREATED_AT_OFFSET = LEAST_SIGNIFICANT_BITS_OFFSET + Long.BYTES;
+    private static final int UPDATED_AT_OFFSET = CREATED_AT_OFFSET + Long.BYTES;
+    private static final int STATUS_OFFSET = UPDATED_AT_OFFSET + Long.BYTES;
+    private static final int DELETE_RECORD_SIZE = CREATED_AT_OFFSET;
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Approximate heap size of an entry of ordered status index: key object and tree node.
+     */
+    private static final int STATUS_INDEX_ENTRY_BYTES = 72;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Integer, SegmentFile> segments;
+    private final Map<String, NavigableSet<IndexKey>> statusIndexes;
+    private final TaskIdIndex idIndex;
+    private SegmentFile activeSegment;
+    private long[] locations;
+    private int[] freeRows;
+    private int freeRowCount;
+    private int rowLimit;
+    private long compactedSegments;
+
+    /**
+     * Constructor of SegmentTaskStore class. Segments are read by open method.
+     *
+     * @param directory Directory of segment files.
+     * @param segmentSize Size of segment file in bytes.
+     */
+    public SegmentTaskStore(final Path directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        segments = new TreeMap<>();
+        statusIndexes = new HashMap<>();
+        idIndex = new TaskIdIndex();
+        locations = new long[INITIAL_CAPACITY];
+        freeRows = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * This method maps segment files and builds indexes from their records.
+     *
+     * @return Number of replayed records.
+     */
+    public long open() {
+        long records = 0;
+        try {
+            Files.createDirectories(directory);
+            for (int number : listSegments()) {
+                SegmentFile segment = new SegmentFile(number, getSegmentPath(number), segmentSize);
+                segments.put(number, segment);
+                records += replay(segment);
+            }
+            if (segments.isEmpty()) {
+                activeSegment = createSegment(1);
+            } else {
+                activeSegment = segments.lastEntry().getValue();
+                activeSegment.clearTail();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+    /**
+     * This method appends state of the task and makes it the current one.
+     *
+     * @param task "Task" model.
+     * @return Location of the task record.
+     */
+    public long put(final Task task) {
+        byte[] status = task.getStatus().getBytes(StandardCharsets.UTF_8);
+        byte[] text = task.getText().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(STATUS_OFFSET + Short.BYTES + status.length + Integer.BYTES + text.length);
+        record.position(TYPE_OFFSET);
+        record.put(PUT)
+                .putLong(task.getId().getMostSignificantBits())
+                .putLong(task.getId().getLeastSignificantBits())
+                .putLong(OffHeapTaskStore.toMicros(task.getCreatedAt()))
+                .putLong(OffHeapTaskStore.toMicros(task.getUpdatedAt()))
+                .putShort((short) status.length)
+                .put(status)
+                .putInt(text.length)
+                .put(text);
+        long location = append(seal(record));
+        applyPut(location);
+        return location;
+    }
+
+    /**
+     * This method appends removal of the task.
+     *
+     * @param id Id of the task.
+     * @return Location of the removed task record or NO_LOCATION if there is no such task.
+     */
+    public long delete(final TaskId id) {
+        long location = find(id);
+        if (location == NO_LOCATION) {
+            return NO_LOCATION;
+        }
+        ByteBuffer record = ByteBuffer.allocate(DELETE_RECORD_SIZE);
+        record.position(TYPE_OFFSET);
+        record.put(DELETE)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        applyDelete(append(seal(record)));
+        return location;
+    }
+
+    /**
+     * This method finds location of the current record of the task.
+     *
+     * @param id Id of the task.
+     * @return Location or NO_LOCATION if there is no such task.
+     */
+    public long find(final TaskId id) {
+        int row = idIndex.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return row < 0 ? NO_LOCATION : locations[row];
+    }
+
+    /**
+     * This method makes "Task" model from the record. Fields are decoded directly from the mapped page.
+     *
+     * @param location Location of the record.
+     * @return "Task" model.
+     */
+    public Task read(final long location) {
+        ByteBuffer record = getSegment(location).view();
+        int offset = getOffset(location);
+        int statusLength = record.getShort(offset + STATUS_OFFSET);
+        int textOffset = offset + STATUS_OFFSET + Short.BYTES + statusLength;
+        return new Task(new TaskId(record.getLong(offset + MOST_SIGNIFICANT_BITS_OFFSET),
+                        record.getLong(offset + LEAST_SIGNIFICANT_BITS_OFFSET)),
+                decode(record, textOffset + Integer.BYTES, record.getInt(textOffset)),
+                decode(record, offset + STATUS_OFFSET + Short.BYTES, statusLength),
+                toInstant(record.getLong(offset + CREATED_AT_OFFSET)),
+                toInstant(record.getLong(offset + UPDATED_AT_OFFSET)));
+    }
+
+    /**
+     * This method reads text of the task from the record.
+     *
+     * @param location Location of the record.
+     * @return Text of the task.
+     */
+    public String readText(final long location) {
+        ByteBuffer record = getSegment(location).view();
+        int offset = getOffset(location);
+        int textOffset = offset + STATUS_OFFSET + Short.BYTES + record.getShort(offset + STATUS_OFFSET);
+        return decode(record, textOffset + Integer.BYTES, record.getInt(textOffset));
+    }
+
+    /**
+     * This method reads status of the task from the record.
+     *
+     * @param location Location of the record.
+     * @return Status of the task.
+     */
+    public String readStatus(final long location) {
+        ByteBuffer record = getSegment(location).view();
+        int offset = getOffset(location);
+        return decode(record, offset + STATUS_OFFSET + Short.BYTES, record.getShort(offset + STATUS_OFFSET));
+    }
+
+    /**
+     * This method passes locations of tasks to visitor in order of creation time and id,
+     * until visitor returns false.
+     *
+     * @param status Status of tasks, null for all statuses one after another.
+     * @param ascending Whether older tasks go first.
+     * @param cursor Cursor, tasks up to the position of which are skipped, or null.
+     * @param visitor Visitor of locations that returns whether to go on.
+     */
+    public void forEach(final String status, final boolean ascending, final TaskCursor cursor,
+                        final LongPredicate visitor) {
+        Collection<NavigableSet<IndexKey>> indexes = status == null
+                ? new ArrayList<>(statusIndexes.values())
+                : Collections.singletonList(statusIndexes.getOrDefault(status, Collections.emptyNavigableSet()));
+        for (NavigableSet<IndexKey> index : indexes) {
+            NavigableSet<IndexKey> keys = ascending ? index : index.descendingSet();
+            if (cursor != null && cursor.hasPosition()) {
+                keys = keys.tailSet(new IndexKey(OffHeapTaskStore.toMicros(cursor.getCreatedAt()),
+                        cursor.getId().getMostSignificantBits(), cursor.getId().getLeastSignificantBits()), false);
+            }
+            for (IndexKey key : keys) {
+                if (!visitor.test(locations[idIndex.get(key.mostSignificantBits, key.leastSignificantBits)])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method returns number of tasks with the status.
+     *
+     * @param status Status of tasks.
+     * @return Number of tasks.
+     */
+    public int count(final String status) {
+        NavigableSet<IndexKey> index = statusIndexes.get(status);
+        return index == null ? 0 : index.size();
+    }
+
+    /**
+     * This method returns statuses that tasks have or had.
+     *
+     * @return Statuses.
+     */
+    public List<String> getStatuses() {
+        return new ArrayList<>(statusIndexes.keySet());
+    }
+
+    /**
+     * This method finds segment that has the largest share of space taken by replaced and removed records.
+     * The segment records are appended to is never chosen.
+     *
+     * @param minGarbageRatio Minimal share of the segment space that is not taken by live records.
+     * @return Segment number or -1 if no segment has enough garbage.
+     */
+    public int findCompactionCandidate(final double minGarbageRatio) {
+        int candidate = -1;
+        double candidateLiveRatio = 1 - minGarbageRatio;
+        for (SegmentFile segment : segments.values()) {
+            if (segment == activeSegment) {
+                continue;
+            }
+            double liveRatio = segment.getEndPosition() == 0 ? 0 : (double) segment.getLiveBytes() / segment.getEndPosition();
+            if (liveRatio <= candidateLiveRatio) {
+                candidate = segment.getNumber();
+                candidateLiveRatio = liveRatio;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * This method copies live records of the segment to the last segment, starting from the offset.
+     * When all records are copied, the last segment is forced to disk and the segment is removed.
+     *
+     * @param number Number of the compacted segment.
+     * @param fromOffset Offset of the first record to copy.
+     * @param maxRecords Maximal number of records to look at.
+     * @return Offset to go on from or -1 if the segment is removed.
+     */
+    public int compact(final int number, final int fromOffset, final int maxRecords) {
+        SegmentFile segment = segments.get(number);
+        ByteBuffer records = segment.view();
+        int offset = fromOffset;
+        for (int i = 0; i < maxRecords && offset < segment.getEndPosition(); i++) {
+            int recordSize = HEADER_SIZE + records.getInt(offset);
+            long location = toLocation(number, offset);
+            int row = idIndex.get(records.getLong(offset + MOST_SIGNIFICANT_BITS_OFFSET),
+                    records.getLong(offset + LEAST_SIGNIFICANT_BITS_OFFSET));
+            boolean isLive = records.get(offset + TYPE_OFFSET) == PUT
+                    ? row >= 0 && locations[row] == location
+                    : row < 0 && segments.firstKey() < number;
+            if (isLive) {
+                long newLocation = append(segment.copy(offset, recordSize));
+                getSegment(newLocation).addLiveBytes(recordSize);
+                segment.addLiveBytes(-recordSize);
+                if (row >= 0) {
+                    locations[row] = newLocation;
+                }
+            }
+            offset += recordSize;
+        }
+        if (offset < segment.getEndPosition()) {
+            return offset;
+        }
+        activeSegment.force();
+        segments.remove(number);
+        segment.delete();
+        compactedSegments++;
+        return -1;
+    }
+
+    /**
+     * This method forces the last segment to disk. Other segments are forced when they are filled.
+     */
+    public void force() {
+        activeSegment.force();
+    }
+
+    /**
+     * This method forces and closes all segments.
+     */
+    public void close() {
+        if (activeSegment != null) {
+            activeSegment.force();
+        }
+        for (SegmentFile segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * This method returns number of tasks.
+     *
+     * @return Number of tasks.
+     */
+    public int size() {
+        return idIndex.size();
+    }
+
+    /**
+     * This method returns number of segment files.
+     *
+     * @return Number of segments.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * This method returns size of segment files.
+     *
+     * @return Size in bytes.
+     */
+    public long getFileBytes() {
+        long bytes = 0;
+        for (SegmentFile segment : segments.values()) {
+            bytes += segment.getCapacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * This method returns size of live records in segment files.
+     *
+     * @return Size in bytes.
+     */
+    public long getLiveBytes() {
+        long bytes = 0;
+        for (SegmentFile segment : segments.values()) {
+            bytes += segment.getLiveBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * This method returns approximate heap size of indexes.
+     *
+     * @return Size in bytes.
+     */
+    public long getHeapBytes() {
+        return idIndex.getBytes() + (long) locations.length * Long.BYTES + (long) freeRows.length * Integer.BYTES
+                + (long) size() * STATUS_INDEX_ENTRY_BYTES;
+    }
+
+    /**
+     * This method returns number of segments removed by compaction.
+     *
+     * @return Number of segments.
+     */
+    public long getCompactedSegments() {
+        return compactedSegments;
+    }
+
+    /**
+     * Replays records of the segment up to the first damaged one and sets end of the segment after the last good one.
+     */
+    private long replay(final SegmentFile segment) {
+        ByteBuffer records = segment.view();
+        long replayed = 0;
+        int offset = 0;
+        while (isValidRecord(records, offset)) {
+            long location = toLocation(segment.getNumber(), offset);
+            if (records.get(offset + TYPE_OFFSET) == PUT) {
+                applyPut(location);
+            } else {
+                applyDelete(location);
+            }
+            offset += HEADER_SIZE + records.getInt(offset);
+            replayed++;
+        }
+        if (offset < segment.getCapacity() && records.getInt(offset) != 0) {
+            LOGGER.warn("Segment {} has damaged record at offset {}, records after it are skipped",
+                    segment.getNumber(), offset);
+        }
+        segment.setEndPosition(offset);
+        return replayed;
+    }
+
+    private boolean isValidRecord(final ByteBuffer records, final int offset) {
+        if (offset > records.capacity() - HEADER_SIZE) {
+            return false;
+        }
+        int length = records.getInt(offset);
+        if (length < DELETE_RECORD_SIZE - HEADER_SIZE || length > records.capacity() - offset - HEADER_SIZE) {
+            return false;
+        }
+        CRC32 checksum = new CRC32();
+        ByteBuffer payload = records.duplicate();
+        payload.limit(offset + HEADER_SIZE + length);
+        payload.position(offset + HEADER_SIZE);
+        checksum.update(payload);
+        return records.getInt(offset + Integer.BYTES) == (int) checksum.getValue();
+    }
+
+    /**
+     * Makes the record current state of its task: replaces previous record in the indexes.
+     */
+    private void applyPut(final long location) {
+        ByteBuffer records = getSegment(location).view();
+        int offset = getOffset(location);
+        long msb = records.getLong(offset + MOST_SIGNIFICANT_BITS_OFFSET);
+        long lsb = records.getLong(offset + LEAST_SIGNIFICANT_BITS_OFFSET);
+        int row = idIndex.get(msb, lsb);
+        if (row >= 0) {
+            release(locations[row]);
+        } else {
+            row = allocateRow();
+            idIndex.putIfAbsent(msb, lsb, row);
+        }
+        locations[row] = location;
+        getStatusIndex(readStatus(location)).add(new IndexKey(records.getLong(offset + CREATED_AT_OFFSET), msb, lsb));
+        getSegment(location).addLiveBytes(HEADER_SIZE + records.getInt(offset));
+    }
+
+    /**
+     * Removes task of the removal record from the indexes. Removal record itself is live.
+     */
+    private void applyDelete(final long location) {
+        ByteBuffer records = getSegment(location).view();
+        int offset = getOffset(location);
+        int row = idIndex.remove(records.getLong(offset + MOST_SIGNIFICANT_BITS_OFFSET),
+                records.getLong(offset + LEAST_SIGNIFICANT_BITS_OFFSET));
+        if (row >= 0) {
+            release(locations[row]);
+            freeRows[freeRowCount++] = row;
+        }
+        getSegment(location).addLiveBytes(DELETE_RECORD_SIZE);
+    }
+
+    /**
+     * Removes replaced record from status index and counts its bytes as garbage.
+     */
+    private void release(final long location) {
+        ByteBuffer records = getSegment(location).view();
+        int offset = getOffset(location);
+        NavigableSet<IndexKey> index = getStatusIndex(readStatus(location));
+        index.remove(new IndexKey(records.getLong(offset + CREATED_AT_OFFSET),
+                records.getLong(offset + MOST_SIGNIFICANT_BITS_OFFSET),
+                records.getLong(offset + LEAST_SIGNIFICANT_BITS_OFFSET)));
+        getSegment(location).addLiveBytes(-(HEADER_SIZE + records.getInt(offset)));
+    }
+
+    private int allocateRow() {
+        if (freeRowCount > 0) {
+            return freeRows[--freeRowCount];
+        }
+        if (rowLimit == locations.length) {
+            int capacity = locations.length * 2;
+            long[] newLocations = new long[capacity];
+            System.arraycopy(locations, 0, newLocations, 0, rowLimit);
+            locations = newLocations;
+            int[] newFreeRows = new int[capacity];
+            System.arraycopy(freeRows, 0, newFreeRows, 0, freeRowCount);
+            freeRows = newFreeRows;
+        }
+        return rowLimit++;
+    }
+
+    private long append(final byte[] record) {
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("Task record of " + record.length + " bytes is larger than segment");
+        }
+        int offset = activeSegment.append(record);
+        if (offset < 0) {
+            activeSegment.force();
+            activeSegment = createSegment(segments.lastKey() + 1);
+            offset = activeSegment.append(record);
+        }
+        return toLocation(activeSegment.getNumber(), offset);
+    }
+
+    /**
+     * Writes length and checksum of the payload into the record header.
+     */
+    private static byte[] seal(final ByteBuffer record) {
+        int length = record.capacity() - HEADER_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), HEADER_SIZE, length);
+        record.putInt(0, length);
+        record.putInt(Integer.BYTES, (int) checksum.getValue());
+        return record.array();
+    }
+
+    private SegmentFile createSegment(final int number) {
+        try {
+            SegmentFile segment = new SegmentFile(number, getSegmentPath(number), segmentSize);
+            segments.put(number, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private NavigableSet<IndexKey> getStatusIndex(final String status) {
+        return statusIndexes.computeIfAbsent(status, key -> new TreeSet<>());
+    }
+
+    private SegmentFile getSegment(final long location) {
+        return segments.get((int) (location >>> Integer.SIZE));
+    }
+
+    private static int getOffset(final long location) {
+        return (int) location;
+    }
+
+    private static long toLocation(final int number, final int offset) {
+        return (long) number << Integer.SIZE | offset;
+    }
+
+    /**
+     * Decodes UTF-8 bytes of the mapped page without copying them to an array first.
+     */
+    private static String decode(final ByteBuffer records, final int offset, final int length) {
+        ByteBuffer bytes = records.duplicate();
+        bytes.limit(offset + length);
+        bytes.position(offset);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    private static Instant toInstant(final long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Integer.parseInt(matcher.group(1)));
+                }
+            });
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private Path getSegmentPath(final int number) {
+        return directory.resolve(String.format("segment-%010d.seg", number));
+    }
+
+    /**
+     * Key of ordered status index: creation time and id of a task, the order of task lists.
+     */
+    private static final class IndexKey implements Comparable<IndexKey> {
+        private final long createdAt;
+        private final long mostSignificantBits;
+        private final long leastSignificantBits;
+
+        IndexKey(final long createdAt, final long mostSignificantBits, final long leastSignificantBits) {
+            this.createdAt = createdAt;
+            this.mostSignificantBits = mostSignificantBits;
+            this.leastSignificantBits = leastSignificantBits;
+        }
+
+        @Override
+        public int compareTo(final IndexKey other) {
+            int result = Long.compare(createdAt, other.createdAt);
+            if (result == 0) {
+                result = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+            }
+            return result != 0 ? result : Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+        }
+    }
+}
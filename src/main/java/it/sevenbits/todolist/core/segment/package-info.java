@@ -0,0 +1,6 @@
+/**
+ * This package contains log-structured storage of tasks in memory-mapped segment files.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.segment;
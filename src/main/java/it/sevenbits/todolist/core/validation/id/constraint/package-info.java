@@ -1,6 +0,0 @@
-/**
- * This package contains custom annotations that are used for constraint validation of task id.
- *
- * @author sarahwhereismycoffee
- */
-package it.sevenbits.todolist.core.validation.id.constraint;
\ No newline at end of file
@@ -1,6 +1,6 @@
 package it.sevenbits.todolist.core.validation.id.service;
 
-import java.util.regex.Pattern;
+import it.sevenbits.todolist.core.model.TaskId;
 
 /**
  * Service provides task id validation.
@@ -8,17 +8,13 @@ import java.util.regex.Pattern;
 public class TaskIDValidator implements ITaskIDValidator {
     /**
      * Method that presents validation of passed task id.
+     * Id is checked by TaskId parser, so validation does not create any objects.
      *
      * @param id Task id to validate.
      * @return Boolean value that represents validation result.
      */
     @Override
     public boolean isValidTaskID(final String id) {
-        String reg = "([a-fA-F0-9]{8}" +
-                "-[a-fA-F0-9]{4}" +
-                "-[a-fA-F0-9]{4}" +
-                "-[a-fA-F0-9]{4}" +
-                "-[a-fA-F0-9]{12})";
-        return Pattern.matches(reg, id);
+        return TaskId.isValid(id);
     }
 }
@@ -0,0 +1,461 @@
+package it.sevenbits.todolist.core.writebehind;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import it.sevenbits.todolist.core.metrics.LatencyHistogram;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.persistence.ITaskChangeLog;
+import it.sevenbits.todolist.core.repository.DatabaseTasksRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class writes changes of in-memory tasks to the data base asynchronously.
+ *
+ * Changes are queued by task id, and a change of a task that is already queued replaces the queued state,
+ * so a task changed many times between flushes is written once. A flusher thread takes up to maxBatchSize
+ * of the oldest queued tasks and writes them by one upsert and one delete, then takes the next batch,
+ * so batches grow while the data base is slower than changes. A failed batch is queued again before newer
+ * changes of the same tasks, and written after retryDelay.
+ *
+ * Changes are acknowledged before they are written, so changes queued when the process dies are lost,
+ * and the data base must not be changed by anyone else. A change waits before it is applied while
+ * the queue holds maxQueueSize tasks or its oldest change is older than maxLag, and fails if the queue
+ * does not catch up in maxBlock.
+ */
+public class WriteBehindQueue implements ITaskChangeLog, IMetricsSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final DatabaseTasksRepository target;
+    private final int maxBatchSize;
+    private final int maxQueueSize;
+    private final long maxLagNanos;
+    private final long maxBlockNanos;
+    private final long retryDelayMillis;
+
+    private final ReentrantLock lock;
+    private final Condition changesQueued;
+    private final Condition queueDrained;
+    private final ThreadLocal<int[]> changeDepth;
+    private LinkedHashMap<TaskId, PendingChange> pending;
+    private long flushingSince;
+    private int inFlightCount;
+    private Thread flusherThread;
+    private volatile boolean running;
+
+    private final LongAdder queuedChanges;
+    private final LongAdder coalescedChanges;
+    private final LongAdder writtenTasks;
+    private final LongAdder failedBatches;
+    private final LongAdder throttledChanges;
+    private final LatencyHistogram batchSizes;
+    private final LatencyHistogram writeTime;
+    private final LatencyHistogram flushLag;
+    private final LatencyHistogram throttleTime;
+    private volatile long warmedUpTasks;
+    private volatile long warmUpMillis;
+
+    /**
+     * Constructor of WriteBehindQueue class. The flusher thread is started by recover method.
+     *
+     * @param target Repository changes are written to.
+     * @param maxBatchSize Maximal number of tasks written by one batch.
+     * @param maxQueueSize Number of queued tasks at which changes start to wait.
+     * @param maxLagMillis Age of the oldest queued change at which changes start to wait, in milliseconds.
+     * @param maxBlockMillis Maximal time a change waits for the queue, in milliseconds.
+     * @param retryDelayMillis Pause after a failed batch in milliseconds.
+     */
+    public WriteBehindQueue(final DatabaseTasksRepository target, final int maxBatchSize, final int maxQueueSize,
+                            final long maxLagMillis, final long maxBlockMillis, final long retryDelayMillis) {
+        if (maxBatchSize < 1 || maxQueueSize < 1) {
+            throw new IllegalArgumentException(
+                    "Batch and queue sizes must be positive: " + maxBatchSize + ", " + maxQueueSize);
+        }
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.maxQueueSize = maxQueueSize;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(maxBlockMillis);
+        this.retryDelayMillis = retryDelayMillis;
+        this.lock = new ReentrantLock();
+        this.changesQueued = lock.newCondition();
+        this.queueDrained = lock.newCondition();
+        this.changeDepth = ThreadLocal.withInitial(() -> new int[1]);
+        this.pending = new LinkedHashMap<>();
+        this.queuedChanges = new LongAdder();
+        this.coalescedChanges = new LongAdder();
+        this.writtenTasks = new LongAdder();
+        this.failedBatches = new LongAdder();
+        this.throttledChanges = new LongAdder();
+        this.batchSizes = new LatencyHistogram();
+        this.writeTime = new LatencyHistogram();
+        this.flushLag = new LatencyHistogram();
+        this.throttleTime = new LatencyHistogram();
+    }
+
+    /**
+     * This method warms in-memory tasks up with all tasks of the data base, archived ones included,
+     * then starts the flusher thread.
+     *
+     * @param onPut Consumer of stored tasks.
+     * @param onDelete Consumer of ids of removed tasks, it is not called.
+     */
+    @Override
+    public void recover(final Consumer<Task> onPut, final Consumer<TaskId> onDelete) {
+        long startedAt = System.nanoTime();
+        warmedUpTasks = target.exportTasks(null, onPut);
+        warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        LOGGER.info("{} tasks loaded from data base in {} ms", warmedUpTasks, warmUpMillis);
+
+        running = true;
+        flusherThread = new Thread(this::flush, "write-behind-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+    }
+
+    /**
+     * This method runs a change of tasks after the queue is below its limits.
+     * Changes nested into another one do not wait, so a change is never applied partially.
+     *
+     * @param change Change that applies tasks to memory and queues them.
+     * @param <T> Type of change result.
+     * @return Result of the change.
+     */
+    @Override
+    public <T> T change(final Supplier<T> change) {
+        int[] depth = changeDepth.get();
+        if (depth[0] == 0) {
+            awaitCapacity();
+        }
+        depth[0]++;
+        try {
+            return change.get();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    /**
+     * This method queues the new state of a task.
+     *
+     * @param task Task state.
+     */
+    @Override
+    public void logPut(final Task task) {
+        enqueue(task.getId(), task);
+    }
+
+    /**
+     * This method queues removal of a task.
+     *
+     * @param id Id of removed task.
+     */
+    @Override
+    public void logDelete(final TaskId id) {
+        enqueue(id, null);
+    }
+
+    /**
+     * This method does nothing: the data base always holds the whole state.
+     *
+     * @param tasks Live view of all tasks.
+     */
+    @Override
+    public void snapshot(final Collection<Task> tasks) {
+    }
+
+    /**
+     * This method returns number of tasks whose changes are not written yet, the batch being written included.
+     *
+     * @return Number of tasks.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size() + inFlightCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method returns age of the oldest change that is not written yet.
+     *
+     * @return Age in milliseconds, 0 if everything is written.
+     */
+    public long getFlushLagMillis() {
+        lock.lock();
+        try {
+            long oldest = getOldestQueuedAt();
+            return oldest == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method stops the flusher thread after it writes queued changes.
+     * If the data base fails meanwhile, the remaining changes are lost and logged as an error.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            changesQueued.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusherThread == null) {
+            return;
+        }
+        try {
+            flusherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "writeBehind";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", getQueueDepth());
+        metrics.put("flushLagMillis", getFlushLagMillis());
+        metrics.put("maxQueueSize", maxQueueSize);
+        metrics.put("maxLagMillis", TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+        metrics.put("queuedChanges", queuedChanges.sum());
+        metrics.put("coalescedChanges", coalescedChanges.sum());
+        metrics.put("writtenTasks", writtenTasks.sum());
+        metrics.put("failedBatches", failedBatches.sum());
+        metrics.put("throttledChanges", throttledChanges.sum());
+        metrics.put("warmedUpTasks", warmedUpTasks);
+        metrics.put("warmUpMillis", warmUpMillis);
+        metrics.put("batchSize", batchSizes.snapshot());
+        metrics.put("writeMicros", writeTime.snapshot());
+        metrics.put("flushLagMicros", flushLag.snapshot());
+        metrics.put("throttleMicros", throttleTime.snapshot());
+        return metrics;
+    }
+
+    private void enqueue(final TaskId id, final Task task) {
+        lock.lock();
+        try {
+            PendingChange queued = pending.get(id);
+            if (queued == null) {
+                pending.put(id, new PendingChange(task, System.nanoTime()));
+                changesQueued.signal();
+            } else {
+                queued.task = task;
+                coalescedChanges.increment();
+            }
+            queuedChanges.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits while the queue is over its limits. Must not be called inside compute of a task entry.
+     */
+    private void awaitCapacity() {
+        lock.lock();
+        try {
+            if (!isLagging()) {
+                return;
+            }
+            throttledChanges.increment();
+            long startedAt = System.nanoTime();
+            long remaining = maxBlockNanos;
+            while (isLagging()) {
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Changes are not written to data base for "
+                            + getFlushLagMillis() + " ms, " + pending.size() + " tasks are queued");
+                }
+                remaining = queueDrained.awaitNanos(remaining);
+            }
+            throttleTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for write-behind queue", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private boolean isLagging() {
+        if (pending.size() >= maxQueueSize) {
+            return true;
+        }
+        long oldest = getOldestQueuedAt();
+        return oldest != 0 && System.nanoTime() - oldest > maxLagNanos;
+    }
+
+    /**
+     * Returns time the oldest unwritten change was queued at, 0 if there are none. Must be called under the lock.
+     */
+    private long getOldestQueuedAt() {
+        if (flushingSince != 0) {
+            return flushingSince;
+        }
+        return pending.isEmpty() ? 0 : pending.values().iterator().next().queuedAt;
+    }
+
+    private void flush() {
+        while (true) {
+            Map<TaskId, PendingChange> batch = takeBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!write(batch)) {
+                if (!running) {
+                    LOGGER.error("{} changes were not written to data base before shutdown", getQueueDepth());
+                    return;
+                }
+                requeue(batch);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest queued changes, waits for them while running. Returns empty batch when stopped and drained.
+     */
+    private Map<TaskId, PendingChange> takeBatch() {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && running) {
+                changesQueued.await(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            Map<TaskId, PendingChange> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<TaskId, PendingChange>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<TaskId, PendingChange> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            flushingSince = batch.isEmpty() ? 0 : batch.values().iterator().next().queuedAt;
+            inFlightCount = batch.size();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(final Map<TaskId, PendingChange> batch) {
+        List<Task> puts = new ArrayList<>();
+        List<TaskId> deletes = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Map.Entry<TaskId, PendingChange> entry : batch.entrySet()) {
+                if (entry.getValue().task == null) {
+                    deletes.add(entry.getKey());
+                } else {
+                    puts.add(entry.getValue().task);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            target.deleteTasks(deletes);
+            target.saveTasks(puts);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Batch of {} changes was not written to data base, retrying in {} ms",
+                    batch.size(), retryDelayMillis, e);
+            failedBatches.increment();
+            return false;
+        }
+        long end = System.nanoTime();
+
+        batchSizes.record(batch.size());
+        writeTime.record(TimeUnit.NANOSECONDS.toMicros(end - start));
+        for (PendingChange change : batch.values()) {
+            flushLag.record(TimeUnit.NANOSECONDS.toMicros(end - change.queuedAt));
+        }
+        writtenTasks.add(batch.size());
+        lock.lock();
+        try {
+            flushingSince = 0;
+            inFlightCount = 0;
+            queueDrained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Puts failed batch before queued changes. A task changed again meanwhile keeps its newer state
+     * and the time its failed change was queued at.
+     */
+    private void requeue(final Map<TaskId, PendingChange> batch) {
+        lock.lock();
+        try {
+            LinkedHashMap<TaskId, PendingChange> requeued = new LinkedHashMap<>(batch);
+            for (Map.Entry<TaskId, PendingChange> entry : pending.entrySet()) {
+                PendingChange failed = requeued.get(entry.getKey());
+                if (failed == null) {
+                    requeued.put(entry.getKey(), entry.getValue());
+                } else {
+                    failed.task = entry.getValue().task;
+                }
+            }
+            pending = requeued;
+            flushingSince = 0;
+            inFlightCount = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Latest state of a queued task, null task for removal.
+     */
+    private static final class PendingChange {
+        private Task task;
+        private final long queuedAt;
+
+        private PendingChange(final Task task, final long queuedAt) {
+            this.task = task;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
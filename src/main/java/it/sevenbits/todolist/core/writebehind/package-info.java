@@ -0,0 +1,6 @@
+/**
+ * This package contains queue that writes changes of in-memory tasks to the data base behind them.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.core.writebehind;
@@ -0,0 +1,134 @@
+package it.sevenbits.todolist.web.controllers;
+
+import it.sevenbits.todolist.core.bulk.BulkOperation;
+import it.sevenbits.todolist.core.bulk.BulkOperationService;
+import it.sevenbits.todolist.core.bulk.TaskFilter;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.validation.status.service.ITaskStatusValidator;
+import it.sevenbits.todolist.web.exceptions.BulkOperationNotFoundException;
+import it.sevenbits.todolist.web.exceptions.InvalidBulkActionException;
+import it.sevenbits.todolist.web.exceptions.InvalidTaskFilterException;
+import it.sevenbits.todolist.web.exceptions.InvalidTaskStatusException;
+import it.sevenbits.todolist.web.model.BulkTaskRequest;
+import it.sevenbits.todolist.web.model.TaskFilterRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * This class presents Spring REST @Controller controller functionality
+ * for bulk operations on tasks selected by a filter.
+ */
+@Controller
+@RequestMapping("/tasks/bulk")
+public class BulkOperationsController {
+    private final BulkOperationService bulkOperationService;
+    private final ITaskStatusValidator taskStatusValidator;
+
+    /**
+     * Class constructor.
+     *
+     * @param bulkOperationService BulkOperationService instance.
+     * @param taskStatusValidator ITaskStatusValidator service instance.
+     */
+    public BulkOperationsController(final BulkOperationService bulkOperationService,
+                                    final ITaskStatusValidator taskStatusValidator) {
+        this.bulkOperationService = bulkOperationService;
+        this.taskStatusValidator = taskStatusValidator;
+    }
+
+    /**
+     * Method that starts bulk operation on tasks selected by filter.
+     * That method handles POST request to "/tasks/bulk".
+     *
+     * @param bulkTaskRequest "Bulk task" request model.
+     *                        If it is not valid, status code "400 - Bad Request" will be returned.
+     * @return Response that contains started operation and its location.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @ResponseBody
+    public ResponseEntity<BulkOperation> startOperation(@RequestBody final BulkTaskRequest bulkTaskRequest) {
+        TaskFilter filter = getTaskFilter(bulkTaskRequest.getFilter());
+
+        BulkOperation operation;
+        if (BulkOperationService.UPDATE.equals(bulkTaskRequest.getAction())) {
+            if (bulkTaskRequest.getStatus() == null
+                    || !taskStatusValidator.isValidOrder(bulkTaskRequest.getStatus())) {
+                throw new InvalidTaskStatusException();
+            }
+            operation = bulkOperationService.startUpdate(filter, bulkTaskRequest.getStatus());
+        } else if (BulkOperationService.DELETE.equals(bulkTaskRequest.getAction())) {
+            operation = bulkOperationService.startDelete(filter);
+        } else {
+            throw new InvalidBulkActionException();
+        }
+
+        return ResponseEntity
+                .accepted()
+                .location(UriComponentsBuilder
+                        .fromPath("/tasks/bulk/")
+                        .path(operation.getId())
+                        .build()
+                        .toUri())
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(operation);
+    }
+
+    /**
+     * Method that returns progress of bulk operation.
+     * That method handles GET request to "/tasks/bulk/{id}".
+     *
+     * @param id Operation id.
+     * @return Response that contains operation state and count of affected tasks.
+     */
+    @GetMapping(value = "/{id}")
+    @ResponseBody
+    public ResponseEntity<BulkOperation> getOperation(@PathVariable("id") final String id) {
+        BulkOperation operation = bulkOperationService.getOperation(id);
+        if (operation == null) {
+            throw new BulkOperationNotFoundException();
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(operation);
+    }
+
+    private TaskFilter getTaskFilter(final TaskFilterRequest filterRequest) {
+        if (filterRequest == null) {
+            return new TaskFilter(null, null, null, null, null);
+        }
+        if (filterRequest.getStatus() != null && !taskStatusValidator.isValidOrder(filterRequest.getStatus())) {
+            throw new InvalidTaskStatusException();
+        }
+        return new TaskFilter(
+                filterRequest.getStatus(),
+                parseFilterTime(filterRequest.getCreatedAfter()),
+                parseFilterTime(filterRequest.getCreatedBefore()),
+                parseFilterTime(filterRequest.getUpdatedAfter()),
+                parseFilterTime(filterRequest.getUpdatedBefore()));
+    }
+
+    private Instant parseFilterTime(final String time) {
+        if (time == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(time, Task.DATE_TIME_FORMATTER).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new InvalidTaskFilterException();
+        }
+    }
+}
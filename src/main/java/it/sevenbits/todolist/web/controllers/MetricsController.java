@@ -0,0 +1,53 @@
+package it.sevenbits.todolist.web.controllers;
+
+import it.sevenbits.todolist.core.metrics.IMetricsSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class presents Spring REST @Controller controller functionality
+ * for metrics of the application.
+ */
+@Controller
+@RequestMapping("/metrics")
+public class MetricsController {
+    private final List<IMetricsSource> metricsSources;
+
+    /**
+     * Constructor of MetricsController class.
+     *
+     * @param metricsSources All metrics sources of the application.
+     */
+    public MetricsController(final List<IMetricsSource> metricsSources) {
+        this.metricsSources = new ArrayList<>(metricsSources);
+    }
+
+    /**
+     * Method that returns metrics of all metrics sources grouped by source name.
+     * That method handles GET request to "/metrics".
+     *
+     * @return Metrics of the application.
+     */
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (IMetricsSource metricsSource : metricsSources) {
+            metrics.put(metricsSource.getMetricsName(), metricsSource.getMetrics());
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(metrics);
+    }
+}
@@ -1,15 +1,37 @@
 package it.sevenbits.todolist.web.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.sevenbits.todolist.core.cache.TaskPageCache;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
 import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
 import it.sevenbits.todolist.core.repository.ITasksRepository;
+import it.sevenbits.todolist.core.routing.ReadRoutingContext;
+import it.sevenbits.todolist.core.search.SearchTerms;
 import it.sevenbits.todolist.core.validation.order.IPageOrderValidator;
 import it.sevenbits.todolist.web.exceptions.*;
 import it.sevenbits.todolist.web.model.AddTaskRequest;
+import it.sevenbits.todolist.web.model.BatchTaskResult;
+import it.sevenbits.todolist.web.model.BatchUpdateTaskRequest;
+import it.sevenbits.todolist.web.model.CreatedTaskResponse;
+import it.sevenbits.todolist.web.importing.CsvTaskImportReader;
+import it.sevenbits.todolist.web.importing.NdjsonTaskImportReader;
+import it.sevenbits.todolist.web.importing.TaskImportReader;
+import it.sevenbits.todolist.web.model.TasksImportResponse;
+import it.sevenbits.todolist.web.model.TasksLookupResponse;
+import it.sevenbits.todolist.web.model.TasksSearchResponse;
 import it.sevenbits.todolist.web.model.UpdateTaskRequest;
 import it.sevenbits.todolist.core.validation.id.service.ITaskIDValidator;
 import it.sevenbits.todolist.core.validation.status.service.ITaskStatusValidator;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -22,11 +44,26 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.Optional;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class presents Spring REST @Controller controller functionality
@@ -36,10 +73,22 @@ import java.util.Optional;
 @Controller
 @RequestMapping("/tasks")
 public class TasksController {
+    private static final int MAX_SEARCH_TERMS = 16;
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    private static final ObjectWriter TASK_WRITER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .writerFor(Task.class)
+            .withRootValueSeparator("");
+
     private final ITasksRepository dataBaseTasksRepository;
     private final ITaskIDValidator taskIDValidator;
     private final ITaskStatusValidator taskStatusValidator;
     private final IPageOrderValidator pageOrderValidator;
+    private final ITaskIdGenerator taskIdGenerator;
+    private final TaskPageCache taskPageCache;
 
     /**
      * Class constructor.
@@ -47,20 +96,30 @@ public class TasksController {
      * @param dataBaseTasksRepository ITaskRepository instance.
      * @param taskIDValidator ITaskIDValidator service instance.
      * @param taskStatusValidator ITaskStatusValidator service instance.
+     * @param pageOrderValidator IPageOrderValidator service instance.
+     * @param taskIdGenerator ITaskIdGenerator service instance.
+     * @param taskPageCache Cache of serialized task list pages, if it is enabled.
      */
     public TasksController(final ITasksRepository dataBaseTasksRepository,
                            final ITaskIDValidator taskIDValidator,
                            final ITaskStatusValidator taskStatusValidator,
-                           final IPageOrderValidator pageOrderValidator) {
+                           final IPageOrderValidator pageOrderValidator,
+                           final ITaskIdGenerator taskIdGenerator,
+                           final ObjectProvider<TaskPageCache> taskPageCache) {
         this.dataBaseTasksRepository = dataBaseTasksRepository;
         this.taskIDValidator = taskIDValidator;
         this.taskStatusValidator = taskStatusValidator;
         this.pageOrderValidator = pageOrderValidator;
+        this.taskIdGenerator = taskIdGenerator;
+        this.taskPageCache = taskPageCache.getIfAvailable();
     }
 
     /**
      * Method that returns list of all tasks from task repository.
      * That method handles GET request to "/".
+     * Passing "cursor" parameter (empty for the first page) switches to keyset pagination,
+     * in that case "page" parameter is ignored.
+     * If page cache is enabled, numbered pages are written from cached bytes while their status list is not changed.
 
      * @return Response that contains information about:
      *                                -Request body
@@ -69,11 +128,12 @@ public class TasksController {
      */
     @GetMapping
     @ResponseBody
-    public ResponseEntity<JsonNode> getAllTasks(
+    public ResponseEntity<?> getAllTasks(
             @RequestParam(value = "status", required = false) final String status,
             @RequestParam(value = "order", required = false) final String order,
             @RequestParam(value = "page", required = false) final Short page,
-            @RequestParam(value = "size", required = false) final Short size) {
+            @RequestParam(value = "size", required = false) final Short size,
+            @RequestParam(value = "cursor", required = false) final String cursor) {
 
         final int pageMinTasksCount = 10;
         final int pageMaxTasksCount = 50;
@@ -86,6 +146,22 @@ public class TasksController {
         if (size != null && (size < pageMinTasksCount || size > pageMaxTasksCount)) {
             throw new InvalidPageSizeException();
         }
+        TaskCursor taskCursor = null;
+        if (cursor != null) {
+            try {
+                taskCursor = TaskCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPageCursorException();
+            }
+        }
+
+        if (taskCursor == null && taskPageCache != null) {
+            return ResponseEntity
+                    .ok()
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .body(taskPageCache.getPage(status, order, page, size,
+                            () -> dataBaseTasksRepository.getAllTasks(status, order, page, size, null)));
+        }
 
         return ResponseEntity
                 .ok()
@@ -94,10 +170,163 @@ public class TasksController {
                         status,
                         order,
                         page,
-                        size)
+                        size,
+                        taskCursor)
                 );
     }
 
+    /**
+     * Method that finds tasks whose text has a word starting with each word of the query.
+     * That method handles GET request to "/search".
+     * Words are runs of letters and digits, case is ignored. Tasks are ordered by relevance.
+     *
+     * @param query Search query, it must contain from 1 to MAX_SEARCH_TERMS words.
+     * @param status Status of tasks to find, all statuses if it is not passed.
+     * @param page Number of the page, starting with 1.
+     * @param size Size of the page.
+     * @return Response that contains the page of found tasks.
+     */
+    @GetMapping(value = "/search")
+    @ResponseBody
+    public ResponseEntity<TasksSearchResponse> searchTasks(
+            @RequestParam(value = "q", required = false) final String query,
+            @RequestParam(value = "status", required = false) final String status,
+            @RequestParam(value = "page", required = false) final Short page,
+            @RequestParam(value = "size", required = false) final Short size) {
+
+        final int pageMinTasksCount = 10;
+        final int pageMaxTasksCount = 50;
+        final int pageDefaultTasksCount = 25;
+        List<String> queryTerms = query == null ? new ArrayList<>() : SearchTerms.parseQuery(query);
+        if (queryTerms.isEmpty() || queryTerms.size() > MAX_SEARCH_TERMS) {
+            throw new InvalidSearchQueryException();
+        }
+        if (!taskStatusValidator.isValidOrder(status)) {
+            throw new InvalidTaskStatusException();
+        }
+        if (size != null && (size < pageMinTasksCount || size > pageMaxTasksCount)) {
+            throw new InvalidPageSizeException();
+        }
+        int pageToUse = page == null || page < 1 ? 1 : page;
+        int sizeToUse = size == null ? pageDefaultTasksCount : size;
+
+        List<Task> tasks = dataBaseTasksRepository.searchTasks(
+                queryTerms, status, (pageToUse - 1) * sizeToUse, sizeToUse + 1);
+        boolean hasNextPage = tasks.size() > sizeToUse;
+        if (hasNextPage) {
+            tasks = tasks.subList(0, sizeToUse);
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(new TasksSearchResponse(
+                        pageToUse,
+                        sizeToUse,
+                        hasNextPage ? getSearchLink(query, status, pageToUse + 1, size) : null,
+                        pageToUse > 1 ? getSearchLink(query, status, pageToUse - 1, size) : null,
+                        tasks));
+    }
+
+    private String getSearchLink(final String query, final String status, final int page, final Short size) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/tasks/search")
+                .queryParam("q", query);
+        if (status != null) {
+            builder.queryParam("status", status);
+        }
+        builder.queryParam("page", page);
+        if (size != null) {
+            builder.queryParam("size", size);
+        }
+        return builder.build().encode().toUriString();
+    }
+
+    /**
+     * Method that streams all tasks with given status as newline delimited JSON, one task per line.
+     * That method handles GET request to "/export".
+     * Tasks are written while they are read from repository, so memory use does not depend
+     * on number of tasks. Order of tasks is not defined.
+     *
+     * @param status Status of tasks to export, all statuses if it is not passed.
+     * @return Response that streams tasks.
+     */
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(value = "status", required = false) final String status) {
+        if (!taskStatusValidator.isValidOrder(status)) {
+            throw new InvalidTaskStatusException();
+        }
+        // the body is written by another thread, it reads from the same place the request would
+        final boolean read = ReadRoutingContext.isRead();
+        final long requiredPosition = ReadRoutingContext.getRequiredPosition();
+
+        StreamingResponseBody body = outputStream -> {
+            if (read) {
+                ReadRoutingContext.startRead(requiredPosition);
+            }
+            try (JsonGenerator generator = TASK_WRITER.getFactory().createGenerator(outputStream)) {
+                dataBaseTasksRepository.exportTasks(status, task -> {
+                    try {
+                        TASK_WRITER.writeValue(generator, task);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                ReadRoutingContext.clear();
+            }
+        };
+
+        return ResponseEntity
+                .ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Method that imports tasks from request body, newline delimited JSON or CSV with a header line.
+     * That method handles POST request to "/import".
+     * Records are validated and passed to repository while the body is read, so memory use
+     * does not depend on body size. Invalid records and records with ids of existing tasks are rejected,
+     * malformed body rejects the whole import with status code "400 - Bad Request".
+     *
+     * @param request Request with the body to import.
+     * @return Response that contains numbers of accepted and rejected records.
+     * @throws IOException if request body can not be read.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ResponseBody
+    public ResponseEntity<TasksImportResponse> importTasks(final HttpServletRequest request) throws IOException {
+        TaskImportReader taskImportReader;
+        if (MediaType.parseMediaType(request.getContentType()).isCompatibleWith(CSV)) {
+            Charset charset = request.getCharacterEncoding() == null
+                    ? StandardCharsets.UTF_8
+                    : Charset.forName(request.getCharacterEncoding());
+            taskImportReader = new CsvTaskImportReader(
+                    new BufferedReader(new InputStreamReader(request.getInputStream(), charset)),
+                    taskIDValidator, taskStatusValidator, taskIdGenerator);
+        } else {
+            taskImportReader = new NdjsonTaskImportReader(
+                    request.getInputStream(), taskIDValidator, taskStatusValidator, taskIdGenerator);
+        }
+
+        long accepted;
+        try {
+            accepted = dataBaseTasksRepository.importTasks(taskImportReader);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long rejected = taskImportReader.getRejectedCount() + taskImportReader.getReadCount() - accepted;
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(new TasksImportResponse(accepted, rejected, taskImportReader.getErrors()));
+    }
+
     /**
      * Method that adds new task to repository.
      * That method handles POST request to "/".
@@ -122,20 +351,57 @@ public class TasksController {
                 .build();
     }
 
+    /**
+     * Method that adds several new tasks to repository in one transaction.
+     * That method handles POST request to "/tasks/batch".
+     *
+     * @param addTaskRequests List of "Add task" request models. It is required parameter.
+     *                        If any of them is not valid, status code "400 - Bad Request" will be returned
+     *                        and no task will be added.
+     * @return Response that contains ids and locations of created tasks in the order of request models.
+     */
+    @PostMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<CreatedTaskResponse>> createTasks(
+            @RequestBody final List<AddTaskRequest> addTaskRequests) {
+        validateBatchSize(addTaskRequests);
+        for (AddTaskRequest addTaskRequest : addTaskRequests) {
+            if (addTaskRequest == null
+                    || addTaskRequest.getText() == null
+                    || addTaskRequest.getText().trim().isEmpty()) {
+                throw new InvalidTaskTextException();
+            }
+        }
+
+        List<CreatedTaskResponse> createdTasks = new ArrayList<>(addTaskRequests.size());
+        for (Task task : dataBaseTasksRepository.addTasks(addTaskRequests)) {
+            createdTasks.add(new CreatedTaskResponse(
+                    task.getId().toString(),
+                    UriComponentsBuilder
+                            .fromPath("/tasks/")
+                            .path(task.getId().toString())
+                            .build()
+                            .toString()));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(createdTasks);
+    }
+
     /**
      * Method that returns task by passed task id.
      * That method handles GET request to "/tasks/{id}".
      *
      * @param id Id of task to return. It is required parameter.
+     *           If it is not valid, status code "404 - Not Found" will be returned.
      * @return Response that contains all the information
      *      about the operation status,content type and location.
      */
     @GetMapping(value = "/{id}")
-    public ResponseEntity<Task> getTaskByID(@PathVariable("id") final String id) {
-        if (!taskIDValidator.isValidTaskID(id)) {
-            throw new InvalidTaskIDException();
-        }
-
+    public ResponseEntity<Task> getTaskByID(@PathVariable("id") final TaskId id) {
         Task currentTask = dataBaseTasksRepository.getTaskByID(id);
         if (currentTask == null) {
             throw new TaskNotFoundException();
@@ -146,6 +412,52 @@ public class TasksController {
                 .contentType(MediaType.APPLICATION_JSON_UTF8)
                 .body(currentTask);
     }
+    /**
+     * Method that returns tasks by passed list of task ids using one repository query.
+     * That method handles POST request to "/tasks/lookup".
+     *
+     * @param ids List of ids of tasks to return.
+     * @return Response that contains found tasks in the order of passed ids,
+     *      ids of missing tasks and ids that are not valid.
+     */
+    @PostMapping(value = "/lookup",
+            consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @ResponseBody
+    public ResponseEntity<TasksLookupResponse> lookupTasks(@RequestBody final List<String> ids) {
+        validateBatchSize(ids);
+
+        Set<TaskId> validIds = new LinkedHashSet<>();
+        List<String> invalidIds = new ArrayList<>();
+        for (String id : ids) {
+            TaskId taskId = toTaskId(id);
+            if (taskId != null) {
+                validIds.add(taskId);
+            } else {
+                invalidIds.add(id);
+            }
+        }
+
+        Map<TaskId, Task> foundTasks = new HashMap<>();
+        for (Task task : dataBaseTasksRepository.getTasksByIDs(validIds)) {
+            foundTasks.put(task.getId(), task);
+        }
+        List<Task> tasks = new ArrayList<>(foundTasks.size());
+        List<String> missingIds = new ArrayList<>();
+        for (TaskId id : validIds) {
+            Task task = foundTasks.get(id);
+            if (task != null) {
+                tasks.add(task);
+            } else {
+                missingIds.add(id.toString());
+            }
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(new TasksLookupResponse(tasks, missingIds, invalidIds));
+    }
+
     /**
      *
      * Method that deletes task by passed task id.
@@ -156,16 +468,10 @@ public class TasksController {
      *      about the operation status,content type and location.
      */
     @DeleteMapping(value = "/{id}")
-    public ResponseEntity<Task> deleteTaskByID(@PathVariable("id") final String id) {
-        if (!taskIDValidator.isValidTaskID(id)) {
-            throw new InvalidTaskIDException();
-        }
-
-        Task currentTask = dataBaseTasksRepository.getTaskByID(id);
-        if (currentTask == null) {
+    public ResponseEntity<Task> deleteTaskByID(@PathVariable("id") final TaskId id) {
+        if (dataBaseTasksRepository.deleteTask(id) == null) {
             throw new TaskNotFoundException();
         }
-        dataBaseTasksRepository.deleteTask(id);
 
         return ResponseEntity
                 .ok()
@@ -185,12 +491,8 @@ public class TasksController {
      */
     @PatchMapping(value = "/{id}",
             consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<Task> updateTask(@PathVariable("id") final String id,
+    public ResponseEntity<Task> updateTask(@PathVariable("id") final TaskId id,
                                              @Valid @RequestBody final UpdateTaskRequest updateTaskRequest) {
-        if (!taskIDValidator.isValidTaskID(id)) {
-            throw new InvalidTaskIDException();
-        }
-
         if (updateTaskRequest.getStatus() != null
                 && !taskStatusValidator.isValidOrder(updateTaskRequest.getStatus())) {
             throw new InvalidTaskStatusException();
@@ -201,23 +503,123 @@ public class TasksController {
             throw new InvalidTaskTextException();
         }
 
-        if (dataBaseTasksRepository.getTaskByID(id) == null) {
+        Task updatedTask = dataBaseTasksRepository.patchTask(
+                id,
+                updateTaskRequest.getText(),
+                updateTaskRequest.getStatus());
+        if (updatedTask == null) {
             throw new TaskNotFoundException();
         }
 
-        dataBaseTasksRepository.updateTask(id, new Task(
-                        id,
-                        Optional.ofNullable(updateTaskRequest.getText())
-                                .orElse(dataBaseTasksRepository.getTaskByID(id).getText()),
-                        Optional.ofNullable(updateTaskRequest.getStatus())
-                                .orElse(dataBaseTasksRepository.getTaskByID(id).getStatus()),
-                        dataBaseTasksRepository.getTaskByID(id).getCreatedAt(),
-                        dataBaseTasksRepository.getTaskByID(id).getUpdatedAt()
-                )
-        );
-
         return ResponseEntity
                 .noContent()
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Method that updates several tasks with passed new task text and/or task status in one statement.
+     * That method handles PATCH request to "/tasks/batch".
+     *
+     * @param updateTaskRequests List of "Update task" request models with ids of tasks to update.
+     * @return Response that contains result for every request model:
+     *      "updated", "not_found" or "invalid".
+     */
+    @PatchMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<BatchTaskResult>> updateTasks(
+            @RequestBody final List<BatchUpdateTaskRequest> updateTaskRequests) {
+        validateBatchSize(updateTaskRequests);
+
+        Map<TaskId, UpdateTaskRequest> patches = new LinkedHashMap<>();
+        for (BatchUpdateTaskRequest updateTaskRequest : updateTaskRequests) {
+            if (isValidPatch(updateTaskRequest)) {
+                patches.put(TaskId.valueOf(updateTaskRequest.getId()), updateTaskRequest);
+            }
+        }
+        Set<TaskId> updatedIds = new HashSet<>(dataBaseTasksRepository.updateTasks(patches));
+
+        List<BatchTaskResult> results = new ArrayList<>(updateTaskRequests.size());
+        for (BatchUpdateTaskRequest updateTaskRequest : updateTaskRequests) {
+            boolean isValid = isValidPatch(updateTaskRequest);
+            String id = updateTaskRequest == null ? null : updateTaskRequest.getId();
+            results.add(new BatchTaskResult(id, getBatchResult(
+                    isValid,
+                    isValid && updatedIds.contains(TaskId.valueOf(id)),
+                    BatchTaskResult.UPDATED)));
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(results);
+    }
+
+    /**
+     * Method that deletes several tasks by passed task ids in one statement.
+     * That method handles DELETE request to "/tasks/batch".
+     *
+     * @param ids List of ids of tasks to remove.
+     * @return Response that contains result for every passed id:
+     *      "deleted", "not_found" or "invalid".
+     */
+    @DeleteMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<BatchTaskResult>> deleteTasks(@RequestBody final List<String> ids) {
+        validateBatchSize(ids);
+
+        Set<TaskId> validIds = new LinkedHashSet<>();
+        for (String id : ids) {
+            TaskId taskId = toTaskId(id);
+            if (taskId != null) {
+                validIds.add(taskId);
+            }
+        }
+        Set<TaskId> deletedIds = new HashSet<>(dataBaseTasksRepository.deleteTasks(validIds));
+
+        List<BatchTaskResult> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            TaskId taskId = toTaskId(id);
+            results.add(new BatchTaskResult(id, getBatchResult(
+                    taskId != null,
+                    deletedIds.contains(taskId),
+                    BatchTaskResult.DELETED)));
+        }
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(results);
+    }
+
+    private void validateBatchSize(final List<?> batch) {
+        final int batchMaxTasksCount = 1000;
+        if (batch.isEmpty() || batch.size() > batchMaxTasksCount) {
+            throw new InvalidBatchSizeException();
+        }
+    }
+
+    private TaskId toTaskId(final String id) {
+        return id != null && taskIDValidator.isValidTaskID(id) ? TaskId.valueOf(id) : null;
+    }
+
+    private boolean isValidPatch(final BatchUpdateTaskRequest updateTaskRequest) {
+        return updateTaskRequest != null
+                && updateTaskRequest.getId() != null
+                && taskIDValidator.isValidTaskID(updateTaskRequest.getId())
+                && (updateTaskRequest.getStatus() == null
+                        || taskStatusValidator.isValidOrder(updateTaskRequest.getStatus()))
+                && (updateTaskRequest.getText() == null
+                        || !updateTaskRequest.getText().equals(""));
+    }
+
+    private String getBatchResult(final boolean isValid,
+                                  final boolean isApplied,
+                                  final String appliedResult) {
+        if (!isValid) {
+            return BatchTaskResult.INVALID;
+        }
+        return isApplied ? appliedResult : BatchTaskResult.NOT_FOUND;
+    }
+}
@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Bulk operation not found" exception class.
+ */
+public class BulkOperationNotFoundException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public BulkOperationNotFoundException() {
+        super();
+    }
+}
@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid batch size" exception class.
+ */
+public class InvalidBatchSizeException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public InvalidBatchSizeException() {
+        super();
+    }
+}
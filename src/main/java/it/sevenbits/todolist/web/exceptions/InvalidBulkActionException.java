@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid bulk action" exception class.
+ */
+public class InvalidBulkActionException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public InvalidBulkActionException() {
+        super();
+    }
+}
@@ -0,0 +1,15 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid import data" exception class.
+ */
+public class InvalidImportDataException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     *
+     * @param message Where and why import data is malformed.
+     */
+    public InvalidImportDataException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid page cursor" exception class.
+ */
+public class InvalidPageCursorException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public InvalidPageCursorException() {
+        super();
+    }
+}
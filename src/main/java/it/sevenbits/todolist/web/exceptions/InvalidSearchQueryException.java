@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid search query" exception class.
+ */
+public class InvalidSearchQueryException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public InvalidSearchQueryException() {
+        super();
+    }
+}
@@ -0,0 +1,13 @@
+package it.sevenbits.todolist.web.exceptions;
+
+/**
+ * "Invalid task filter" exception class.
+ */
+public class InvalidTaskFilterException extends RuntimeException {
+    /**
+     * Exception class constructor.
+     */
+    public InvalidTaskFilterException() {
+        super();
+    }
+}
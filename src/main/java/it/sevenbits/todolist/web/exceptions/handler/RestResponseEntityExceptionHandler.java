@@ -1,12 +1,15 @@
 package it.sevenbits.todolist.web.exceptions.handler;
 
+import it.sevenbits.todolist.core.model.TaskId;
 import it.sevenbits.todolist.web.exceptions.*;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 /**
@@ -28,7 +31,13 @@ public class RestResponseEntityExceptionHandler
                     InvalidTaskStatusException.class,
                     InvalidTaskTextException.class,
                     InvalidPageOrderException.class,
-                    InvalidPageSizeException.class
+                    InvalidPageSizeException.class,
+                    InvalidPageCursorException.class,
+                    InvalidBatchSizeException.class,
+                    InvalidTaskFilterException.class,
+                    InvalidBulkActionException.class,
+                    InvalidImportDataException.class,
+                    InvalidSearchQueryException.class
             })
     protected ResponseEntity<Object> badRequest(
             final RuntimeException ex, final WebRequest request) {
@@ -51,7 +60,8 @@ public class RestResponseEntityExceptionHandler
     @ExceptionHandler
             (value = {
                     InvalidTaskIDException.class,
-                    TaskNotFoundException.class
+                    TaskNotFoundException.class,
+                    BulkOperationNotFoundException.class
             })
     protected ResponseEntity<Object> not_found(
             final RuntimeException ex, final WebRequest request) {
@@ -87,4 +97,27 @@ public class RestResponseEntityExceptionHandler
                 request
         );
     }
+
+    /**
+     * This method handles values that can not be converted to handler argument type.
+     * Invalid task id in path is reported as "404 - Not Found", the same way as missing task.
+     *
+     * @param ex Instance of exception to handle.
+     * @param headers Headers to be written to response.
+     * @param status Selected response status.
+     * @param request WebRequest instance.
+     * @return Response sent to request source. It contains information about content type and HTTP status.
+     */
+    @Override
+    protected ResponseEntity<Object> handleTypeMismatch(
+            final TypeMismatchException ex,
+            final HttpHeaders headers,
+            final HttpStatus status,
+            final WebRequest request) {
+        if (ex instanceof MethodArgumentTypeMismatchException
+                && TaskId.class.equals(((MethodArgumentTypeMismatchException) ex).getParameter().getParameterType())) {
+            return handleExceptionInternal(ex, null, headers, HttpStatus.NOT_FOUND, request);
+        }
+        return super.handleTypeMismatch(ex, headers, status, request);
+    }
 }
@@ -0,0 +1,88 @@
+package it.sevenbits.todolist.web.filters;
+
+import it.sevenbits.todolist.core.routing.ReadRoutingContext;
+import it.sevenbits.todolist.core.routing.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Filter that lets GET requests read from replicas and gives writes a consistency token.
+ * The token is write-ahead log position of primary after the write. A GET request that carries
+ * the token is served by a replica that has replayed the write, or by primary if there is none.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+    /**
+     * Header that carries consistency token in responses to writes and in reads.
+     */
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadRoutingFilter.class);
+    private static final int FIRST_ERROR_STATUS = 400;
+
+    private final ReplicaRoutingDataSource dataSource;
+
+    /**
+     * Constructor of ReadRoutingFilter class.
+     *
+     * @param dataSource Routing data source of tasks.
+     */
+    public ReadRoutingFilter(final ReplicaRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !dataSource.hasReplicas();
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            ReadRoutingContext.startRead(getRequiredPosition(request.getHeader(CONSISTENCY_TOKEN_HEADER)));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ReadRoutingContext.clear();
+            }
+            return;
+        }
+
+        // the body is held back so that the token header can be set after the write is done
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, responseWrapper);
+        if (responseWrapper.getStatusCode() < FIRST_ERROR_STATUS) {
+            try {
+                responseWrapper.setHeader(CONSISTENCY_TOKEN_HEADER,
+                        ReplicaRoutingDataSource.formatPosition(dataSource.getPrimaryPosition()));
+            } catch (SQLException e) {
+                LOGGER.warn("Could not get consistency token", e);
+            }
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    /**
+     * A token that can not be parsed sends the read to primary, it is always consistent.
+     */
+    private static long getRequiredPosition(final String token) {
+        if (token == null || token.isEmpty()) {
+            return 0;
+        }
+        try {
+            return ReplicaRoutingDataSource.parsePosition(token);
+        } catch (IllegalArgumentException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
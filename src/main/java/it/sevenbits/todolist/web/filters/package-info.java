@@ -0,0 +1,6 @@
+/**
+ * This package contains servlet filters of the application.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.web.filters;
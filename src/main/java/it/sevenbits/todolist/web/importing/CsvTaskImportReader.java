@@ -0,0 +1,144 @@
+package it.sevenbits.todolist.web.importing;
+
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.validation.id.service.ITaskIDValidator;
+import it.sevenbits.todolist.core.validation.status.service.ITaskStatusValidator;
+import it.sevenbits.todolist.web.exceptions.InvalidImportDataException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader of tasks imported as CSV (RFC 4180). The first line is a header with field names.
+ * Quoted values may contain separators, doubled quotes and line breaks.
+ * Input is read character by character, so only the current record is held in memory.
+ */
+public class CsvTaskImportReader extends TaskImportReader {
+    private static final int END = -1;
+
+    private final Reader reader;
+    private final List<String> header;
+    private final StringBuilder value;
+    private long line;
+    private long recordLine;
+    private int lookahead;
+
+    /**
+     * Constructor of CsvTaskImportReader class. It reads the header line.
+     *
+     * @param reader Buffered input to read records from.
+     * @param taskIDValidator Validator of task ids.
+     * @param taskStatusValidator Validator of task statuses.
+     * @param taskIdGenerator Generator of ids for records without id.
+     * @throws IOException if input can not be read.
+     */
+    public CsvTaskImportReader(final Reader reader,
+                               final ITaskIDValidator taskIDValidator,
+                               final ITaskStatusValidator taskStatusValidator,
+                               final ITaskIdGenerator taskIdGenerator) throws IOException {
+        super(taskIDValidator, taskStatusValidator, taskIdGenerator);
+        this.reader = reader;
+        this.value = new StringBuilder();
+        this.line = 1;
+        this.lookahead = reader.read();
+
+        List<String> fields = readFields();
+        if (fields == null || !fields.contains("text")) {
+            throw new InvalidImportDataException("CSV header must name a text column");
+        }
+        this.header = fields;
+    }
+
+    @Override
+    protected Map<String, String> readRecord() throws IOException, InvalidRecordException {
+        List<String> fields = readFields();
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() != header.size()) {
+            throw new InvalidRecordException("record has " + fields.size() + " fields, header has " + header.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+        return record;
+    }
+
+    @Override
+    protected long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Reads fields of one record, skipping empty lines.
+     */
+    private List<String> readFields() throws IOException {
+        while (lookahead == '\r' || lookahead == '\n') {
+            readLineBreak();
+        }
+        if (lookahead == END) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            fields.add(readField());
+            if (lookahead == ',') {
+                lookahead = reader.read();
+            } else {
+                if (lookahead != END) {
+                    readLineBreak();
+                }
+                return fields;
+            }
+        }
+    }
+
+    private String readField() throws IOException {
+        value.setLength(0);
+        if (lookahead != '"') {
+            while (lookahead != ',' && lookahead != '\r' && lookahead != '\n' && lookahead != END) {
+                value.append((char) lookahead);
+                lookahead = reader.read();
+            }
+            return value.toString();
+        }
+
+        lookahead = reader.read();
+        while (true) {
+            if (lookahead == END) {
+                throw new InvalidImportDataException("Unterminated quoted value at line " + recordLine);
+            }
+            if (lookahead == '"') {
+                lookahead = reader.read();
+                if (lookahead != '"') {
+                    break;
+                }
+            } else if (lookahead == '\n') {
+                line++;
+            }
+            value.append((char) lookahead);
+            lookahead = reader.read();
+        }
+        if (lookahead != ',' && lookahead != '\r' && lookahead != '\n' && lookahead != END) {
+            throw new InvalidImportDataException("Unexpected character after quoted value at line " + line);
+        }
+        return value.toString();
+    }
+
+    private void readLineBreak() throws IOException {
+        if (lookahead == '\r') {
+            lookahead = reader.read();
+        }
+        if (lookahead == '\n') {
+            lookahead = reader.read();
+        }
+        line++;
+    }
+}
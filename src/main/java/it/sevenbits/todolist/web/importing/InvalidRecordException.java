@@ -0,0 +1,15 @@
+package it.sevenbits.todolist.web.importing;
+
+/**
+ * Exception that rejects one imported record. The record is already consumed from the input.
+ */
+class InvalidRecordException extends Exception {
+    /**
+     * Exception class constructor.
+     *
+     * @param reason Why the record is rejected.
+     */
+    InvalidRecordException(final String reason) {
+        super(reason, null, false, false);
+    }
+}
@@ -0,0 +1,82 @@
+package it.sevenbits.todolist.web.importing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.validation.id.service.ITaskIDValidator;
+import it.sevenbits.todolist.core.validation.status.service.ITaskStatusValidator;
+import it.sevenbits.todolist.web.exceptions.InvalidImportDataException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reader of tasks imported as newline delimited JSON, one object per record.
+ * The whole input is read by one streaming parser, so only the current record is held in memory.
+ */
+public class NdjsonTaskImportReader extends TaskImportReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private long recordLine;
+
+    /**
+     * Constructor of NdjsonTaskImportReader class.
+     *
+     * @param inputStream Input to read records from.
+     * @param taskIDValidator Validator of task ids.
+     * @param taskStatusValidator Validator of task statuses.
+     * @param taskIdGenerator Generator of ids for records without id.
+     * @throws IOException if input can not be read.
+     */
+    public NdjsonTaskImportReader(final InputStream inputStream,
+                                  final ITaskIDValidator taskIDValidator,
+                                  final ITaskStatusValidator taskStatusValidator,
+                                  final ITaskIdGenerator taskIdGenerator) throws IOException {
+        super(taskIDValidator, taskStatusValidator, taskIdGenerator);
+        this.parser = JSON_FACTORY.createParser(inputStream);
+    }
+
+    @Override
+    protected Map<String, String> readRecord() throws IOException, InvalidRecordException {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            recordLine = parser.getTokenLocation().getLineNr();
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                throw new InvalidRecordException("record is not an object");
+            }
+
+            Map<String, String> record = new HashMap<>();
+            String invalidField = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    parser.skipChildren();
+                    invalidField = field;
+                } else if (value != JsonToken.VALUE_NULL) {
+                    record.put(field, parser.getValueAsString());
+                }
+            }
+            if (invalidField != null) {
+                throw new InvalidRecordException(invalidField + " is not a scalar value");
+            }
+            return record;
+        } catch (JsonParseException e) {
+            throw new InvalidImportDataException("Malformed JSON at line " + e.getLocation().getLineNr());
+        }
+    }
+
+    @Override
+    protected long getRecordLine() {
+        return recordLine;
+    }
+}
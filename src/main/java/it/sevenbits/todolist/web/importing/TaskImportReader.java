@@ -0,0 +1,184 @@
+package it.sevenbits.todolist.web.importing;
+
+import it.sevenbits.todolist.core.id.ITaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.validation.id.service.ITaskIDValidator;
+import it.sevenbits.todolist.core.validation.status.service.ITaskStatusValidator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over valid tasks of an import, read one record at a time.
+ * Invalid records are counted and skipped, first MAX_ERRORS reasons are kept for the response.
+ * Fields of a record are "id", "text", "status", "createdAt" and "updatedAt", only "text" is required.
+ */
+public abstract class TaskImportReader implements Iterator<Task> {
+    /**
+     * Number of rejection reasons that are kept.
+     */
+    public static final int MAX_ERRORS = 100;
+
+    private static final String DEFAULT_STATUS = "inbox";
+
+    private final ITaskIDValidator taskIDValidator;
+    private final ITaskStatusValidator taskStatusValidator;
+    private final ITaskIdGenerator taskIdGenerator;
+    private final List<String> errors;
+    private long readCount;
+    private long rejectedCount;
+    private Task nextTask;
+    private boolean finished;
+
+    /**
+     * Constructor of TaskImportReader class.
+     *
+     * @param taskIDValidator Validator of task ids.
+     * @param taskStatusValidator Validator of task statuses.
+     * @param taskIdGenerator Generator of ids for records without id.
+     */
+    protected TaskImportReader(final ITaskIDValidator taskIDValidator,
+                               final ITaskStatusValidator taskStatusValidator,
+                               final ITaskIdGenerator taskIdGenerator) {
+        this.taskIDValidator = taskIDValidator;
+        this.taskStatusValidator = taskStatusValidator;
+        this.taskIdGenerator = taskIdGenerator;
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Method that reads the next record.
+     *
+     * @return Fields of the record by name, null if there are no more records.
+     * @throws IOException if input can not be read.
+     * @throws InvalidRecordException if the record is invalid, it is skipped.
+     * @throws it.sevenbits.todolist.web.exceptions.InvalidImportDataException if input is malformed.
+     */
+    protected abstract Map<String, String> readRecord() throws IOException, InvalidRecordException;
+
+    /**
+     * Method that returns line the last read record starts on.
+     *
+     * @return Line number, starting with 1.
+     */
+    protected abstract long getRecordLine();
+
+    @Override
+    public boolean hasNext() {
+        while (nextTask == null && !finished) {
+            try {
+                Map<String, String> record = readRecord();
+                if (record == null) {
+                    finished = true;
+                } else {
+                    nextTask = toTask(record);
+                    readCount++;
+                }
+            } catch (InvalidRecordException e) {
+                rejectedCount++;
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add("line " + getRecordLine() + ": " + e.getMessage());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextTask != null;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Task task = nextTask;
+        nextTask = null;
+        return task;
+    }
+
+    /**
+     * Method that returns number of valid records read so far.
+     *
+     * @return Number of valid records.
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * Method that returns number of invalid records skipped so far.
+     *
+     * @return Number of invalid records.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Method that returns reasons of the first rejections.
+     *
+     * @return Rejection reasons with line numbers.
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    private Task toTask(final Map<String, String> record) throws InvalidRecordException {
+        String text = record.get("text");
+        if (text == null || text.trim().isEmpty()) {
+            throw new InvalidRecordException("text is empty");
+        }
+        if (text.indexOf('\u0000') >= 0) {
+            throw new InvalidRecordException("text contains NUL character");
+        }
+
+        String status = record.get("status");
+        if (status == null || status.isEmpty()) {
+            status = DEFAULT_STATUS;
+        } else if (!taskStatusValidator.isValidOrder(status)) {
+            throw new InvalidRecordException("status is invalid");
+        }
+
+        String id = record.get("id");
+        TaskId taskId;
+        if (id == null || id.isEmpty()) {
+            taskId = taskIdGenerator.nextId();
+        } else if (taskIDValidator.isValidTaskID(id)) {
+            taskId = TaskId.valueOf(id);
+        } else {
+            throw new InvalidRecordException("id is invalid");
+        }
+
+        Instant createdAt = parseTime(record.get("createdAt"), "createdAt");
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        Instant updatedAt = parseTime(record.get("updatedAt"), "updatedAt");
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
+
+        return new Task(taskId, text, status, createdAt, updatedAt);
+    }
+
+    private static Instant parseTime(final String time, final String field) throws InvalidRecordException {
+        if (time == null || time.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(time, Task.DATE_TIME_FORMATTER).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new InvalidRecordException(field + " is invalid");
+        }
+    }
+}
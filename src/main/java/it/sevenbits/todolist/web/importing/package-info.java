@@ -0,0 +1,6 @@
+/**
+ * This package contains readers of tasks imported from request bodies.
+ *
+ * @author sarahwhereismycoffee
+ */
+package it.sevenbits.todolist.web.importing;
@@ -0,0 +1,55 @@
+package it.sevenbits.todolist.web.model;
+
+/**
+ * This model describes result of batch operation for one task.
+ */
+public class BatchTaskResult {
+    /**
+     * Result of a task that was updated.
+     */
+    public static final String UPDATED = "updated";
+    /**
+     * Result of a task that was deleted.
+     */
+    public static final String DELETED = "deleted";
+    /**
+     * Result of a task that does not exist.
+     */
+    public static final String NOT_FOUND = "not_found";
+    /**
+     * Result of a task whose id or fields are not valid.
+     */
+    public static final String INVALID = "invalid";
+
+    private final String id;
+    private final String result;
+
+    /**
+     * Constructor of the model.
+     *
+     * @param id Task id.
+     * @param result Operation result.
+     */
+    public BatchTaskResult(final String id, final String result) {
+        this.id = id;
+        this.result = result;
+    }
+
+    /**
+     * Getter for the id field.
+     *
+     * @return Task id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the result field.
+     *
+     * @return Operation result.
+     */
+    public String getResult() {
+        return result;
+    }
+}
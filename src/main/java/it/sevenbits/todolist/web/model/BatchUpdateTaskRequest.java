@@ -0,0 +1,36 @@
+package it.sevenbits.todolist.web.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This model describes update of one task in batch update request.
+ */
+public class BatchUpdateTaskRequest extends UpdateTaskRequest {
+    private String id;
+
+    /**
+     * Constructor of the model.
+     * Creates a JSON object.
+     *
+     * @param id String Json property
+     * @param text String Json property
+     * @param status String Json property
+     */
+    @JsonCreator
+    public BatchUpdateTaskRequest(@JsonProperty("id") final String id,
+                                  @JsonProperty("text") final String text,
+                                  @JsonProperty("status") final String status) {
+        super(text, status);
+        this.id = id;
+    }
+
+    /**
+     * Getter for the id field.
+     *
+     * @return String id of the task to update
+     */
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,57 @@
+package it.sevenbits.todolist.web.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This model describes a bulk operation on tasks selected by filter.
+ */
+public class BulkTaskRequest {
+    private String action;
+    private String status;
+    private TaskFilterRequest filter;
+
+    /**
+     * Constructor of the model.
+     * Creates a JSON object.
+     *
+     * @param action String Json property ("update" or "delete")
+     * @param status String Json property (new status for "update" action)
+     * @param filter Json property that selects tasks
+     */
+    @JsonCreator
+    public BulkTaskRequest(@JsonProperty("action") final String action,
+                           @JsonProperty("status") final String status,
+                           @JsonProperty("filter") final TaskFilterRequest filter) {
+        this.action = action;
+        this.status = status;
+        this.filter = filter;
+    }
+
+    /**
+     * Getter for the action field.
+     *
+     * @return String action of the model
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * Getter for the status field.
+     *
+     * @return String new status of selected tasks
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter for the filter field.
+     *
+     * @return Filter of tasks
+     */
+    public TaskFilterRequest getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,38 @@
+package it.sevenbits.todolist.web.model;
+
+/**
+ * This model describes a task created by batch request.
+ */
+public class CreatedTaskResponse {
+    private final String id;
+    private final String location;
+
+    /**
+     * Constructor of the model.
+     *
+     * @param id Id of created task.
+     * @param location Location of created task.
+     */
+    public CreatedTaskResponse(final String id, final String location) {
+        this.id = id;
+        this.location = location;
+    }
+
+    /**
+     * Getter for the id field.
+     *
+     * @return Id of created task.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the location field.
+     *
+     * @return Location of created task.
+     */
+    public String getLocation() {
+        return location;
+    }
+}
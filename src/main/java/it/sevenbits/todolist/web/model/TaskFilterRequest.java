@@ -0,0 +1,84 @@
+package it.sevenbits.todolist.web.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This model describes a filter of tasks for bulk request.
+ * Time bounds are passed in the same format as task timestamps.
+ */
+public class TaskFilterRequest {
+    private String status;
+    private String createdAfter;
+    private String createdBefore;
+    private String updatedAfter;
+    private String updatedBefore;
+
+    /**
+     * Constructor of the model.
+     * Creates a JSON object.
+     *
+     * @param status String Json property
+     * @param createdAfter String Json property
+     * @param createdBefore String Json property
+     * @param updatedAfter String Json property
+     * @param updatedBefore String Json property
+     */
+    @JsonCreator
+    public TaskFilterRequest(@JsonProperty("status") final String status,
+                             @JsonProperty("createdAfter") final String createdAfter,
+                             @JsonProperty("createdBefore") final String createdBefore,
+                             @JsonProperty("updatedAfter") final String updatedAfter,
+                             @JsonProperty("updatedBefore") final String updatedBefore) {
+        this.status = status;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+        this.updatedAfter = updatedAfter;
+        this.updatedBefore = updatedBefore;
+    }
+
+    /**
+     * Getter for the status field.
+     *
+     * @return String status of tasks to select
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter for the createdAfter field.
+     *
+     * @return String lower bound of task creating time
+     */
+    public String getCreatedAfter() {
+        return createdAfter;
+    }
+
+    /**
+     * Getter for the createdBefore field.
+     *
+     * @return String upper bound of task creating time
+     */
+    public String getCreatedBefore() {
+        return createdBefore;
+    }
+
+    /**
+     * Getter for the updatedAfter field.
+     *
+     * @return String lower bound of task updating time
+     */
+    public String getUpdatedAfter() {
+        return updatedAfter;
+    }
+
+    /**
+     * Getter for the updatedBefore field.
+     *
+     * @return String upper bound of task updating time
+     */
+    public String getUpdatedBefore() {
+        return updatedBefore;
+    }
+}
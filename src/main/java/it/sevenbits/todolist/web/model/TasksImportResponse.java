@@ -0,0 +1,54 @@
+package it.sevenbits.todolist.web.model;
+
+import java.util.List;
+
+/**
+ * This model describes result of importing tasks.
+ */
+public class TasksImportResponse {
+    private final long accepted;
+    private final long rejected;
+    private final List<String> errors;
+
+    /**
+     * Constructor of the model.
+     *
+     * @param accepted Number of added tasks.
+     * @param rejected Number of invalid records and records with ids of existing tasks.
+     * @param errors Reasons of the first rejections of invalid records.
+     */
+    public TasksImportResponse(final long accepted,
+                               final long rejected,
+                               final List<String> errors) {
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    /**
+     * Getter for the accepted field.
+     *
+     * @return Number of added tasks.
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Getter for the rejected field.
+     *
+     * @return Number of rejected records.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Getter for the errors field.
+     *
+     * @return Reasons of the first rejections.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
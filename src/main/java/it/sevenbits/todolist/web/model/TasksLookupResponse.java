@@ -0,0 +1,56 @@
+package it.sevenbits.todolist.web.model;
+
+import it.sevenbits.todolist.core.model.Task;
+
+import java.util.List;
+
+/**
+ * This model describes result of looking tasks up by list of ids.
+ */
+public class TasksLookupResponse {
+    private final List<Task> tasks;
+    private final List<String> missing;
+    private final List<String> invalid;
+
+    /**
+     * Constructor of the model.
+     *
+     * @param tasks Found tasks in the order of requested ids.
+     * @param missing Valid ids of tasks that do not exist.
+     * @param invalid Ids that are not valid task ids.
+     */
+    public TasksLookupResponse(final List<Task> tasks,
+                               final List<String> missing,
+                               final List<String> invalid) {
+        this.tasks = tasks;
+        this.missing = missing;
+        this.invalid = invalid;
+    }
+
+    /**
+     * Getter for the tasks field.
+     *
+     * @return Found tasks.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Getter for the missing field.
+     *
+     * @return Ids of tasks that do not exist.
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    /**
+     * Getter for the invalid field.
+     *
+     * @return Ids that are not valid task ids.
+     */
+    public List<String> getInvalid() {
+        return invalid;
+    }
+}
@@ -0,0 +1,57 @@
+package it.sevenbits.todolist.web.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import it.sevenbits.todolist.core.model.Task;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This model describes a page of tasks found by text search.
+ */
+public class TasksSearchResponse {
+    private final Map<String, Object> meta;
+    private final List<Task> tasks;
+
+    /**
+     * Constructor of the model.
+     *
+     * @param page Number of the page, starting with 1.
+     * @param size Size of the page.
+     * @param next Link to the next page, null if this page is the last one.
+     * @param prev Link to the previous page, null if this page is the first one.
+     * @param tasks Found tasks, most relevant first.
+     */
+    public TasksSearchResponse(final int page,
+                               final int size,
+                               final String next,
+                               final String prev,
+                               final List<Task> tasks) {
+        this.meta = new LinkedHashMap<>();
+        meta.put("page", page);
+        meta.put("size", size);
+        meta.put("next", next);
+        meta.put("prev", prev);
+        this.tasks = tasks;
+    }
+
+    /**
+     * Getter for the meta field.
+     *
+     * @return Page number, size and links to neighbour pages.
+     */
+    @JsonProperty("_meta")
+    public Map<String, Object> getMeta() {
+        return meta;
+    }
+
+    /**
+     * Getter for the tasks field.
+     *
+     * @return Found tasks.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+}
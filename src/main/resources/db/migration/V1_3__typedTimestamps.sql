@@ -0,0 +1,27 @@
+ALTER TABLE task
+    ADD createdAtTyped timestamptz;
+ALTER TABLE task
+    ADD updatedAtTyped timestamptz;
+
+-- The migration runs in one transaction that already holds an exclusive lock on task,
+-- so the backfill is one pass over the table.
+UPDATE task
+SET createdAtTyped = COALESCE(createdAt::timestamptz, now()),
+    updatedAtTyped = COALESCE(updatedAt::timestamptz, createdAt::timestamptz, now());
+
+ALTER TABLE task
+    DROP COLUMN createdAt;
+ALTER TABLE task
+    DROP COLUMN updatedAt;
+ALTER TABLE task
+    RENAME COLUMN createdAtTyped TO createdAt;
+ALTER TABLE task
+    RENAME COLUMN updatedAtTyped TO updatedAt;
+ALTER TABLE task
+    ALTER COLUMN createdAt SET NOT NULL,
+    ALTER COLUMN createdAt SET DEFAULT now(),
+    ALTER COLUMN updatedAt SET NOT NULL,
+    ALTER COLUMN updatedAt SET DEFAULT now();
+
+CREATE INDEX task_status_createdAt_id_idx
+    ON task (status, createdAt, id);
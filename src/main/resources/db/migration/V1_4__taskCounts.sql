@@ -0,0 +1,44 @@
+-- Counts are spread over several stripes per status, so concurrent writers rarely lock the same row.
+CREATE TABLE task_counts
+(
+    status varchar NOT NULL,
+    stripe integer NOT NULL,
+    total  bigint  NOT NULL DEFAULT 0,
+    PRIMARY KEY (status, stripe)
+);
+
+INSERT INTO task_counts (status, stripe, total)
+SELECT status, 0, COUNT(*)
+FROM task
+GROUP BY status;
+
+CREATE FUNCTION task_counts_add(taskStatus varchar, delta bigint) RETURNS void AS $$
+BEGIN
+    INSERT INTO task_counts (status, stripe, total)
+    VALUES (taskStatus, floor(random() * 16)::integer, delta)
+    ON CONFLICT (status, stripe) DO UPDATE SET total = task_counts.total + EXCLUDED.total;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION task_counts_maintain() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' OR TG_OP = 'UPDATE' THEN
+        PERFORM task_counts_add(NEW.status, 1);
+    END IF;
+    IF TG_OP = 'DELETE' OR TG_OP = 'UPDATE' THEN
+        PERFORM task_counts_add(OLD.status, -1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_counts_insert_delete
+    AFTER INSERT OR DELETE ON task
+    FOR EACH ROW
+    EXECUTE PROCEDURE task_counts_maintain();
+
+CREATE TRIGGER task_counts_update
+    AFTER UPDATE OF status ON task
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status)
+    EXECUTE PROCEDURE task_counts_maintain();
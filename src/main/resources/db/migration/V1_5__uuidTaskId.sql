@@ -0,0 +1,2 @@
+ALTER TABLE task
+    ALTER COLUMN id TYPE uuid USING id::uuid;
@@ -0,0 +1,29 @@
+-- Inserts and deletes update task_counts once per statement instead of once per row,
+-- so multi-row statements (batch inserts, imports, bulk deletes) touch each counter once.
+CREATE FUNCTION task_counts_insert_statement() RETURNS trigger AS $$
+BEGIN
+    PERFORM task_counts_add(status, COUNT(*)) FROM inserted GROUP BY status;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION task_counts_delete_statement() RETURNS trigger AS $$
+BEGIN
+    PERFORM task_counts_add(status, -COUNT(*)) FROM deleted GROUP BY status;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER task_counts_insert_delete ON task;
+
+CREATE TRIGGER task_counts_insert
+    AFTER INSERT ON task
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_counts_insert_statement();
+
+CREATE TRIGGER task_counts_delete
+    AFTER DELETE ON task
+    REFERENCING OLD TABLE AS deleted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_counts_delete_statement();
@@ -0,0 +1,16 @@
+-- Text search uses "simple" configuration: words are lowercased but not stemmed,
+-- so prefix queries match what user typed.
+ALTER TABLE task
+    ADD textSearch tsvector;
+
+CREATE TRIGGER task_text_search
+    BEFORE INSERT OR UPDATE OF text ON task
+    FOR EACH ROW
+    EXECUTE PROCEDURE tsvector_update_trigger(textsearch, 'pg_catalog.simple', text);
+
+-- Existing rows are filled in one pass before the index is built, so it is built once from complete data.
+UPDATE task
+SET textSearch = to_tsvector('pg_catalog.simple', text);
+
+CREATE INDEX task_textSearch_idx
+    ON task USING GIN (textSearch);
@@ -0,0 +1,40 @@
+-- Done tasks that were not changed for a while are moved from task table into task_archive
+-- by TaskArchiver, so task table and its indexes keep only the working set.
+CREATE TABLE task_archive
+(
+    LIKE task INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+);
+
+ALTER TABLE task_archive
+    ADD PRIMARY KEY (id);
+
+CREATE INDEX task_archive_status_createdAt_id_idx
+    ON task_archive (status, createdAt, id);
+
+CREATE INDEX task_archive_textSearch_idx
+    ON task_archive USING GIN (textSearch);
+
+-- Candidates for archival are found without scanning inbox tasks.
+CREATE INDEX task_done_updatedAt_idx
+    ON task (updatedAt)
+    WHERE status = 'done';
+
+-- task_counts keeps totals over both tables: moving a task between them changes nothing.
+CREATE TRIGGER task_archive_counts_insert
+    AFTER INSERT ON task_archive
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_counts_insert_statement();
+
+CREATE TRIGGER task_archive_counts_delete
+    AFTER DELETE ON task_archive
+    REFERENCING OLD TABLE AS deleted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_counts_delete_statement();
+
+-- Queries that may return archived tasks read this view. It is flattened into an append
+-- of both tables, so ordered queries with LIMIT are served by merging index scans.
+CREATE VIEW task_all AS
+    SELECT id, text, status, createdAt, updatedAt, textSearch FROM task
+    UNION ALL
+    SELECT id, text, status, createdAt, updatedAt, textSearch FROM task_archive;
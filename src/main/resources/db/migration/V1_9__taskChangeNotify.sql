@@ -0,0 +1,84 @@
+-- Committed changes of tasks are announced on task_changes channel, so every instance can evict
+-- what it cached. Payload is "<id> <status>" per changed task, or "*" when a statement changed
+-- more than 100 tasks and instances should drop everything. Notifications are sent on commit only.
+CREATE FUNCTION task_changes_send(changes text[]) RETURNS void AS $$
+BEGIN
+    IF cardinality(changes) > 100 THEN
+        PERFORM pg_notify('task_changes', '*');
+    ELSE
+        PERFORM pg_notify('task_changes', change) FROM unnest(changes) AS change;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION task_changes_insert_statement() RETURNS trigger AS $$
+BEGIN
+    PERFORM task_changes_send(ARRAY(
+        SELECT id::text || ' ' || status FROM inserted LIMIT 101
+    ));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Both statuses of a moved task are sent, so lists of both are invalidated.
+CREATE FUNCTION task_changes_update_statement() RETURNS trigger AS $$
+BEGIN
+    PERFORM task_changes_send(ARRAY(
+        SELECT change FROM (
+            SELECT id::text || ' ' || status AS change FROM updated_new
+            UNION
+            SELECT id::text || ' ' || status AS change FROM updated_old
+        ) AS changes LIMIT 101
+    ));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A task moved between task and task_archive tables with the same status is not changed for readers,
+-- so TaskArchiver does not flush caches. The trigger fires after the whole statement, including
+-- the insert into the other table.
+CREATE FUNCTION task_changes_delete_statement() RETURNS trigger AS $$
+BEGIN
+    IF TG_TABLE_NAME = 'task' THEN
+        PERFORM task_changes_send(ARRAY(
+            SELECT id::text || ' ' || status FROM deleted
+            WHERE NOT EXISTS (
+                SELECT 1 FROM task_archive WHERE task_archive.id = deleted.id AND task_archive.status = deleted.status
+            ) LIMIT 101
+        ));
+    ELSE
+        PERFORM task_changes_send(ARRAY(
+            SELECT id::text || ' ' || status FROM deleted
+            WHERE NOT EXISTS (
+                SELECT 1 FROM task WHERE task.id = deleted.id AND task.status = deleted.status
+            ) LIMIT 101
+        ));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_changes_insert
+    AFTER INSERT ON task
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_changes_insert_statement();
+
+CREATE TRIGGER task_changes_update
+    AFTER UPDATE ON task
+    REFERENCING OLD TABLE AS updated_old NEW TABLE AS updated_new
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_changes_update_statement();
+
+CREATE TRIGGER task_changes_delete
+    AFTER DELETE ON task
+    REFERENCING OLD TABLE AS deleted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_changes_delete_statement();
+
+-- Inserts into task_archive come only from archival, deletes restore or remove archived tasks.
+CREATE TRIGGER task_archive_changes_delete
+    AFTER DELETE ON task_archive
+    REFERENCING OLD TABLE AS deleted
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE task_changes_delete_statement();
@@ -0,0 +1,41 @@
+package it.sevenbits.todolist.core.archive;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskArchiverTest {
+    @Test
+    public void archivesUntilBatchIsNotFullTest() {
+        JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+        when(jdbcOperations.update(anyString(), any(), eq(10))).thenReturn(10, 10, 3);
+        TaskArchiver taskArchiver = new TaskArchiver(jdbcOperations, Duration.ofDays(30), 10, 0);
+
+        taskArchiver.archive();
+
+        verify(jdbcOperations, times(3)).update(anyString(), any(), eq(10));
+        assertEquals(23L, taskArchiver.getMetrics().get("archived"));
+        assertEquals(23L, taskArchiver.getMetrics().get("lastRunArchived"));
+    }
+
+    @Test
+    public void emptyRunTest() {
+        JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+        TaskArchiver taskArchiver = new TaskArchiver(jdbcOperations, Duration.ofDays(30), 10, 0);
+
+        taskArchiver.archive();
+
+        verify(jdbcOperations, times(1)).update(anyString(), any(), eq(10));
+        assertEquals(0L, taskArchiver.getMetrics().get("archived"));
+    }
+}
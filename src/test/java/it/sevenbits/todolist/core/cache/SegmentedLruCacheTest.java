@@ -0,0 +1,142 @@
+package it.sevenbits.todolist.core.cache;
+
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.CachingTasksRepository;
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SegmentedLruCacheTest {
+    @Test
+    public void readThroughTest() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 100, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Integer, String> loader = key -> "value " + key + " " + loads.incrementAndGet();
+
+        assertEquals("value 1 1", cache.get(1, loader));
+        assertEquals("value 1 1", cache.get(1, loader));
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getMetrics().get("hits"));
+        assertEquals(1L, cache.getMetrics().get("misses"));
+
+        cache.invalidate(1);
+        assertEquals("value 1 2", cache.get(1, loader));
+    }
+
+    @Test
+    public void scanDoesNotEvictHotKeysTest() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 160, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Integer, String> loader = key -> {
+            loads.incrementAndGet();
+            return "value " + key;
+        };
+        for (int key = 0; key < 16; key++) {
+            cache.get(key, loader);
+            cache.get(key, loader);
+        }
+        for (int key = 16; key < 10000; key++) {
+            cache.get(key, loader);
+        }
+        loads.set(0);
+
+        for (int key = 0; key < 16; key++) {
+            cache.get(key, loader);
+        }
+
+        assertEquals(0, loads.get());
+        assertTrue(cache.size() <= 160);
+        assertTrue((Long) cache.getMetrics().get("evictions") > 0);
+    }
+
+    @Test
+    public void negativeLookupTest() throws Exception {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 100, 0, 20);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Integer, String> loader = key -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        assertNull(cache.get(1, loader));
+        assertNull(cache.get(1, loader));
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getMetrics().get("negativeHits"));
+
+        Thread.sleep(50);
+        assertNull(cache.get(1, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void valueInvalidatedDuringLoadIsNotCachedTest() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 100, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale " + loads.incrementAndGet();
+        });
+
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+    }
+
+    @Test
+    public void getAllLoadsMissingKeysAtOnceTest() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 100, 0, 1000);
+        cache.get(1, key -> "one");
+        AtomicInteger loads = new AtomicInteger();
+        Function<Collection<Integer>, Map<Integer, String>> loader = keys -> {
+            loads.incrementAndGet();
+            Map<Integer, String> values = new HashMap<>();
+            if (keys.contains(2)) {
+                values.put(2, "two");
+            }
+            return values;
+        };
+
+        Map<Integer, String> values = cache.getAll(Arrays.asList(1, 2, 3), loader);
+        cache.getAll(Arrays.asList(1, 2, 3), loader);
+
+        assertEquals("one", values.get(1));
+        assertEquals("two", values.get(2));
+        assertEquals(2, values.size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void repositoryInvalidatesPatchedTaskTest() {
+        ITasksRepository delegate = mock(ITasksRepository.class);
+        TaskId id = new TaskId(1, 2);
+        Task task = new Task(id, "text", "inbox", Instant.EPOCH, Instant.EPOCH);
+        Task patchedTask = new Task(id, "changed", "inbox", Instant.EPOCH, Instant.EPOCH);
+        when(delegate.getTaskByID(id)).thenReturn(task, patchedTask);
+        when(delegate.getTasksByIDs(Collections.singleton(id))).thenReturn(Collections.singletonList(task));
+        CachingTasksRepository repository = new CachingTasksRepository(delegate,
+                new SegmentedLruCache<>("test", 100, 0, 0));
+
+        assertEquals("text", repository.getTaskByID(id).getText());
+        assertEquals("text", repository.getTasksByIDs(Collections.singleton(id)).get(0).getText());
+        repository.patchTask(id, "changed", null);
+
+        assertEquals("changed", repository.getTaskByID(id).getText());
+        verify(delegate, times(2)).getTaskByID(id);
+    }
+}
@@ -0,0 +1,79 @@
+package it.sevenbits.todolist.core.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import it.sevenbits.todolist.core.repository.VersioningTasksRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskPageCacheTest {
+    private TaskListVersions versions;
+    private TaskPageCache cache;
+    private AtomicInteger loads;
+    private Supplier<JsonNode> loader;
+
+    @Before
+    public void setup() {
+        versions = new TaskListVersions();
+        cache = new TaskPageCache(versions, 100, 0);
+        loads = new AtomicInteger();
+        loader = () -> JsonNodeFactory.instance.objectNode().put("load", loads.incrementAndGet());
+    }
+
+    @Test
+    public void pageIsCachedUntilItsListChangesTest() {
+        assertEquals("{\"load\":1}", new String(cache.getPage(null, null, null, null, loader), StandardCharsets.UTF_8));
+        assertEquals("{\"load\":1}", new String(cache.getPage(null, null, null, null, loader), StandardCharsets.UTF_8));
+
+        versions.changed("done");
+        assertEquals("{\"load\":1}", new String(cache.getPage(null, null, null, null, loader), StandardCharsets.UTF_8));
+
+        versions.changed("inbox");
+        assertEquals("{\"load\":2}", new String(cache.getPage(null, null, null, null, loader), StandardCharsets.UTF_8));
+
+        versions.changedAll();
+        assertEquals("{\"load\":3}", new String(cache.getPage("inbox", null, null, null, loader), StandardCharsets.UTF_8));
+        assertEquals(1L, cache.getMetrics().get("staleHits"));
+    }
+
+    @Test
+    public void pagesAreKeyedByRequestParametersTest() {
+        cache.getPage("inbox", "asc", (short) 1, (short) 10, loader);
+        cache.getPage("inbox", "asc", (short) 2, (short) 10, loader);
+        cache.getPage("inbox", "asc", (short) 1, (short) 10, loader);
+        cache.getPage("inbox", null, (short) 1, (short) 10, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void repositoryBumpsVersionsTest() {
+        ITasksRepository delegate = mock(ITasksRepository.class);
+        TaskId id = new TaskId(1, 2);
+        when(delegate.patchTask(id, "text", null)).thenReturn(new Task(id, "text", "done", Instant.EPOCH, Instant.EPOCH));
+        when(delegate.patchTask(id, null, "inbox")).thenReturn(new Task(id, "text", "inbox", Instant.EPOCH, Instant.EPOCH));
+        VersioningTasksRepository repository = new VersioningTasksRepository(delegate, versions);
+        long inboxVersion = versions.getVersion("inbox");
+        long doneVersion = versions.getVersion("done");
+
+        repository.patchTask(id, "text", null);
+        assertEquals(inboxVersion, versions.getVersion("inbox"));
+        assertNotEquals(doneVersion, versions.getVersion("done"));
+
+        repository.patchTask(id, null, "inbox");
+        assertNotEquals(inboxVersion, versions.getVersion("inbox"));
+    }
+}
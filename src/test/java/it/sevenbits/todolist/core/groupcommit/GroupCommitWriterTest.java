@@ -0,0 +1,45 @@
+package it.sevenbits.todolist.core.groupcommit;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.metrics.HistogramSnapshot;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class GroupCommitWriterTest {
+    @Test
+    public void concurrentInsertsTest() throws Exception {
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator());
+        GroupCommitWriter writer = new GroupCommitWriter(repository, 16, 2000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Task>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String text = "task " + i;
+                futures.add(executor.submit(() -> writer.addTask(new AddTaskRequest(text))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Task task = futures.get(i).get();
+                assertEquals("task " + i, task.getText());
+                assertNotNull(repository.getTaskByID(task.getId()));
+            }
+        } finally {
+            executor.shutdown();
+            writer.shutdown();
+        }
+
+        HistogramSnapshot batchSizes = (HistogramSnapshot) writer.getMetrics().get("batchSize");
+        assertEquals(200, batchSizes.getSum());
+        assertEquals(0, writer.getMetrics().get("queueDepth"));
+    }
+}
@@ -0,0 +1,140 @@
+package it.sevenbits.todolist.core.id;
+
+import it.sevenbits.todolist.core.model.TaskId;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Microbenchmark that compares random and time-ordered task id generators.
+ * It is not a unit test and is run by hand:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:... it.sevenbits.todolist.core.id.TaskIdGeneratorBenchmark
+ * </pre>
+ *
+ * Without arguments it measures generation throughput from several threads and how many ids
+ * land on the right edge of a sorted index. Given a JDBC url, user and password of a scratch
+ * PostgreSQL database, it also inserts rows into a uuid primary key table with each generator
+ * and reports insert throughput and the size of the primary key index.
+ */
+public final class TaskIdGeneratorBenchmark {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500000;
+    private static final int LOCALITY_IDS = 200000;
+    private static final int INSERT_ROWS = 200000;
+    private static final int INSERT_BATCH = 1000;
+
+    private TaskIdGeneratorBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        ITaskIdGenerator[] generators = {new RandomTaskIdGenerator(), new TimeOrderedTaskIdGenerator()};
+
+        // warm-up round
+        for (ITaskIdGenerator generator : generators) {
+            measureGeneration(generator);
+        }
+        for (ITaskIdGenerator generator : generators) {
+            measureGeneration(generator);
+            measureLocality(generator);
+        }
+        if (args.length >= 3) {
+            for (ITaskIdGenerator generator : generators) {
+                measureInserts(generator, args[0], args[1], args[2]);
+            }
+        }
+    }
+
+    private static void measureGeneration(final ITaskIdGenerator generator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    long sink = 0;
+                    for (int j = 0; j < IDS_PER_THREAD; j++) {
+                        sink ^= generator.nextId().getLeastSignificantBits();
+                    }
+                    return sink;
+                }));
+            }
+            long sink = 0;
+            for (Future<Long> future : futures) {
+                sink ^= future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%s: %d threads, %.0f ids/s (%d)%n", name(generator), THREADS,
+                    THREADS * (double) IDS_PER_THREAD * 1e9 / elapsed, sink & 1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void measureLocality(final ITaskIdGenerator generator) {
+        TreeSet<TaskId> index = new TreeSet<>();
+        int appended = 0;
+        for (int i = 0; i < LOCALITY_IDS; i++) {
+            TaskId id = generator.nextId();
+            if (index.isEmpty() || index.last().compareTo(id) < 0) {
+                appended++;
+            }
+            index.add(id);
+        }
+        System.out.printf("%s: %.1f%% of ids appended to the right edge of the index%n", name(generator),
+                appended * 100.0 / LOCALITY_IDS);
+    }
+
+    private static void measureInserts(final ITaskIdGenerator generator, final String url,
+                                       final String user, final String password) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS task_id_benchmark");
+                statement.execute("CREATE TABLE task_id_benchmark (id uuid PRIMARY KEY, text varchar(256))");
+            }
+            connection.setAutoCommit(false);
+
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO task_id_benchmark (id, text) VALUES (?, ?)")) {
+                for (int i = 1; i <= INSERT_ROWS; i++) {
+                    insert.setObject(1, generator.nextId().toUuid());
+                    insert.setString(2, "task " + i);
+                    insert.addBatch();
+                    if (i % INSERT_BATCH == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT pg_relation_size('task_id_benchmark_pkey')")) {
+                resultSet.next();
+                System.out.printf("%s: %.0f inserts/s, primary key index %d kB%n", name(generator),
+                        INSERT_ROWS * 1e9 / elapsed, resultSet.getLong(1) / 1024);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE task_id_benchmark");
+            }
+            connection.commit();
+        }
+    }
+
+    private static String name(final ITaskIdGenerator generator) {
+        return generator.getClass().getSimpleName();
+    }
+}
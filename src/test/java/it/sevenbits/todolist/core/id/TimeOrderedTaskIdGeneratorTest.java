@@ -0,0 +1,41 @@
+package it.sevenbits.todolist.core.id;
+
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.validation.id.service.TaskIDValidator;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeOrderedTaskIdGeneratorTest {
+    @Test
+    public void timeOrderedIdFormatTest() {
+        TimeOrderedTaskIdGenerator generator = new TimeOrderedTaskIdGenerator(() -> 1500000000000L);
+        TaskIDValidator validator = new TaskIDValidator();
+
+        UUID uuid = generator.nextId().toUuid();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(1500000000000L, uuid.getMostSignificantBits() >>> 16);
+        assertTrue(validator.isValidTaskID(uuid.toString()));
+    }
+
+    @Test
+    public void timeOrderedIdMonotonicTest() {
+        long[] now = {1500000000000L};
+        TimeOrderedTaskIdGenerator generator = new TimeOrderedTaskIdGenerator(() -> now[0]);
+
+        TaskId previous = generator.nextId();
+        for (int i = 0; i < 10000; i++) {
+            if (i == 5000) {
+                now[0] -= 1000;
+            }
+            TaskId next = generator.nextId();
+            assertTrue(previous.compareTo(next) < 0);
+            previous = next;
+        }
+    }
+}
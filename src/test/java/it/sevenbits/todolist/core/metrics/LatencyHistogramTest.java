@@ -0,0 +1,42 @@
+package it.sevenbits.todolist.core.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+    @Test
+    public void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(590, snapshot.getMean());
+        assertEquals(127, snapshot.getP50());
+        assertEquals(127, snapshot.getP90());
+        assertEquals(5000, snapshot.getP99());
+        assertEquals(5000, snapshot.getMax());
+    }
+
+    @Test
+    public void intervalTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5000);
+        HistogramSnapshot previous = histogram.snapshot();
+        histogram.record(0);
+        histogram.record(3);
+
+        HistogramSnapshot interval = histogram.snapshot().since(previous);
+        assertEquals(2, interval.getCount());
+        assertEquals(3, interval.getSum());
+        assertEquals(0, interval.getP50());
+        assertEquals(3, interval.getMax());
+        assertEquals(0, new LatencyHistogram().snapshot().getP99());
+    }
+}
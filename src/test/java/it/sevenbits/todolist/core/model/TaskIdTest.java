@@ -0,0 +1,56 @@
+package it.sevenbits.todolist.core.model;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskIdTest {
+    @Test
+    public void taskIdFormatTest() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            TaskId id = TaskId.valueOf(uuid.toString());
+
+            assertEquals(uuid, id.toUuid());
+            assertEquals(uuid.toString(), id.toString());
+            assertEquals(TaskId.of(uuid), id);
+            assertEquals(TaskId.of(uuid).hashCode(), id.hashCode());
+        }
+    }
+
+    @Test
+    public void taskIdValidationTest() {
+        assertTrue(TaskId.isValid("123E4567-e89b-12d3-a456-426655440000"));
+        assertEquals("123e4567-e89b-12d3-a456-426655440000",
+                TaskId.valueOf("123E4567-e89b-12d3-a456-426655440000").toString());
+
+        assertFalse(TaskId.isValid(null));
+        assertFalse(TaskId.isValid(""));
+        assertFalse(TaskId.isValid("123e4567-e89b-12d3-a456-42665544000"));
+        assertFalse(TaskId.isValid("123e4567-e89b-12d3-a456-4266554400000"));
+        assertFalse(TaskId.isValid("123e4567+e89b-12d3-a456-426655440000"));
+        assertFalse(TaskId.isValid("123g4567-e89b-12d3-a456-426655440000"));
+        assertFalse(TaskId.isValid("123e4567-e89b-12d3-a456-42665544000١"));
+        assertNull(TaskId.tryParse("123e4567-e89b-12d3-a456-42665544000z"));
+    }
+
+    @Test
+    public void taskIdOrderTest() {
+        TaskId low = TaskId.valueOf("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        TaskId high = TaskId.valueOf("80000000-0000-0000-0000-000000000000");
+
+        assertTrue(low.compareTo(high) < 0);
+        assertTrue(high.compareTo(low) > 0);
+        assertEquals(0, low.compareTo(TaskId.valueOf(low.toString())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTaskIdTest() {
+        TaskId.valueOf("not-a-task-id");
+    }
+}
@@ -2,8 +2,11 @@ package it.sevenbits.todolist.core.model;
 
 import org.junit.Test;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.Instant;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -13,25 +16,39 @@ public class TaskTest {
     public void taskModelTest() {
         String text = "Task 1 text";
         String status = "inbox";
-        UUID id = UUID.randomUUID();
-        Date dateNow = new Date();
-        SimpleDateFormat formatForDateNow = new SimpleDateFormat(
-                "yyyy-MM-dd'T'H:mm:ss+00:00");
-
-        String createdAt = formatForDateNow.format(dateNow);
-        String updatedAt = createdAt;
+        TaskId id = TaskId.of(UUID.randomUUID());
+        Instant createdAt = Instant.now();
+        Instant updatedAt = createdAt;
 
-        Task task = new Task(id.toString(),
+        Task task = new Task(id,
                 text,
                 status,
                 createdAt,
                 updatedAt);
 
 
-        assertEquals(id.toString(), task.getId());
+        assertEquals(id, task.getId());
         assertEquals(text, task.getText());
         assertEquals(status, task.getStatus());
         assertEquals(createdAt, task.getCreatedAt());
         assertEquals(updatedAt, task.getUpdatedAt());
     }
+
+    @Test
+    public void taskJsonFormatTest() {
+        TaskId id = TaskId.of(UUID.randomUUID());
+        Task task = new Task(id,
+                "Task 1 text",
+                "inbox",
+                Instant.parse("2019-03-05T09:05:03.123456Z"),
+                Instant.parse("2019-03-05T14:15:16Z"));
+
+        JsonNode taskNode = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .valueToTree(task);
+
+        assertEquals(id.toString(), taskNode.get("id").asText());
+        assertEquals("2019-03-05T9:05:03+00:00", taskNode.get("createdAt").asText());
+        assertEquals("2019-03-05T14:15:16+00:00", taskNode.get("updatedAt").asText());
+    }
 }
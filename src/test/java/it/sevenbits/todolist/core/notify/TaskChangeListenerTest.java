@@ -0,0 +1,118 @@
+package it.sevenbits.todolist.core.notify;
+
+import it.sevenbits.todolist.core.cache.SegmentedLruCache;
+import it.sevenbits.todolist.core.cache.TaskListVersions;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskChangeListenerTest {
+    private SegmentedLruCache<TaskId, Task> cache;
+    private TaskListVersions versions;
+    private TaskId firstId;
+    private TaskId secondId;
+
+    @Before
+    public void setup() {
+        cache = new SegmentedLruCache<>("taskCache", 100, 0, 0);
+        versions = new TaskListVersions();
+        firstId = TaskId.of(UUID.randomUUID());
+        secondId = TaskId.of(UUID.randomUUID());
+        cache.get(firstId, this::load);
+        cache.get(secondId, this::load);
+    }
+
+    @Test
+    public void changeEvictsTaskAndBumpsItsListTest() {
+        TaskChangeListener listener = new TaskChangeListener(mock(DataSource.class), cache, versions, 1000, 0);
+        long inboxVersion = versions.getVersion("inbox");
+        long doneVersion = versions.getVersion("done");
+
+        listener.handle(firstId + " inbox");
+
+        assertEquals(1, cache.size());
+        assertNotEquals(inboxVersion, versions.getVersion("inbox"));
+        assertEquals(doneVersion, versions.getVersion("done"));
+        assertEquals(1L, listener.getMetrics().get("invalidatedTasks"));
+    }
+
+    @Test
+    public void flushAndUnknownPayloadsDropEverythingTest() {
+        TaskChangeListener listener = new TaskChangeListener(mock(DataSource.class), cache, versions, 1000, 0);
+        long doneVersion = versions.getVersion("done");
+
+        listener.handle(TaskChangeListener.FLUSH_ALL);
+        assertEquals(0, cache.size());
+        assertNotEquals(doneVersion, versions.getVersion("done"));
+
+        cache.get(firstId, this::load);
+        listener.handle("not a task");
+        assertEquals(0, cache.size());
+        assertEquals(2L, listener.getMetrics().get("fullFlushes"));
+    }
+
+    @Test
+    public void listenerWithoutCachesIgnoresChangesTest() {
+        TaskChangeListener listener = new TaskChangeListener(mock(DataSource.class), null, null, 1000, 0);
+        listener.handle(firstId + " done");
+        listener.handle(TaskChangeListener.FLUSH_ALL);
+        assertEquals(2L, listener.getMetrics().get("notifications"));
+    }
+
+    @Test
+    public void lostConnectionFlushesCachesAndReconnectsTest() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection broken = mockConnection();
+        when(broken.unwrap(PGConnection.class).getNotifications(anyInt())).thenThrow(new SQLException("connection lost"));
+        Connection working = mockConnection();
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(secondId + " done");
+        when(working.unwrap(PGConnection.class).getNotifications(anyInt()))
+                .thenReturn(new PGNotification[] {notification})
+                .thenReturn(new PGNotification[0]);
+        when(dataSource.getConnection()).thenReturn(broken, working);
+
+        TaskChangeListener listener = new TaskChangeListener(dataSource, cache, versions, 10, 1);
+        listener.start();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (((Long) listener.getMetrics().get("invalidatedTasks")) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(listener.isConnected());
+        } finally {
+            listener.shutdown();
+        }
+        assertEquals(0, cache.size());
+        assertEquals(1L, listener.getMetrics().get("connectionFailures"));
+        assertEquals(3L, listener.getMetrics().get("fullFlushes"));
+    }
+
+    private Connection mockConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(mock(PGConnection.class));
+        return connection;
+    }
+
+    private Task load(final TaskId id) {
+        return new Task(id, "text", "inbox", Instant.EPOCH, Instant.EPOCH);
+    }
+}
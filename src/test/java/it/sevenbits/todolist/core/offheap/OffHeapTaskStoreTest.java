@@ -0,0 +1,145 @@
+package it.sevenbits.todolist.core.offheap;
+
+import it.sevenbits.todolist.core.id.RandomTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapTaskStoreTest {
+    @Test
+    public void insertReadDeleteTest() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        RandomTaskIdGenerator generator = new RandomTaskIdGenerator();
+        Instant now = Instant.parse("2019-02-01T10:00:00.123456Z");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Task task = new Task(generator.nextId(), i % 7 == 0 ? "" : "задача " + i, i % 2 == 0 ? "inbox" : "done", now, now);
+            tasks.add(task);
+            assertTrue(store.insert(task) >= 0);
+        }
+        assertEquals(-1, store.insert(tasks.get(0)));
+
+        for (int i = 0; i < tasks.size(); i += 2) {
+            store.delete(store.find(tasks.get(i).getId()));
+        }
+        assertEquals(2500, store.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            int row = store.find(tasks.get(i).getId());
+            if (i % 2 == 0) {
+                assertEquals(-1, row);
+            } else {
+                Task task = store.read(row);
+                assertEquals(tasks.get(i).getText(), task.getText());
+                assertEquals("done", task.getStatus());
+                assertEquals(now, task.getCreatedAt());
+            }
+        }
+
+        long directBytes = store.getDirectBytes();
+        for (int i = 0; i < 2500; i++) {
+            store.insert(new Task(generator.nextId(), "задача " + i, "inbox", now, now));
+        }
+        assertEquals(5000, store.size());
+        assertEquals(5000, store.getRowLimit());
+        assertEquals(directBytes, store.getDirectBytes());
+    }
+
+    @Test
+    public void updateTest() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        TaskId id = new RandomTaskIdGenerator().nextId();
+        Instant now = Instant.now();
+        int row = store.insert(new Task(id, "short", "inbox", now, now));
+
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            longText.append('ы');
+        }
+        store.update(row, longText.toString(), "done", now);
+        assertEquals(longText.toString(), store.read(store.find(id)).getText());
+        assertEquals("done", store.getStatus(row));
+
+        store.update(row, "short again", null, now);
+        assertEquals("short again", store.readText(row));
+        assertEquals("done", store.getStatus(row));
+    }
+
+    @Test
+    public void selectRowsTest() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        RandomTaskIdGenerator generator = new RandomTaskIdGenerator();
+        Random random = new Random(42);
+        Comparator<Task> listOrder = Comparator.comparing(Task::getCreatedAt).thenComparing(Task::getId);
+        TreeSet<Task> inbox = new TreeSet<>(listOrder);
+        List<Task> tasks = new ArrayList<>();
+        Instant start = Instant.parse("2019-02-01T10:00:00Z");
+        for (int i = 0; i < 20000; i++) {
+            int action = random.nextInt(10);
+            if (action < 6 || tasks.isEmpty()) {
+                Instant createdAt = start.plusMillis(action < 3 ? i : random.nextInt(200));
+                Task task = new Task(generator.nextId(), "task", "inbox", createdAt, createdAt);
+                store.insert(task);
+                tasks.add(task);
+                inbox.add(task);
+            } else {
+                Task task = tasks.remove(random.nextInt(tasks.size()));
+                int row = store.find(task.getId());
+                if (action < 8) {
+                    store.delete(row);
+                } else {
+                    store.update(row, null, "done", start);
+                }
+                inbox.remove(task);
+            }
+        }
+
+        byte inboxCode = store.findStatusCode("inbox");
+        List<Task> ascending = new ArrayList<>(inbox);
+        List<Task> descending = new ArrayList<>(inbox.descendingSet());
+        for (int offset : new int[] {0, 1, 511, 512, 1000, ascending.size() - 3, ascending.size() + 1}) {
+            assertArrayEquals(rowsOf(store, ascending, offset, 25), store.selectRows(inboxCode, true, 0, null, offset, 25));
+            assertArrayEquals(rowsOf(store, descending, offset, 25), store.selectRows(inboxCode, false, 0, null, offset, 25));
+        }
+        for (int i = 0; i < 100; i++) {
+            Task position = ascending.get(random.nextInt(ascending.size()));
+            long createdAt = OffHeapTaskStore.toMicros(position.getCreatedAt());
+            assertArrayEquals(rowsOf(store, new ArrayList<>(inbox.tailSet(position, false)), 0, 25),
+                    store.selectRows(inboxCode, true, createdAt, position.getId(), 0, 25));
+            assertArrayEquals(rowsOf(store, new ArrayList<>(inbox.headSet(position, false).descendingSet()), 0, 25),
+                    store.selectRows(inboxCode, false, createdAt, position.getId(), 0, 25));
+        }
+
+        List<Integer> rows = new ArrayList<>();
+        store.forEachRow(inboxCode, rows::add);
+        assertEquals(inbox.size(), rows.size());
+    }
+
+    private static int[] rowsOf(final OffHeapTaskStore store, final List<Task> tasks, final int offset, final int limit) {
+        return tasks.stream()
+                .skip(offset)
+                .limit(limit)
+                .mapToInt(task -> store.find(task.getId()))
+                .toArray();
+    }
+
+    @Test
+    public void sizeClassesTest() {
+        assertEquals(16, TextArena.getBlockSize(TextArena.getSizeClass(1)));
+        assertEquals(16, TextArena.getBlockSize(TextArena.getSizeClass(16)));
+        assertEquals(32, TextArena.getBlockSize(TextArena.getSizeClass(17)));
+        assertEquals(256, TextArena.getBlockSize(TextArena.getSizeClass(256)));
+        assertEquals(512, TextArena.getBlockSize(TextArena.getSizeClass(257)));
+        assertEquals(1 << 20, TextArena.getBlockSize(TextArena.getSizeClass(1 << 20)));
+    }
+}
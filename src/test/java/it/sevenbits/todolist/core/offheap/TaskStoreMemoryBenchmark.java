@@ -0,0 +1,124 @@
+package it.sevenbits.todolist.core.offheap;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.core.repository.ITasksRepository;
+import it.sevenbits.todolist.core.repository.OffHeapTasksRepository;
+import it.sevenbits.todolist.core.repository.SegmentTasksRepository;
+import it.sevenbits.todolist.core.segment.SegmentTaskStore;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark that compares memory use and GC work of heap, off-heap and segment file repositories.
+ * It is not a unit test and is run by hand, one engine per JVM, with a fixed heap:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/test-classes:target/classes:... it.sevenbits.todolist.core.offheap.TaskStoreMemoryBenchmark heap 1000000
+ * java -Xmx4g -cp target/test-classes:target/classes:... it.sevenbits.todolist.core.offheap.TaskStoreMemoryBenchmark offheap 1000000
+ * java -Xmx4g -cp target/test-classes:target/classes:... it.sevenbits.todolist.core.offheap.TaskStoreMemoryBenchmark segment 1000000
+ * </pre>
+ *
+ * Segment engine keeps records in files of a temporary directory, direct memory of it is the size of live records.
+ *
+ * It adds tasks, reports heap used after full GC and direct memory per task, then patches and
+ * reads random tasks and reports collection count and time spent in GC during this phase.
+ */
+public final class TaskStoreMemoryBenchmark {
+    private static final int CHURN_OPERATIONS = 2000000;
+
+    private TaskStoreMemoryBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String engine = args.length > 0 ? args[0] : "heap";
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+        long heapBefore = getHeapAfterGc();
+        ITasksRepository repository;
+        if ("offheap".equals(engine)) {
+            repository = new OffHeapTasksRepository(new TimeOrderedTaskIdGenerator());
+        } else if ("segment".equals(engine)) {
+            repository = new SegmentTasksRepository(new TimeOrderedTaskIdGenerator(),
+                    new SegmentTaskStore(Files.createTempDirectory("segments"), 64 << 20), 0.5);
+        } else {
+            repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator());
+        }
+        List<TaskId> ids = new ArrayList<>(taskCount);
+        long fillStart = System.nanoTime();
+        for (int i = 0; i < taskCount; i++) {
+            ids.add(repository.addTask(new AddTaskRequest("buy milk and bread for task number " + i)).getId());
+        }
+        long fillMillis = (System.nanoTime() - fillStart) / 1000000;
+        // ids list is a benchmark artifact, it is not counted
+        long idsBytes = (long) taskCount * (16 + 24) + (long) taskCount * 4;
+        long heapBytes = getHeapAfterGc() - heapBefore - idsBytes;
+        long directBytes = 0;
+        if (repository instanceof OffHeapTasksRepository) {
+            directBytes = (Long) ((OffHeapTasksRepository) repository).getMetrics().get("directBytes");
+        } else if (repository instanceof SegmentTasksRepository) {
+            directBytes = (Long) ((SegmentTasksRepository) repository).getMetrics().get("liveBytes");
+        }
+
+        System.out.printf("%s engine, %d tasks added in %d ms%n", engine, taskCount, fillMillis);
+        System.out.printf("heap: %d bytes per task, direct memory: %d bytes per task%n",
+                heapBytes / taskCount, directBytes / taskCount);
+
+        long gcCountBefore = getGcCount();
+        long gcMillisBefore = getGcMillis();
+        long churnStart = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < CHURN_OPERATIONS; i++) {
+            TaskId id = ids.get(random.nextInt(taskCount));
+            if (i % 4 == 0) {
+                repository.patchTask(id, "changed text " + i, i % 8 == 0 ? "done" : "inbox");
+            } else {
+                Task task = repository.getTaskByID(id);
+                if (task == null) {
+                    throw new IllegalStateException("Task is lost: " + id);
+                }
+            }
+        }
+        long churnMillis = (System.nanoTime() - churnStart) / 1000000;
+        System.out.printf("%d reads and patches in %d ms, %d collections, %d ms in GC%n",
+                CHURN_OPERATIONS, churnMillis, getGcCount() - gcCountBefore, getGcMillis() - gcMillisBefore);
+
+        long fullGcStart = System.nanoTime();
+        System.gc();
+        System.out.printf("full GC with all tasks live: %d ms%n", (System.nanoTime() - fullGcStart) / 1000000);
+    }
+
+    private static long getHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += collector.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += collector.getCollectionTime();
+        }
+        return millis;
+    }
+}
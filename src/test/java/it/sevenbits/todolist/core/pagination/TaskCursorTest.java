@@ -0,0 +1,40 @@
+package it.sevenbits.todolist.core.pagination;
+
+import it.sevenbits.todolist.core.model.TaskId;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskCursorTest {
+    @Test
+    public void cursorEncodingTest() {
+        Instant createdAt = Instant.parse("2019-03-05T09:05:03.123456Z");
+        TaskId id = TaskId.of(UUID.randomUUID());
+
+        TaskCursor cursor = TaskCursor.decode(new TaskCursor(createdAt, id, true).encode());
+
+        assertTrue(cursor.hasPosition());
+        assertTrue(cursor.isBackward());
+        assertEquals(createdAt, cursor.getCreatedAt());
+        assertEquals(id, cursor.getId());
+    }
+
+    @Test
+    public void emptyCursorTest() {
+        TaskCursor cursor = TaskCursor.decode("");
+
+        assertFalse(cursor.hasPosition());
+        assertFalse(cursor.isBackward());
+        assertTrue(TaskCursor.decode(TaskCursor.last().encode()).isBackward());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedCursorTest() {
+        TaskCursor.decode("bm90LWEtY3Vyc29y");
+    }
+}
@@ -0,0 +1,123 @@
+package it.sevenbits.todolist.core.persistence;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the write path and recovery of persisted in-memory repository.
+ * It is not a unit test and is run by hand:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:... it.sevenbits.todolist.core.persistence.TaskJournalBenchmark [directory]
+ * </pre>
+ *
+ * It adds tasks from several threads without journal, with asynchronous fsync and with changes
+ * waiting for fsync, and reports throughput and mean latency. Then it measures recovery
+ * of a large repository from the log only and from a snapshot, and reading of the log without indexing tasks.
+ */
+public final class TaskJournalBenchmark {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 20000;
+    private static final int RECOVERY_TASKS = 1000000;
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    private TaskJournalBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Path root = args.length > 0 ? Files.createDirectories(Paths.get(args[0])) : Files.createTempDirectory("journal");
+
+        measureWrites("no journal", null);
+        measureWrites("no journal", null);
+        measureWrites("async fsync every 2 ms", new TaskJournal(newDirectory(root), SEGMENT_SIZE, 2, false));
+        measureWrites("sync writes", new TaskJournal(newDirectory(root), SEGMENT_SIZE, 2, true));
+        measureRecovery(newDirectory(root));
+        deleteRecursively(root);
+    }
+
+    private static void measureWrites(final String name, final TaskJournal journal) throws Exception {
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long startedAt = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    repository.addTask(new AddTaskRequest("buy milk and bread for task number " + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        long tasks = (long) THREADS * TASKS_PER_THREAD;
+        System.out.printf("%-40s %8d tasks/s, mean latency %6d us%n", name,
+                tasks * 1000000000L / elapsedNanos, elapsedNanos / 1000 * THREADS / tasks);
+    }
+
+    private static void measureRecovery(final Path directory) throws IOException {
+        TaskJournal journal = new TaskJournal(directory, SEGMENT_SIZE, 2, false);
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        List<AddTaskRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(new AddTaskRequest("buy milk and bread for task number " + i));
+        }
+        for (int i = 0; i < RECOVERY_TASKS / batch.size(); i++) {
+            repository.addTasks(batch);
+        }
+        journal.close();
+
+        long startedAt = System.nanoTime();
+        journal = new TaskJournal(directory, SEGMENT_SIZE, 2, false);
+        journal.recover(task -> { }, id -> { });
+        System.out.printf("reading %d tasks from log without indexing: %d ms%n",
+                RECOVERY_TASKS, (System.nanoTime() - startedAt) / 1000000);
+        journal.close();
+
+        startedAt = System.nanoTime();
+        journal = new TaskJournal(directory, SEGMENT_SIZE, 2, false);
+        repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        System.out.printf("recovery of %d tasks from log: %d ms%n",
+                RECOVERY_TASKS, (System.nanoTime() - startedAt) / 1000000);
+
+        startedAt = System.nanoTime();
+        repository.snapshot();
+        System.out.printf("snapshot of %d tasks: %d ms%n", RECOVERY_TASKS, (System.nanoTime() - startedAt) / 1000000);
+        journal.close();
+
+        startedAt = System.nanoTime();
+        journal = new TaskJournal(directory, SEGMENT_SIZE, 2, false);
+        new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        System.out.printf("recovery of %d tasks from snapshot: %d ms%n",
+                RECOVERY_TASKS, (System.nanoTime() - startedAt) / 1000000);
+        journal.close();
+    }
+
+    private static Path newDirectory(final Path root) throws IOException {
+        return Files.createTempDirectory(root, "journal");
+    }
+
+    private static void deleteRecursively(final Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
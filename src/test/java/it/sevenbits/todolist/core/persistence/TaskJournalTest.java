@@ -0,0 +1,95 @@
+package it.sevenbits.todolist.core.persistence;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TaskJournalTest {
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recoverFromLogTest() {
+        TaskJournal journal = newJournal();
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        List<Task> tasks = addTasks(repository, 2000);
+        repository.patchTask(tasks.get(0).getId(), "changed", "done");
+        repository.deleteTask(tasks.get(1).getId());
+        journal.close();
+
+        HashMapTasksRepository recovered = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), newJournal());
+
+        assertEquals("changed", recovered.getTaskByID(tasks.get(0).getId()).getText());
+        assertEquals("done", recovered.getTaskByID(tasks.get(0).getId()).getStatus());
+        assertNull(recovered.getTaskByID(tasks.get(1).getId()));
+        assertEquals(tasks.get(1999).getText(), recovered.getTaskByID(tasks.get(1999).getId()).getText());
+        assertEquals(1999, recovered.exportTasks(null, task -> { }));
+    }
+
+    @Test
+    public void recoverFromSnapshotAndLogTest() {
+        TaskJournal journal = newJournal();
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        List<Task> tasks = addTasks(repository, 500);
+        repository.snapshot();
+        repository.deleteTask(tasks.get(0).getId());
+        addTasks(repository, 10);
+        journal.close();
+
+        assertEquals(1, folder.getRoot().list((dir, name) -> name.endsWith(".snap")).length);
+        HashMapTasksRepository recovered = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), newJournal());
+
+        assertNull(recovered.getTaskByID(tasks.get(0).getId()));
+        assertEquals(509, recovered.exportTasks(null, task -> { }));
+    }
+
+    @Test
+    public void tornRecordIsSkippedTest() throws Exception {
+        TaskJournal journal = newJournal();
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), journal);
+        List<Task> tasks = addTasks(repository, 3);
+        journal.close();
+
+        File[] segments = folder.getRoot().listFiles((dir, name) -> name.endsWith(".log"));
+        assertEquals(1, segments.length);
+        try (RandomAccessFile segment = new RandomAccessFile(segments[0], "rw")) {
+            long lastRecordOffset = 0;
+            for (int i = 0; i < 2; i++) {
+                segment.seek(lastRecordOffset);
+                lastRecordOffset += 8 + segment.readInt();
+            }
+            segment.seek(lastRecordOffset + 20);
+            segment.write(0xff);
+        }
+
+        HashMapTasksRepository recovered = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), newJournal());
+        assertEquals(tasks.get(1).getText(), recovered.getTaskByID(tasks.get(1).getId()).getText());
+        assertNull(recovered.getTaskByID(tasks.get(2).getId()));
+    }
+
+    private TaskJournal newJournal() {
+        return new TaskJournal(folder.getRoot().toPath(), SEGMENT_SIZE, 0, true);
+    }
+
+    private static List<Task> addTasks(final HashMapTasksRepository repository, final int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(repository.addTask(new AddTaskRequest("task " + i)));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,99 @@
+package it.sevenbits.todolist.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashMapTasksRepositoryTest {
+    private HashMapTasksRepository repository;
+    private List<Task> tasks;
+
+    @Before
+    public void setup() {
+        repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator());
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tasks.add(repository.addTask(new AddTaskRequest("task " + i)));
+        }
+    }
+
+    @Test
+    public void pageByNumberTest() {
+        JsonNode page = repository.getAllTasks("inbox", "asc", (short) 2, (short) 10, null);
+
+        assertEquals(25, page.get("_meta").get("total").asInt());
+        assertEquals(10, page.get("tasks").size());
+        assertEquals(tasks.get(10).getId().toString(), page.get("tasks").get(0).get("id").asText());
+
+        JsonNode lastPage = repository.getAllTasks("inbox", "desc", (short) 3, (short) 10, null);
+        assertEquals(5, lastPage.get("tasks").size());
+        assertEquals(tasks.get(4).getId().toString(), lastPage.get("tasks").get(0).get("id").asText());
+    }
+
+    @Test
+    public void pageByCursorTest() {
+        Task position = tasks.get(19);
+        JsonNode page = repository.getAllTasks("inbox", "desc", null, (short) 10,
+                new TaskCursor(position.getCreatedAt(), position.getId(), false));
+
+        assertEquals(10, page.get("tasks").size());
+        assertEquals(tasks.get(18).getId().toString(), page.get("tasks").get(0).get("id").asText());
+        assertTrue(page.get("_meta").get("next").isTextual());
+
+        JsonNode lastPage = repository.getAllTasks("inbox", "desc", null, (short) 10, TaskCursor.last());
+        assertEquals(10, lastPage.get("tasks").size());
+        assertEquals(tasks.get(9).getId().toString(), lastPage.get("tasks").get(0).get("id").asText());
+        assertTrue(lastPage.get("_meta").get("next").isNull());
+    }
+
+    @Test
+    public void patchMovesTaskBetweenStatusesTest() {
+        repository.patchTask(tasks.get(0).getId(), "renamed", "done");
+        repository.deleteTask(tasks.get(1).getId());
+
+        JsonNode inbox = repository.getAllTasks("inbox", "asc", (short) 1, (short) 50, null);
+        JsonNode done = repository.getAllTasks("done", "asc", (short) 1, (short) 50, null);
+
+        assertEquals(23, inbox.get("_meta").get("total").asInt());
+        assertEquals(23, inbox.get("tasks").size());
+        assertEquals(1, done.get("_meta").get("total").asInt());
+        assertEquals("renamed", done.get("tasks").get(0).get("text").asText());
+    }
+
+    @Test
+    public void concurrentPatchesTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                Task task = tasks.get(i % tasks.size());
+                String status = i % 2 == 0 ? "done" : "inbox";
+                futures.add(executor.submit(() -> repository.patchTask(task.getId(), null, status)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        JsonNode inbox = repository.getAllTasks("inbox", "asc", (short) 1, (short) 50, null);
+        JsonNode done = repository.getAllTasks("done", "asc", (short) 1, (short) 50, null);
+        assertEquals(25, inbox.get("tasks").size() + done.get("tasks").size());
+        assertEquals(inbox.get("tasks").size(), inbox.get("_meta").get("total").asInt());
+        assertEquals(done.get("tasks").size(), done.get("_meta").get("total").asInt());
+    }
+}
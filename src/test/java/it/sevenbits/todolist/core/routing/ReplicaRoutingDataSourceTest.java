@@ -0,0 +1,70 @@
+package it.sevenbits.todolist.core.routing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+    @After
+    public void clearContext() {
+        ReadRoutingContext.clear();
+    }
+
+    @Test
+    public void positionFormatTest() {
+        assertEquals(0x16B374D848L, ReplicaRoutingDataSource.parsePosition("16/B374D848"));
+        assertEquals("16/B374D848", ReplicaRoutingDataSource.formatPosition(0x16B374D848L));
+        assertEquals("0/0", ReplicaRoutingDataSource.formatPosition(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedPositionTest() {
+        ReplicaRoutingDataSource.parsePosition("16/-374D848");
+    }
+
+    @Test
+    public void readRoutingTest() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mockReplica("0/100");
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica));
+
+        ReadRoutingContext.startRead(0);
+        assertEquals("primary", dataSource.determineCurrentLookupKey());
+
+        dataSource.refreshReplicaPositions();
+        assertEquals("replica-0", dataSource.determineCurrentLookupKey());
+
+        ReadRoutingContext.startRead(0x100);
+        assertEquals("replica-0", dataSource.determineCurrentLookupKey());
+
+        ReadRoutingContext.startRead(0x101);
+        assertEquals("primary", dataSource.determineCurrentLookupKey());
+
+        ReadRoutingContext.clear();
+        assertEquals("primary", dataSource.determineCurrentLookupKey());
+    }
+
+    private static DataSource mockReplica(final String position) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn(position);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
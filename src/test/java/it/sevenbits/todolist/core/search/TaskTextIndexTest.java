@@ -0,0 +1,106 @@
+package it.sevenbits.todolist.core.search;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskTextIndexTest {
+    @Test
+    public void searchTermsTest() {
+        assertEquals(Arrays.asList("buy", "milk", "2", "liters", "milk"),
+                SearchTerms.split("Buy MILK: 2 liters, milk!"));
+        assertEquals(Arrays.asList("buy", "milk"), SearchTerms.parseQuery(" buy milk BUY "));
+        assertTrue(SearchTerms.parseQuery("?!").isEmpty());
+    }
+
+    @Test
+    public void prefixSearchTest() {
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator());
+        Task milk = repository.addTask(new AddTaskRequest("Buy milk"));
+        Task milkshake = repository.addTask(new AddTaskRequest("Milkshake and milk for the party"));
+        repository.addTask(new AddTaskRequest("Buy bread"));
+
+        List<Task> found = repository.searchTasks(SearchTerms.parseQuery("mil"), null, 0, 10);
+        assertEquals(Arrays.asList(milkshake.getId(), milk.getId()),
+                Arrays.asList(found.get(0).getId(), found.get(1).getId()));
+
+        assertEquals(1, repository.searchTasks(SearchTerms.parseQuery("bu mil"), null, 0, 10).size());
+        assertEquals(1, repository.searchTasks(SearchTerms.parseQuery("mil"), null, 1, 10).size());
+        assertTrue(repository.searchTasks(SearchTerms.parseQuery("mil"), "done", 0, 10).isEmpty());
+
+        repository.patchTask(milk.getId(), "Buy cheese", null);
+        found = repository.searchTasks(SearchTerms.parseQuery("milk"), null, 0, 10);
+        assertEquals(1, found.size());
+        assertEquals(milkshake.getId(), found.get(0).getId());
+        assertEquals(1, repository.searchTasks(SearchTerms.parseQuery("chee"), null, 0, 10).size());
+
+        repository.deleteTask(milkshake.getId());
+        assertTrue(repository.searchTasks(SearchTerms.parseQuery("milk"), null, 0, 10).isEmpty());
+    }
+
+    @Test
+    public void termsOfRemovedTasksAreDroppedTest() {
+        TaskTextIndex index = new TaskTextIndex();
+        Task first = new Task(TaskId.of(UUID.randomUUID()), "buy milk", "inbox", Instant.EPOCH, Instant.EPOCH);
+        Task second = new Task(TaskId.of(UUID.randomUUID()), "buy bread", "inbox", Instant.EPOCH, Instant.EPOCH);
+        index.add(first);
+        index.add(second);
+        assertEquals(3, index.getTermCount());
+
+        Task renamed = new Task(first.getId(), "buy cheese", "inbox", Instant.EPOCH, Instant.EPOCH);
+        index.replace(first, renamed);
+        assertEquals(3, index.getTermCount());
+        assertEquals(Collections.singleton(first.getId()), index.find(Collections.singletonList("chee")));
+
+        index.remove(renamed);
+        index.remove(second);
+        assertEquals(0, index.getTermCount());
+        assertTrue(index.find(Collections.singletonList("buy")).isEmpty());
+    }
+
+    @Test
+    public void postingsMatchHashSetTest() {
+        Random random = new Random(1);
+        List<TaskId> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(TaskId.of(UUID.randomUUID()));
+        }
+        TaskIdPostings postings = new TaskIdPostings();
+        Set<TaskId> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            TaskId id = ids.get(random.nextInt(ids.size()));
+            if (random.nextBoolean()) {
+                if (!postings.add(id)) {
+                    postings = new TaskIdPostings();
+                    assertTrue(postings.add(id));
+                }
+                expected.add(id);
+            } else {
+                expected.remove(id);
+                if (postings.remove(id)) {
+                    assertTrue(expected.isEmpty());
+                    postings = new TaskIdPostings();
+                }
+            }
+        }
+        Set<TaskId> actual = new HashSet<>();
+        postings.copyTo(actual);
+        assertEquals(expected, actual);
+    }
+}
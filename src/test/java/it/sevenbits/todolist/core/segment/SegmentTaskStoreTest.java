@@ -0,0 +1,138 @@
+package it.sevenbits.todolist.core.segment;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.pagination.TaskCursor;
+import it.sevenbits.todolist.core.repository.SegmentTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentTaskStoreTest {
+    private static final int SEGMENT_SIZE = 8 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<SegmentTasksRepository> repositories = new ArrayList<>();
+
+    @After
+    public void closeRepositories() {
+        repositories.forEach(SegmentTasksRepository::close);
+    }
+
+    @Test
+    public void reopenTest() {
+        SegmentTasksRepository repository = newRepository();
+        List<Task> tasks = addTasks(repository, 500);
+        repository.patchTask(tasks.get(0).getId(), "changed", "done");
+        repository.deleteTask(tasks.get(1).getId());
+        repository.close();
+
+        SegmentTasksRepository reopened = newRepository();
+
+        assertEquals(tasks.get(0).getCreatedAt(), reopened.getTaskByID(tasks.get(0).getId()).getCreatedAt());
+        assertEquals("changed", reopened.getTaskByID(tasks.get(0).getId()).getText());
+        assertEquals("done", reopened.getTaskByID(tasks.get(0).getId()).getStatus());
+        assertNull(reopened.getTaskByID(tasks.get(1).getId()));
+        assertEquals(tasks.get(499).getText(), reopened.getTaskByID(tasks.get(499).getId()).getText());
+        assertEquals(498, reopened.exportTasks("inbox", task -> { }));
+        assertEquals(1, reopened.exportTasks("done", task -> { }));
+    }
+
+    @Test
+    public void forEachFromCursorTest() {
+        SegmentTasksRepository repository = newRepository();
+        List<Task> tasks = addTasks(repository, 10);
+        repository.close();
+
+        SegmentTaskStore store = new SegmentTaskStore(folder.getRoot().toPath(), SEGMENT_SIZE);
+        store.open();
+        List<String> texts = new ArrayList<>();
+        store.forEach("inbox", false, new TaskCursor(tasks.get(5).getCreatedAt(), tasks.get(5).getId(), false), location -> {
+            texts.add(store.readText(location));
+            return texts.size() < 3;
+        });
+        store.close();
+
+        assertEquals(Arrays.asList("task 4", "task 3", "task 2"), texts);
+    }
+
+    @Test
+    public void compactionTest() {
+        SegmentTasksRepository repository = newRepository();
+        List<Task> tasks = addTasks(repository, 1000);
+        for (Task task : tasks.subList(0, 900)) {
+            repository.patchTask(task.getId(), null, "done");
+        }
+        repository.deleteTask(tasks.get(950).getId());
+        int segmentsBefore = folder.getRoot().list().length;
+
+        repository.compact();
+
+        assertTrue(folder.getRoot().list().length < segmentsBefore);
+        assertEquals(900, repository.exportTasks("done", task -> { }));
+        assertEquals(99, repository.exportTasks("inbox", task -> { }));
+        assertEquals("task 999", repository.getTaskByID(tasks.get(999).getId()).getText());
+        repository.close();
+
+        SegmentTasksRepository reopened = newRepository();
+        assertNull(reopened.getTaskByID(tasks.get(950).getId()));
+        assertEquals(900, reopened.exportTasks("done", task -> { }));
+        assertEquals(99, reopened.exportTasks("inbox", task -> { }));
+    }
+
+    @Test
+    public void tornRecordIsSkippedTest() throws Exception {
+        SegmentTasksRepository repository = newRepository();
+        List<Task> tasks = addTasks(repository, 3);
+        repository.close();
+
+        File[] segments = folder.getRoot().listFiles((dir, name) -> name.endsWith(".seg"));
+        assertEquals(1, segments.length);
+        try (RandomAccessFile segment = new RandomAccessFile(segments[0], "rw")) {
+            long lastRecordOffset = 0;
+            for (int i = 0; i < 2; i++) {
+                segment.seek(lastRecordOffset);
+                lastRecordOffset += 8 + segment.readInt();
+            }
+            segment.seek(lastRecordOffset + 20);
+            segment.write(0xff);
+        }
+
+        SegmentTasksRepository reopened = newRepository();
+        assertEquals(tasks.get(1).getText(), reopened.getTaskByID(tasks.get(1).getId()).getText());
+        assertNull(reopened.getTaskByID(tasks.get(2).getId()));
+
+        Task added = reopened.addTask(new AddTaskRequest("after torn record"));
+        reopened.close();
+        assertEquals("after torn record", newRepository().getTaskByID(added.getId()).getText());
+    }
+
+    private SegmentTasksRepository newRepository() {
+        SegmentTasksRepository repository = new SegmentTasksRepository(new TimeOrderedTaskIdGenerator(),
+                new SegmentTaskStore(folder.getRoot().toPath(), SEGMENT_SIZE), 0.5);
+        repositories.add(repository);
+        return repository;
+    }
+
+    private List<Task> addTasks(final SegmentTasksRepository repository, final int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(repository.addTask(new AddTaskRequest("task " + i)));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,165 @@
+package it.sevenbits.todolist.core.writebehind;
+
+import it.sevenbits.todolist.core.id.TimeOrderedTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.model.TaskId;
+import it.sevenbits.todolist.core.repository.DatabaseTasksRepository;
+import it.sevenbits.todolist.core.repository.HashMapTasksRepository;
+import it.sevenbits.todolist.web.model.AddTaskRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WriteBehindQueueTest {
+    private DatabaseTasksRepository target;
+    private List<List<Task>> savedBatches;
+    private List<TaskId> deletedIds;
+    private CountDownLatch writeStarted;
+    private CountDownLatch writeReleased;
+    private WriteBehindQueue queue;
+
+    @Before
+    public void setup() {
+        target = mock(DatabaseTasksRepository.class);
+        savedBatches = new CopyOnWriteArrayList<>();
+        deletedIds = new CopyOnWriteArrayList<>();
+        writeStarted = new CountDownLatch(1);
+        writeReleased = new CountDownLatch(0);
+        when(target.saveTasks(anyCollection())).thenAnswer(invocation -> {
+            Collection<Task> tasks = invocation.getArgument(0);
+            if (!tasks.isEmpty()) {
+                writeStarted.countDown();
+                writeReleased.await(5, TimeUnit.SECONDS);
+                savedBatches.add(new ArrayList<>(tasks));
+            }
+            return tasks.size();
+        });
+        when(target.deleteTasks(anyCollection())).thenAnswer(invocation -> {
+            Collection<TaskId> ids = invocation.getArgument(0);
+            deletedIds.addAll(ids);
+            return new ArrayList<>(ids);
+        });
+    }
+
+    @After
+    public void shutdown() {
+        if (queue != null) {
+            writeReleased = new CountDownLatch(0);
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void tasksAreLoadedFromDataBaseAtStartTest() {
+        Task stored = new Task(TaskId.of(UUID.randomUUID()), "stored", "done", Instant.EPOCH, Instant.EPOCH);
+        when(target.exportTasks(isNull(), any())).thenAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(1);
+            consumer.accept(stored);
+            return 1L;
+        });
+        queue = new WriteBehindQueue(target, 100, 100, 5000, 1000, 10);
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), queue);
+
+        assertEquals(stored, repository.getTaskByID(stored.getId()));
+        assertEquals(1L, queue.getMetrics().get("warmedUpTasks"));
+    }
+
+    @Test
+    public void repeatedChangesOfTaskAreWrittenOnceTest() throws InterruptedException {
+        queue = new WriteBehindQueue(target, 100, 100, 5000, 1000, 10);
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), queue);
+        writeReleased = new CountDownLatch(1);
+
+        Task blocker = repository.addTask(new AddTaskRequest("blocker"));
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        Task task = repository.addTask(new AddTaskRequest("first"));
+        repository.patchTask(task.getId(), "second", null);
+        repository.patchTask(task.getId(), null, "done");
+        Task deleted = repository.addTask(new AddTaskRequest("deleted"));
+        repository.deleteTask(deleted.getId());
+        assertEquals(3, queue.getQueueDepth());
+        writeReleased.countDown();
+
+        awaitWritten(queue, 3);
+        assertEquals(Collections.singletonList(blocker), savedBatches.get(0));
+        assertEquals(1, savedBatches.get(1).size());
+        assertEquals("second", savedBatches.get(1).get(0).getText());
+        assertEquals("done", savedBatches.get(1).get(0).getStatus());
+        assertEquals(Collections.singletonList(deleted.getId()), deletedIds);
+        assertEquals(3L, queue.getMetrics().get("coalescedChanges"));
+    }
+
+    @Test
+    public void failedBatchIsWrittenAgainWithNewerStateTest() {
+        when(target.deleteTasks(anyCollection()))
+                .thenThrow(new IllegalStateException("data base is down"))
+                .thenReturn(Collections.emptyList());
+        queue = new WriteBehindQueue(target, 100, 100, 5000, 1000, 10);
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), queue);
+
+        Task task = repository.addTask(new AddTaskRequest("first"));
+        repository.patchTask(task.getId(), "second", null);
+
+        awaitWritten(queue, 1);
+        assertEquals(1L, queue.getMetrics().get("failedBatches"));
+        assertEquals("second", savedBatches.get(savedBatches.size() - 1).get(0).getText());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void changesWaitWhileQueueIsFullTest() throws InterruptedException {
+        queue = new WriteBehindQueue(target, 100, 1, 5000, 50, 10);
+        HashMapTasksRepository repository = new HashMapTasksRepository(new TimeOrderedTaskIdGenerator(), queue);
+        writeReleased = new CountDownLatch(1);
+
+        repository.addTask(new AddTaskRequest("written"));
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        repository.addTask(new AddTaskRequest("queued"));
+        try {
+            repository.addTask(new AddTaskRequest("rejected"));
+            fail("Change must not be applied while queue is full");
+        } catch (IllegalStateException e) {
+            assertEquals(1L, queue.getMetrics().get("throttledChanges"));
+        }
+        writeReleased.countDown();
+
+        repository.addTask(new AddTaskRequest("accepted"));
+        awaitWritten(queue, 3);
+        assertEquals(3, repository.exportTasks(null, task -> { }));
+    }
+
+    private void awaitWritten(final WriteBehindQueue writeBehindQueue, final long tasks) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) writeBehindQueue.getMetrics().get("writtenTasks") < tasks || writeBehindQueue.getQueueDepth() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Tasks are not written: " + writeBehindQueue.getMetrics());
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
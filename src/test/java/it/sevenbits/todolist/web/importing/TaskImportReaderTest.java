@@ -0,0 +1,75 @@
+package it.sevenbits.todolist.web.importing;
+
+import it.sevenbits.todolist.core.id.RandomTaskIdGenerator;
+import it.sevenbits.todolist.core.model.Task;
+import it.sevenbits.todolist.core.validation.id.service.TaskIDValidator;
+import it.sevenbits.todolist.core.validation.status.service.TaskStatusValidator;
+import it.sevenbits.todolist.web.exceptions.InvalidImportDataException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskImportReaderTest {
+    @Test
+    public void ndjsonImportTest() throws IOException {
+        String body = "{\"text\":\"first\"}\n" +
+                "{\"text\":\"second\",\"status\":\"done\",\"id\":\"123e4567-e89b-12d3-a456-426655440000\"," +
+                "\"createdAt\":\"2019-01-02T3:04:05+00:00\"}\n" +
+                "{\"text\":\" \"}\n" +
+                "{\"text\":\"third\",\"status\":\"later\"}\n" +
+                "{\"text\":{\"nested\":true}}\n";
+        TaskImportReader reader = new NdjsonTaskImportReader(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                new TaskIDValidator(), new TaskStatusValidator(), new RandomTaskIdGenerator());
+
+        List<Task> tasks = readAll(reader);
+
+        assertEquals(2, tasks.size());
+        assertEquals("inbox", tasks.get(0).getStatus());
+        assertEquals("123e4567-e89b-12d3-a456-426655440000", tasks.get(1).getId().toString());
+        assertEquals(tasks.get(1).getCreatedAt(), tasks.get(1).getUpdatedAt());
+        assertEquals(3, reader.getRejectedCount());
+        assertEquals("line 4: status is invalid", reader.getErrors().get(1));
+    }
+
+    @Test
+    public void csvImportTest() throws IOException {
+        String body = "status,text\r\n" +
+                "done,\"multi\nline, \"\"quoted\"\"\"\r\n" +
+                "\n" +
+                "inbox,plain\n" +
+                "inbox\n";
+        TaskImportReader reader = new CsvTaskImportReader(new StringReader(body),
+                new TaskIDValidator(), new TaskStatusValidator(), new RandomTaskIdGenerator());
+
+        List<Task> tasks = readAll(reader);
+
+        assertEquals(2, tasks.size());
+        assertEquals("multi\nline, \"quoted\"", tasks.get(0).getText());
+        assertEquals("done", tasks.get(0).getStatus());
+        assertEquals("plain", tasks.get(1).getText());
+        assertEquals(1, reader.getRejectedCount());
+        assertEquals("line 6: record has 1 fields, header has 2", reader.getErrors().get(0));
+    }
+
+    @Test(expected = InvalidImportDataException.class)
+    public void malformedNdjsonImportTest() throws IOException {
+        TaskImportReader reader = new NdjsonTaskImportReader(
+                new ByteArrayInputStream("{\"text\":\"first\"}\n{\"text\":".getBytes(StandardCharsets.UTF_8)),
+                new TaskIDValidator(), new TaskStatusValidator(), new RandomTaskIdGenerator());
+        readAll(reader);
+    }
+
+    private static List<Task> readAll(final TaskImportReader reader) {
+        List<Task> tasks = new ArrayList<>();
+        reader.forEachRemaining(tasks::add);
+        return tasks;
+    }
+}